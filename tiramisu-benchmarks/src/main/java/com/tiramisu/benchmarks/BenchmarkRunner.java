@@ -0,0 +1,26 @@
+package com.tiramisu.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs all builder benchmarks with the GC profiler, so the results contain the throughput and the bytes allocated per
+ * build. An optional argument restricts the benchmarks to those matching the given regular expression.
+ */
+public final class BenchmarkRunner {
+
+  /** This is a utility class. */
+  private BenchmarkRunner() {}
+
+  public static void main(String[] args) throws RunnerException {
+    Options options = new OptionsBuilder()
+        .include(args.length > 0 ? args[0] : BenchmarkRunner.class.getPackage().getName() + ".*Benchmark")
+        .addProfiler(GCProfiler.class)
+        .build();
+
+    new Runner(options).run();
+  }
+}
@@ -0,0 +1,53 @@
+package com.tiramisu.benchmarks;
+
+import com.tiramisu.domain.TripleSubBuilder;
+import com.tiramisu.domain.builder.Fixtures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Creates a dataset of random {@code TripleSub}s on one thread and on the common fork-join pool, to see how the
+ * parallel stream scales with the number of cores.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FixturesBenchmark {
+
+  private static final long SEED = 42L;
+
+  @Param({"100000"})
+  private long count;
+
+  private TripleSubBuilder.TripleSubSpec spec;
+
+  @Setup
+  public void setUp() {
+    spec = TripleSubBuilder.create().withTriple("triple").freeze();
+  }
+
+  @Benchmark
+  public void sequentialStream(Blackhole blackhole) {
+    Fixtures.stream(spec::build, count, SEED).forEach(blackhole::consume);
+  }
+
+  @Benchmark
+  public void parallelStream(Blackhole blackhole) {
+    Fixtures.parallelStream(spec::build, count, SEED).forEach(blackhole::consume);
+  }
+}
@@ -0,0 +1,23 @@
+package com.tiramisu.benchmarks;
+
+import java.lang.reflect.Field;
+
+/**
+ * The way the first generated builders set fields: every call looks the field up by name, makes it accessible and sets
+ * the boxed value. The benchmarks measure the generated builders against this.
+ */
+final class ReflectiveBaseline {
+
+  /** This is a utility class. */
+  private ReflectiveBaseline() {}
+
+  static void setField(Object target, String fieldName, Class<?> type, Object fieldValue) {
+    try {
+      Field objectField = type.getDeclaredField(fieldName);
+      objectField.setAccessible(true);
+      objectField.set(target, fieldValue);
+    } catch (Exception ex) {
+      ex.printStackTrace();
+    }
+  }
+}
@@ -0,0 +1,77 @@
+package com.tiramisu.benchmarks;
+
+import com.tiramisu.domain.SomeFieldClassBuilder;
+import com.tiramisu.domain.builder.BuilderSpec;
+import com.tiramisu.domain.builder.Builders;
+import com.tiramisu.domain.objects.SomeFieldClass;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/** A builder with two reflectively written fields. See {@link SubBuilderBenchmark} for what the benchmarks measure. */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SomeFieldClassBuilderBenchmark {
+
+  private static final String STRING_BOY = "string boy";
+  private static final char SOME_CHAR = 'c';
+
+  private SomeFieldClassBuilder builder;
+  private SomeFieldClassBuilder.SomeFieldClassSpec spec;
+  private BuilderSpec<SomeFieldClass> runtimeSpec;
+
+  @Setup
+  public void setUp() {
+    builder = configure(SomeFieldClassBuilder.create());
+    spec = configure(SomeFieldClassBuilder.create()).freeze();
+    runtimeSpec = Builders.forClass(SomeFieldClass.class)
+        .set("stringBoy", STRING_BOY)
+        .setChar("someChar", SOME_CHAR)
+        .freeze();
+  }
+
+  private static SomeFieldClassBuilder configure(SomeFieldClassBuilder builder) {
+    return builder.with(STRING_BOY).with(SOME_CHAR);
+  }
+
+  @Benchmark
+  public SomeFieldClass reflectiveBaseline() {
+    SomeFieldClass someFieldClass = new SomeFieldClass();
+    ReflectiveBaseline.setField(someFieldClass, "stringBoy", SomeFieldClass.class, STRING_BOY);
+    ReflectiveBaseline.setField(someFieldClass, "someChar", SomeFieldClass.class, SOME_CHAR);
+    return someFieldClass;
+  }
+
+  @Benchmark
+  public SomeFieldClass generatedBuild() {
+    return builder.build();
+  }
+
+  @Benchmark
+  public SomeFieldClass generatedNewInstance() {
+    return spec.build();
+  }
+
+  @Benchmark
+  public SomeFieldClass pooledBuilder() {
+    return configure(SomeFieldClassBuilder.pooled()).build();
+  }
+
+  @Benchmark
+  public SomeFieldClass runtimeBuilder() {
+    return runtimeSpec.build();
+  }
+}
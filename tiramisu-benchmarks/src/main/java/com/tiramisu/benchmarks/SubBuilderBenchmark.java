@@ -0,0 +1,107 @@
+package com.tiramisu.benchmarks;
+
+import com.tiramisu.domain.SubBuilder;
+import com.tiramisu.domain.builder.BuilderSpec;
+import com.tiramisu.domain.builder.Builders;
+import com.tiramisu.domain.objects.Base;
+import com.tiramisu.domain.objects.Sub;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sets six fields of {@link Sub} and its superclass {@link Base} in different ways:
+ * <ul>
+ *   <li>{@code reflectiveBaseline}: new instance, every field looked up by name on every build</li>
+ *   <li>{@code generatedBuild}: {@code build()} of a generated builder, which writes into the same instance every
+ *   time and so allocates nothing</li>
+ *   <li>{@code generatedNewInstance}: a frozen spec of a generated builder, one new instance per build</li>
+ *   <li>{@code pooledBuilder}: the thread's pooled generated builder, configured and built from scratch</li>
+ *   <li>{@code runtimeBuilder}: a frozen spec of a runtime builder, one new instance per build</li>
+ * </ul>
+ * Run with {@code -prof gc} to see the allocation rate per build ({@code gc.alloc.rate.norm}).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SubBuilderBenchmark {
+
+  private static final String HERE_IN_SUB = "here in sub";
+  private static final String THERE_IN_SUB = "there in sub";
+  private static final char SOME_CHAR = 'c';
+  private static final Integer THERE_IN_BASE = 15;
+  private static final Date DATE_IN_BASE = new Date(5L);
+  private static final int HI = 42;
+
+  private SubBuilder builder;
+  private SubBuilder.SubSpec spec;
+  private BuilderSpec<Sub> runtimeSpec;
+
+  @Setup
+  public void setUp() {
+    builder = configure(SubBuilder.create());
+    spec = configure(SubBuilder.create()).freeze();
+    runtimeSpec = Builders.forClass(Sub.class)
+        .set("hereInSub", HERE_IN_SUB)
+        .set("thereInSub", THERE_IN_SUB)
+        .setChar("someChar", SOME_CHAR)
+        .set("thereInBase", THERE_IN_BASE)
+        .set("dateInBase", DATE_IN_BASE)
+        .setInt("hi", HI)
+        .freeze();
+  }
+
+  private static SubBuilder configure(SubBuilder builder) {
+    return builder.withHereInSub(HERE_IN_SUB)
+                  .withThereInSub(THERE_IN_SUB)
+                  .with(SOME_CHAR)
+                  .with(THERE_IN_BASE)
+                  .with(DATE_IN_BASE)
+                  .with(HI);
+  }
+
+  @Benchmark
+  public Sub reflectiveBaseline() {
+    Sub sub = new Sub();
+    ReflectiveBaseline.setField(sub, "here", Sub.class, HERE_IN_SUB);
+    ReflectiveBaseline.setField(sub, "there", Sub.class, THERE_IN_SUB);
+    ReflectiveBaseline.setField(sub, "someChar", Sub.class, SOME_CHAR);
+    ReflectiveBaseline.setField(sub, "there", Base.class, THERE_IN_BASE);
+    ReflectiveBaseline.setField(sub, "date", Base.class, DATE_IN_BASE);
+    ReflectiveBaseline.setField(sub, "hi", Base.class, HI);
+    return sub;
+  }
+
+  @Benchmark
+  public Sub generatedBuild() {
+    return builder.build();
+  }
+
+  @Benchmark
+  public Sub generatedNewInstance() {
+    return spec.build();
+  }
+
+  @Benchmark
+  public Sub pooledBuilder() {
+    return configure(SubBuilder.pooled()).build();
+  }
+
+  @Benchmark
+  public Sub runtimeBuilder() {
+    return runtimeSpec.build();
+  }
+}
@@ -0,0 +1,111 @@
+package com.tiramisu.benchmarks;
+
+import com.tiramisu.domain.TripleSubBuilder;
+import com.tiramisu.domain.builder.BuilderSpec;
+import com.tiramisu.domain.builder.Builders;
+import com.tiramisu.domain.objects.Base;
+import com.tiramisu.domain.objects.Sub;
+import com.tiramisu.domain.objects.TripleSub;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sets fields of all three classes in the hierarchy, most of them primitive, so the baseline boxes them. See
+ * {@link SubBuilderBenchmark} for what the benchmarks measure.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TripleSubBuilderBenchmark {
+
+  private static final String TRIPLE = "triple";
+  private static final long LONGY = 42L;
+  private static final double DOUBLEY = 4.2;
+  private static final float FLOATY = 2.4f;
+  private static final short SHORTY = 7;
+  private static final boolean BOOLEANY = true;
+  private static final String HERE_IN_SUB = "here in sub";
+  private static final String HERE_IN_BASE = "here in base";
+  private static final int HI = 1;
+
+  private TripleSubBuilder builder;
+  private TripleSubBuilder.TripleSubSpec spec;
+  private BuilderSpec<TripleSub> runtimeSpec;
+
+  @Setup
+  public void setUp() {
+    builder = configure(TripleSubBuilder.create());
+    spec = configure(TripleSubBuilder.create()).freeze();
+    runtimeSpec = Builders.forClass(TripleSub.class)
+        .set("triple", TRIPLE)
+        .setLong("longy", LONGY)
+        .setDouble("doubley", DOUBLEY)
+        .setFloat("floaty", FLOATY)
+        .setShort("shorty", SHORTY)
+        .setBoolean("booleany", BOOLEANY)
+        .set("hereInSub", HERE_IN_SUB)
+        .set("hereInBase", HERE_IN_BASE)
+        .setInt("hi", HI)
+        .freeze();
+  }
+
+  private static TripleSubBuilder configure(TripleSubBuilder builder) {
+    return builder.withTriple(TRIPLE)
+                  .with(LONGY)
+                  .with(DOUBLEY)
+                  .with(FLOATY)
+                  .with(SHORTY)
+                  .with(BOOLEANY)
+                  .withHereInSub(HERE_IN_SUB)
+                  .withHereInBase(HERE_IN_BASE)
+                  .with(HI);
+  }
+
+  @Benchmark
+  public TripleSub reflectiveBaseline() {
+    TripleSub tripleSub = new TripleSub();
+    ReflectiveBaseline.setField(tripleSub, "triple", TripleSub.class, TRIPLE);
+    ReflectiveBaseline.setField(tripleSub, "longy", TripleSub.class, LONGY);
+    ReflectiveBaseline.setField(tripleSub, "doubley", TripleSub.class, DOUBLEY);
+    ReflectiveBaseline.setField(tripleSub, "floaty", TripleSub.class, FLOATY);
+    ReflectiveBaseline.setField(tripleSub, "shorty", TripleSub.class, SHORTY);
+    ReflectiveBaseline.setField(tripleSub, "booleany", TripleSub.class, BOOLEANY);
+    ReflectiveBaseline.setField(tripleSub, "here", Sub.class, HERE_IN_SUB);
+    ReflectiveBaseline.setField(tripleSub, "here", Base.class, HERE_IN_BASE);
+    ReflectiveBaseline.setField(tripleSub, "hi", Base.class, HI);
+    return tripleSub;
+  }
+
+  @Benchmark
+  public TripleSub generatedBuild() {
+    return builder.build();
+  }
+
+  @Benchmark
+  public TripleSub generatedNewInstance() {
+    return spec.build();
+  }
+
+  @Benchmark
+  public TripleSub pooledBuilder() {
+    return configure(TripleSubBuilder.pooled()).build();
+  }
+
+  @Benchmark
+  public TripleSub runtimeBuilder() {
+    return runtimeSpec.build();
+  }
+}
@@ -0,0 +1,336 @@
+package com.tiramisu.builder.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Generates builders for classes annotated with {@link GenerateBuilder}. The fields are read from the
+ * {@code javax.lang.model} of the sources being compiled, so the classes don't have to be loaded. Every class of the
+ * hierarchy is passed as an originating element of the builder, so incremental compilation regenerates a builder
+ * whenever one of them changes.
+ */
+@SupportedAnnotationTypes("com.tiramisu.builder.processor.GenerateBuilder")
+public final class BuilderProcessor extends AbstractProcessor {
+
+  static final String SETTER_METHOD_NAME_PREFIX = "with";
+
+  @Override
+  public SourceVersion getSupportedSourceVersion() {
+    return SourceVersion.latestSupported();
+  }
+
+  @Override
+  public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+    for (Element element : roundEnv.getElementsAnnotatedWith(GenerateBuilder.class)) {
+      if (element.getKind() != ElementKind.CLASS || element.getModifiers().contains(Modifier.ABSTRACT)) {
+        error(element, "@GenerateBuilder can only be used on concrete classes");
+        continue;
+      }
+
+      try {
+        generateBuilderFor((TypeElement) element);
+      } catch (IOException e) {
+        error(element, "Could not write builder: " + e.getMessage());
+      }
+    }
+    return true;
+  }
+
+  private void generateBuilderFor(TypeElement targetClass) throws IOException {
+    String packageName = packageOf(targetClass).getQualifiedName().toString();
+    String builderClassName = targetClass.getSimpleName() + "Builder";
+    Map<String, String> imports = new HashMap<>();
+    // nested classes need an import, which can't clash with anything while the target class is the first one
+    String targetClassName = typeNameOf(targetClass.asType(), packageName, imports);
+
+    List<TypeElement> copiedHierarchy = copiedHierarchyOf(targetClass);
+    List<ModeledField> fields = modelFields(targetClass, hierarchyOf(targetClass), packageName, imports);
+    List<ModeledField> copiedFields = modelFields(targetClass, copiedHierarchy, packageName, imports);
+
+    String qualifiedBuilderName = packageName.isEmpty() ? builderClassName : packageName + "." + builderClassName;
+    JavaFileObject builderFile = processingEnv.getFiler()
+        .createSourceFile(qualifiedBuilderName, copiedHierarchy.toArray(new Element[0]));
+
+    try (PrintWriter writer = new PrintWriter(builderFile.openWriter())) {
+      new BuilderWriter(writer, packageName, builderClassName, targetClassName, fields, copiedFields,
+                        new TreeSet<>(imports.values())).write();
+    }
+  }
+
+  /* ---------------------------------------------------------------------------------------------------------------- */
+  /*                                                    hierarchy                                                     */
+  /* ---------------------------------------------------------------------------------------------------------------- */
+  /** @return the classes from the target class up to the upper bound, without the ignored ones */
+  private List<TypeElement> hierarchyOf(TypeElement targetClass) {
+    Set<String> ignoredClasses = new HashSet<>();
+    AnnotationValue ignore = attributeOf(targetClass, "ignore");
+    if (ignore != null) {
+      for (Object ignored : (List<?>) ignore.getValue()) {
+        ignoredClasses.add(qualifiedNameOf((TypeMirror) ((AnnotationValue) ignored).getValue()));
+      }
+    }
+
+    List<TypeElement> hierarchy = copiedHierarchyOf(targetClass);
+    hierarchy.removeIf(clazz -> ignoredClasses.contains(clazz.getQualifiedName().toString()));
+    return hierarchy;
+  }
+
+  /**
+   * @return the classes from the target class up to the upper bound including the ignored ones, for copying every
+   *     field of an instance. Classes above the upper bound are left out because they might not be accessible, e.g.
+   *     the JDK doesn't let the builder open the fields of {@code java.util.AbstractList} on Java 9 and later.
+   */
+  private List<TypeElement> copiedHierarchyOf(TypeElement targetClass) {
+    AnnotationValue upperBoundAttribute = attributeOf(targetClass, "upperBound");
+    String upperBound = upperBoundAttribute == null
+                        ? Object.class.getName()
+                        : qualifiedNameOf((TypeMirror) upperBoundAttribute.getValue());
+
+    List<TypeElement> hierarchy = new ArrayList<>();
+    for (TypeElement clazz = targetClass; clazz != null; clazz = superclassOf(clazz)) {
+      hierarchy.add(clazz);
+      if (clazz.getQualifiedName().contentEquals(upperBound)) {
+        break;
+      }
+    }
+    return hierarchy;
+  }
+
+  /** @return the value of an attribute of the target class' {@code @GenerateBuilder}, or {@code null} if not set */
+  private AnnotationValue attributeOf(TypeElement targetClass, String attribute) {
+    for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry :
+        generateBuilderAnnotationOf(targetClass).getElementValues().entrySet()) {
+      if (entry.getKey().getSimpleName().contentEquals(attribute)) {
+        return entry.getValue();
+      }
+    }
+    return null;
+  }
+
+  private AnnotationMirror generateBuilderAnnotationOf(TypeElement targetClass) {
+    for (AnnotationMirror annotation : targetClass.getAnnotationMirrors()) {
+      if (qualifiedNameOf(annotation.getAnnotationType()).equals(GenerateBuilder.class.getCanonicalName())) {
+        return annotation;
+      }
+    }
+    throw new IllegalStateException(targetClass + " is not annotated with @GenerateBuilder");
+  }
+
+  private TypeElement superclassOf(TypeElement clazz) {
+    TypeMirror superclass = clazz.getSuperclass();
+    return superclass.getKind() == TypeKind.DECLARED ? (TypeElement) ((DeclaredType) superclass).asElement() : null;
+  }
+
+  /* ---------------------------------------------------------------------------------------------------------------- */
+  /*                                                      fields                                                      */
+  /* ---------------------------------------------------------------------------------------------------------------- */
+  private List<ModeledField> modelFields(TypeElement targetClass, List<TypeElement> hierarchy, String packageName,
+                                         Map<String, String> imports) {
+    List<VariableElement> fieldElements = new ArrayList<>();
+    hierarchy.forEach(clazz -> ElementFilter.fieldsIn(clazz.getEnclosedElements()).stream()
+                                            .filter(field -> !field.getModifiers().contains(Modifier.STATIC))
+                                            .forEach(fieldElements::add));
+
+    Map<String, Integer> occurrencesOfFieldName = new HashMap<>();
+    Map<String, Integer> occurrencesOfFieldType = new HashMap<>();
+    fieldElements.forEach(field -> {
+      occurrencesOfFieldName.merge(field.getSimpleName().toString(), 1, Integer::sum);
+      occurrencesOfFieldType.merge(erasureOf(field).toString(), 1, Integer::sum);
+    });
+
+    List<ModeledField> fields = new ArrayList<>();
+
+    for (VariableElement fieldElement : fieldElements) {
+      TypeElement declaringClass = (TypeElement) fieldElement.getEnclosingElement();
+      ModeledField field = new ModeledField();
+
+      field.name = fieldElement.getSimpleName().toString();
+      field.builderFieldName = occurrencesOfFieldName.get(field.name) > 1
+                               ? lowercase(field.name + "In" + declaringClass.getSimpleName())
+                               : lowercase(field.name);
+      field.setterMethodName = occurrencesOfFieldType.get(erasureOf(fieldElement).toString()) > 1
+                               ? SETTER_METHOD_NAME_PREFIX + capitalize(field.builderFieldName)
+                               : SETTER_METHOD_NAME_PREFIX;
+      field.declaringClassName = typeNameOf(declaringClass.asType(), packageName, imports);
+      field.declaringClassSimpleName = declaringClass.getSimpleName().toString();
+      field.typeName = typeNameOf(erasureOf(fieldElement), packageName, imports);
+      field.runtimeTypeName = runtimeTypeNameOf(erasureOf(fieldElement));
+      field.primitive = erasureOf(fieldElement).getKind().isPrimitive();
+      field.builderOfTypeName = builderOfTypeName(erasureOf(fieldElement), packageName, imports);
+      field.bitIndex = fields.size();
+      field.declaredInTarget = declaringClass.equals(targetClass);
+      field.assignable = isAssignableFromBuilder(fieldElement, packageName);
+
+      ExecutableElement setter = setterFor(fieldElement, targetClass);
+      if (setter != null) {
+        field.directWrite = "instance." + setter.getSimpleName() + "(" + field.builderFieldName + ");";
+      } else if (field.assignable) {
+        String result = field.declaredInTarget
+                        ? "instance"
+                        : "((" + field.declaringClassName + ") instance)";
+        field.directWrite = result + "." + field.name + " = " + field.builderFieldName + ";";
+      }
+
+      fields.add(field);
+    }
+    return fields;
+  }
+
+  /**
+   * @return the public {@code set<FieldName>(fieldType)}-method that the target class inherits from the class
+   *     declaring the field, or {@code null} if there is none or if a class in between overrides it
+   */
+  private ExecutableElement setterFor(VariableElement field, TypeElement targetClass) {
+    TypeElement declaringClass = (TypeElement) field.getEnclosingElement();
+    String setterName = "set" + capitalize(field.getSimpleName().toString());
+
+    for (TypeElement clazz = targetClass; clazz != null; clazz = superclassOf(clazz)) {
+      for (ExecutableElement method : ElementFilter.methodsIn(clazz.getEnclosedElements())) {
+        if (method.getSimpleName().contentEquals(setterName)
+            && method.getParameters().size() == 1
+            && processingEnv.getTypeUtils().isSameType(erasureOf(method.getParameters().get(0)), erasureOf(field))) {
+          boolean usable = clazz.equals(declaringClass)
+                           && clazz.getModifiers().contains(Modifier.PUBLIC)
+                           && method.getModifiers().contains(Modifier.PUBLIC)
+                           && !method.getModifiers().contains(Modifier.STATIC);
+          return usable ? method : null;
+        }
+      }
+      if (clazz.equals(declaringClass)) {
+        return null;
+      }
+    }
+    return null;
+  }
+
+  private boolean isAssignableFromBuilder(VariableElement field, String packageName) {
+    Set<Modifier> fieldModifiers = field.getModifiers();
+    TypeElement declaringClass = (TypeElement) field.getEnclosingElement();
+    boolean inBuilderPackage = packageOf(declaringClass).getQualifiedName().contentEquals(packageName);
+
+    if (fieldModifiers.contains(Modifier.FINAL) || fieldModifiers.contains(Modifier.PRIVATE)) {
+      return false;
+    }
+    if (fieldModifiers.contains(Modifier.PUBLIC)) {
+      return declaringClass.getModifiers().contains(Modifier.PUBLIC) || inBuilderPackage;
+    }
+    return inBuilderPackage;
+  }
+
+  private String builderOfTypeName(TypeMirror type, String packageName, Map<String, String> imports) {
+    if (type.getKind() != TypeKind.DECLARED) {
+      return null;
+    }
+
+    TypeElement typeElement = (TypeElement) ((DeclaredType) type).asElement();
+    for (AnnotationMirror annotation : typeElement.getAnnotationMirrors()) {
+      if (qualifiedNameOf(annotation.getAnnotationType()).equals(GenerateBuilder.class.getCanonicalName())) {
+        String typePackage = packageOf(typeElement).getQualifiedName().toString();
+        String builderName = typeElement.getSimpleName() + "Builder";
+        return importIfNeeded(typePackage.isEmpty() ? builderName : typePackage + "." + builderName, builderName,
+                              typePackage, packageName, imports);
+      }
+    }
+    return null;
+  }
+
+  /* ---------------------------------------------------------------------------------------------------------------- */
+  /*                                                   type names                                                     */
+  /* ---------------------------------------------------------------------------------------------------------------- */
+  /**
+   * Renders a type as it can be used in the builder and adds the necessary imports. Types whose simple name is
+   * already taken by another import are written fully qualified.
+   */
+  private String typeNameOf(TypeMirror type, String packageName, Map<String, String> imports) {
+    if (type.getKind().isPrimitive()) {
+      return type.toString();
+    }
+    if (type.getKind() == TypeKind.ARRAY) {
+      return typeNameOf(((ArrayType) type).getComponentType(), packageName, imports) + "[]";
+    }
+    if (type.getKind() != TypeKind.DECLARED) {
+      return processingEnv.getTypeUtils().erasure(type).toString();
+    }
+
+    TypeElement typeElement = (TypeElement) ((DeclaredType) type).asElement();
+    return importIfNeeded(typeElement.getQualifiedName().toString(), typeElement.getSimpleName().toString(),
+                          packageOf(typeElement).getQualifiedName().toString(), packageName, imports);
+  }
+
+  /** Renders a type like {@link Class#getTypeName()}, which uses binary names for nested classes. */
+  private String runtimeTypeNameOf(TypeMirror type) {
+    if (type.getKind() == TypeKind.ARRAY) {
+      return runtimeTypeNameOf(((ArrayType) type).getComponentType()) + "[]";
+    }
+    if (type.getKind() != TypeKind.DECLARED) {
+      return processingEnv.getTypeUtils().erasure(type).toString();
+    }
+    return processingEnv.getElementUtils().getBinaryName((TypeElement) ((DeclaredType) type).asElement()).toString();
+  }
+
+  private String importIfNeeded(String qualifiedName, String simpleName, String typePackage, String packageName,
+                                Map<String, String> imports) {
+    boolean topLevel = qualifiedName.equals(typePackage.isEmpty() ? simpleName : typePackage + "." + simpleName);
+
+    if (topLevel && (typePackage.equals("java.lang") || typePackage.equals(packageName))) {
+      return simpleName;
+    }
+    String alreadyImported = imports.putIfAbsent(simpleName, qualifiedName);
+    return alreadyImported == null || alreadyImported.equals(qualifiedName) ? simpleName : qualifiedName;
+  }
+
+  private TypeMirror erasureOf(Element element) {
+    return processingEnv.getTypeUtils().erasure(element.asType());
+  }
+
+  private String qualifiedNameOf(TypeMirror type) {
+    return ((TypeElement) processingEnv.getTypeUtils().asElement(type)).getQualifiedName().toString();
+  }
+
+  private PackageElement packageOf(Element element) {
+    return processingEnv.getElementUtils().getPackageOf(element);
+  }
+
+  private void error(Element element, String message) {
+    processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+  }
+
+  static String lowercase(String string) {
+    return string.substring(0, 1).toLowerCase() + string.substring(1);
+  }
+
+  static String capitalize(String string) {
+    return string.substring(0, 1).toUpperCase() + string.substring(1);
+  }
+
+  static String constantCase(String string) {
+    return string.replaceAll("([a-z0-9])([A-Z])", "$1_$2").toUpperCase();
+  }
+}
@@ -0,0 +1,504 @@
+package com.tiramisu.builder.processor;
+
+import java.io.PrintWriter;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static com.tiramisu.builder.processor.BuilderProcessor.capitalize;
+import static com.tiramisu.builder.processor.BuilderProcessor.constantCase;
+import static com.tiramisu.builder.processor.BuilderProcessor.lowercase;
+
+/**
+ * Writes the source of a builder for the {@link ModeledField}s of a class. The output has the same shape as the
+ * builders of the {@code BuilderGenerator} with its default configuration.
+ */
+final class BuilderWriter {
+
+  private final PrintWriter stream;
+  private final String packageName;
+  private final String builderClassName;
+  private final String targetClassName;
+  private final String resultFieldName;
+  private final String prototypeFieldName;
+  private final List<ModeledField> fields;
+  private final List<ModeledField> copiedFields;
+  private final Set<String> imports;
+  private final Map<String, ModeledField> handles;
+
+  /**
+   * @param fields the fields that the builder has methods for
+   * @param copiedFields the fields up to the upper bound including those of ignored classes, for {@code copyOf}
+   */
+  BuilderWriter(PrintWriter stream, String packageName, String builderClassName, String targetClassName,
+                List<ModeledField> fields, List<ModeledField> copiedFields, Set<String> imports) {
+    this.stream = stream;
+    this.packageName = packageName;
+    this.builderClassName = builderClassName;
+    this.targetClassName = targetClassName;
+    this.resultFieldName = "_result_" + lowercase(targetClassName);
+    this.prototypeFieldName = "_prototype_" + lowercase(targetClassName);
+    this.fields = fields;
+    this.copiedFields = copiedFields;
+    this.imports = imports;
+
+    this.handles = new LinkedHashMap<>();
+    fields.stream().filter(ModeledField::isSetViaReflection).forEach(this::addHandle);
+    copiedFields.stream().filter(field -> !field.assignable).forEach(this::addHandle);
+  }
+
+  /** The names of the fields in the builder and in the whole hierarchy can differ, so handles are matched by field. */
+  private void addHandle(ModeledField field) {
+    if (handleNameOf(field) != null) {
+      return;
+    }
+    String handleName = constantCase(field.builderFieldName);
+    if (handles.containsKey(handleName)) {
+      handleName = constantCase(field.name + "In" + field.declaringClassSimpleName);
+    }
+    for (int suffix = 2; handles.containsKey(handleName); suffix++) {
+      handleName = constantCase(field.name + "In" + field.declaringClassSimpleName) + "_" + suffix;
+    }
+    handles.put(handleName, field);
+  }
+
+  void write() {
+    packageStatement();
+    imports();
+    classHeader();
+    builderConstructor();
+    fieldHandles();
+    builderFields();
+    fieldsToSet();
+    createBuilderMethod();
+    pooledBuilderMethod();
+    withFieldMethods();
+    clearFieldsMethod();
+    resetMethod();
+    startingFromInstanceMethod();
+    buildMethod();
+    bulkBuildMethods();
+    freezeMethod();
+    copyOfMethod();
+    writeFieldsMethod();
+    setFieldMethod();
+    copyFieldMethod();
+    fieldLookupMethod();
+    stream.println("}");
+  }
+
+  private void packageStatement() {
+    if (!packageName.isEmpty()) {
+      stream.println("package " + packageName + ";");
+      stream.println();
+    }
+  }
+
+  private void imports() {
+    if (!handles.isEmpty()) {
+      stream.println("import java.lang.reflect.Field;");
+    }
+    if (!fieldsToSetFitsInLong()) {
+      stream.println("import java.util.BitSet;");
+    }
+    imports.forEach(qualifiedName -> stream.println("import " + qualifiedName + ";"));
+    stream.println();
+  }
+
+  private void classHeader() {
+    stream.println("@SuppressWarnings({\"unused\", \"UnusedReturnValue\", \"WeakerAccess\", \"SameParameterValue\"})");
+    stream.println("public final class " + builderClassName + " {");
+    stream.println();
+  }
+
+  private void builderConstructor() {
+    stream.println("  /** This is a utility class. */");
+    stream.println("  private " + builderClassName + "() {}");
+    stream.println();
+  }
+
+  private void fieldHandles() {
+    if (handles.isEmpty()) {
+      return;
+    }
+
+    handles.forEach((handleName, field) -> {
+      String lookup = "  private static final Field " + handleName + " = field("
+                      + field.declaringClassName + ".class, \"" + field.name + "\",";
+      String fieldTypeName = "\"" + field.runtimeTypeName + "\");";
+
+      if (lookup.length() + 1 + fieldTypeName.length() <= 120) {
+        stream.println(lookup + " " + fieldTypeName);
+      } else {
+        stream.println(lookup);
+        stream.println("      " + fieldTypeName);
+      }
+    });
+    stream.println();
+  }
+
+  private void builderFields() {
+    stream.println("  private " + targetClassName + " " + resultFieldName + ";");
+    stream.println("  private " + targetClassName + " " + prototypeFieldName + ";");
+    fields.forEach(field -> stream.println("  private " + field.typeName + " " + field.builderFieldName + ";"));
+    nestedBuilderFields().forEach(field -> stream.println("  private " + field.builderOfTypeName + " "
+                                                                       + field.builderFieldName + "Builder;"));
+    stream.println();
+  }
+
+  /** Fields whose builder method for a nested builder keeps it until {@code build()}. */
+  private Stream<ModeledField> nestedBuilderFields() {
+    return fields.stream().filter(field -> field.builderOfTypeName != null);
+  }
+
+  private boolean hasNestedBuilders() {
+    return nestedBuilderFields().findAny().isPresent();
+  }
+
+  private void fieldsToSet() {
+    if (fieldsToSetFitsInLong()) {
+      stream.println("  private long fieldsToSet;");
+    } else {
+      stream.println("  private final BitSet fieldsToSet = new BitSet(" + fields.size() + ");");
+    }
+    stream.println();
+  }
+
+  private boolean fieldsToSetFitsInLong() {
+    return fields.size() <= Long.SIZE;
+  }
+
+  private String markFieldAsSet(ModeledField field) {
+    return fieldsToSetFitsInLong()
+           ? "fieldsToSet |= 1L << " + field.bitIndex + ";"
+           : "fieldsToSet.set(" + field.bitIndex + ");";
+  }
+
+  private String fieldIsSet(ModeledField field) {
+    return fieldsToSetFitsInLong()
+           ? "(fieldsToSet & 1L << " + field.bitIndex + ") != 0"
+           : "fieldsToSet.get(" + field.bitIndex + ")";
+  }
+
+  private void createBuilderMethod() {
+    stream.println("  public static " + builderClassName + " create() {");
+    stream.println("    return new " + builderClassName + "();");
+    stream.println("  }");
+    stream.println();
+  }
+
+  private void pooledBuilderMethod() {
+    stream.println("  private static final ThreadLocal<" + builderClassName + "> POOL = ThreadLocal.withInitial("
+                                                            + builderClassName + "::new);");
+    stream.println();
+    stream.println("  public static " + builderClassName + " pooled() {");
+    stream.println("    " + builderClassName + " builder = POOL.get();");
+    stream.println("    builder.reset();");
+    stream.println("    return builder;");
+    stream.println("  }");
+    stream.println();
+  }
+
+  private void withFieldMethods() {
+    for (ModeledField field : fields) {
+      stream.println("  /** {@link " + field.declaringClassName + "#" + field.name + "}. */");
+      stream.println("  public " + builderClassName + " " + field.setterMethodName
+                                 + "(" + field.typeName + " " + field.builderFieldName + ") {");
+      stream.println("    this." + field.builderFieldName + " = " + field.builderFieldName + ";");
+      if (field.builderOfTypeName != null) {
+        stream.println("    this." + field.builderFieldName + "Builder = null;");
+      }
+      stream.println("    " + markFieldAsSet(field));
+      stream.println("    return this;");
+      stream.println("  }");
+      stream.println();
+
+      if (field.builderOfTypeName != null) {
+        stream.println("  /** {@link " + field.declaringClassName + "#" + field.name
+                                     + "}, built by the next {@code build()} of this builder. */");
+        stream.println("  public " + builderClassName + " " + field.setterMethodName
+                                   + "(" + field.builderOfTypeName + " " + field.builderFieldName + "Builder) {");
+        stream.println("    this." + field.builderFieldName + "Builder = " + field.builderFieldName + "Builder;");
+        stream.println("    " + markFieldAsSet(field));
+        stream.println("    return this;");
+        stream.println("  }");
+        stream.println();
+      }
+    }
+  }
+
+  private void clearFieldsMethod() {
+    stream.println("  /**");
+    stream.println("    * Sets all fields to the default value that the");
+    stream.println("    * <a href=\"https://docs.oracle.com/javase/specs/jvms/se8/jvms8.pdf\">JVM specification</a>");
+    stream.println("    * defines in sections 2.3 and 2.4.");
+    stream.println("    */");
+    stream.println("  public void clear() {");
+    fields.forEach(field -> stream.println("    " + field.setterMethodName + "(" + clearedValueFor(field) + ");"));
+    stream.println("  }");
+    stream.println();
+  }
+
+  private void resetMethod() {
+    stream.println("  public void reset() {");
+    stream.println("    " + (fieldsToSetFitsInLong() ? "fieldsToSet = 0L;" : "fieldsToSet.clear();"));
+    fields.forEach(field -> stream.println("    " + field.builderFieldName + " = "
+                                           + (field.primitive ? clearedValueFor(field) : "null") + ";"));
+    nestedBuilderFields().forEach(field -> stream.println("    " + field.builderFieldName + "Builder = null;"));
+    stream.println("    " + resultFieldName + " = null;");
+    stream.println("    " + prototypeFieldName + " = null;");
+    stream.println("  }");
+    stream.println();
+  }
+
+  private String clearedValueFor(ModeledField field) {
+    switch (field.typeName) {
+      case "boolean": return "false";
+      case "byte":    return "(byte) 0";
+      case "short":   return "(short) 0";
+      case "int":     return "0";
+      case "long":    return "0L";
+      case "char":    return "'\\u0000'";
+      case "float":   return "0.0f";
+      case "double":  return "0.0";
+      default:
+        boolean ambiguous = field.setterMethodName.equals(BuilderProcessor.SETTER_METHOD_NAME_PREFIX)
+                            || field.builderOfTypeName != null;
+        return ambiguous ? "(" + field.typeName + ") null" : "null";
+    }
+  }
+
+  private void startingFromInstanceMethod() {
+    stream.println("  /**");
+    stream.println("    * Allows to start building from a copy of an existing instance, the instance itself is not changed");
+    stream.println("    * by {@code build()}. If the instance you pass to this is {@code null}, the call to this method will");
+    stream.println("    * be ignored.");
+    stream.println("    */");
+    stream.println("  public void startingFrom(" + targetClassName + " instance) {");
+    stream.println("    if (instance != null) {");
+    stream.println("      " + (fieldsToSetFitsInLong() ? "fieldsToSet = 0L;" : "fieldsToSet.clear();"));
+    nestedBuilderFields().forEach(field -> stream.println("      " + field.builderFieldName + "Builder = null;"));
+    stream.println("      " + prototypeFieldName + " = instance;");
+    stream.println("      " + resultFieldName + " = null;");
+    stream.println("    }");
+    stream.println("  }");
+    stream.println();
+  }
+
+  private void buildMethod() {
+    stream.println("  public " + targetClassName + " build() {");
+    stream.println("    if (" + resultFieldName + " == null) {");
+    stream.println("      " + resultFieldName + " = " + prototypeFieldName + " == null ? new " + targetClassName
+                   + "() : copyOf(" + prototypeFieldName + ");");
+    stream.println("    }");
+    stream.println("    return writeFieldsTo(" + resultFieldName + ");");
+    stream.println("  }");
+    stream.println();
+  }
+
+  /** Types are qualified here because the simple names might be taken by the imports of the field types. */
+  private void bulkBuildMethods() {
+    stream.println("  public java.util.List<" + targetClassName + "> buildMany(int n, "
+                   + "java.util.function.ObjIntConsumer<" + builderClassName + "> customizer) {");
+    stream.println("    java.util.List<" + targetClassName + "> instances = new java.util.ArrayList<>(n);");
+    stream.println("    for (int i = 0; i < n; i++) {");
+    stream.println("      customizer.accept(this, i);");
+    stream.println("      instances.add(newInstanceWithFields());");
+    stream.println("    }");
+    stream.println("    return instances;");
+    stream.println("  }");
+    stream.println();
+    stream.println("  public java.util.stream.Stream<" + targetClassName + "> stream() {");
+    stream.println("    return java.util.stream.Stream.generate(this::newInstanceWithFields);");
+    stream.println("  }");
+    stream.println();
+    stream.println("  private " + targetClassName + " newInstanceWithFields() {");
+    stream.println("    if (" + prototypeFieldName + " != null) {");
+    stream.println("      return writeFieldsTo(copyOf(" + prototypeFieldName + "));");
+    stream.println("    }");
+    stream.println("    return writeFieldsTo(new " + targetClassName + "());");
+    stream.println("  }");
+    stream.println();
+  }
+
+  private void freezeMethod() {
+    String specClassName = targetClassName + "Spec";
+
+    stream.println("  public " + specClassName + " freeze() {");
+    if (hasNestedBuilders()) {
+      stream.println("    buildNestedBuilders();");
+    }
+    stream.println("    return new " + specClassName + "(copyOfBuilder());");
+    stream.println("  }");
+    stream.println();
+    stream.println("  private " + builderClassName + " copyOfBuilder() {");
+    stream.println("    " + builderClassName + " builder = new " + builderClassName + "();");
+    fields.forEach(field ->
+        stream.println("    builder." + field.builderFieldName + " = " + field.builderFieldName + ";"));
+    stream.println("    " + (fieldsToSetFitsInLong() ? "builder.fieldsToSet = fieldsToSet;"
+                                                     : "builder.fieldsToSet.or(fieldsToSet);"));
+    stream.println("    builder." + prototypeFieldName + " = " + prototypeFieldName + ";");
+    stream.println("    return builder;");
+    stream.println("  }");
+    stream.println();
+    stream.println("  public static final class " + specClassName + " {");
+    stream.println();
+    stream.println("    private final " + builderClassName + " template;");
+    stream.println();
+    stream.println("    private " + specClassName + "(" + builderClassName + " template) {");
+    stream.println("      this.template = template;");
+    stream.println("    }");
+    stream.println();
+    stream.println("    public " + builderClassName + " newBuilder() {");
+    stream.println("      return template.copyOfBuilder();");
+    stream.println("    }");
+    stream.println();
+    stream.println("    public " + targetClassName + " build() {");
+    stream.println("      return template.newInstanceWithFields();");
+    stream.println("    }");
+    stream.println("  }");
+    stream.println();
+  }
+
+  private void copyOfMethod() {
+    stream.println("  public static " + targetClassName + " copyOf(" + targetClassName + " prototype) {");
+    stream.println("    " + targetClassName + " copy = new " + targetClassName + "();");
+    for (ModeledField field : copiedFields) {
+      if (field.assignable) {
+        stream.println("    " + fieldOf("copy", field) + " = " + fieldOf("prototype", field) + ";");
+      } else {
+        stream.println("    " + copyMethodFor(field) + "(" + handleNameOf(field) + ", prototype, copy);");
+      }
+    }
+    stream.println("    return copy;");
+    stream.println("  }");
+    stream.println();
+  }
+
+  private String fieldOf(String variable, ModeledField field) {
+    return field.declaredInTarget
+           ? variable + "." + field.name
+           : "((" + field.declaringClassName + ") " + variable + ")." + field.name;
+  }
+
+  private String handleNameOf(ModeledField field) {
+    for (Map.Entry<String, ModeledField> handle : handles.entrySet()) {
+      if (handle.getValue().name.equals(field.name)
+          && handle.getValue().declaringClassName.equals(field.declaringClassName)) {
+        return handle.getKey();
+      }
+    }
+    return null;
+  }
+
+  private void writeFieldsMethod() {
+    if (hasNestedBuilders()) {
+      stream.println("  private void buildNestedBuilders() {");
+      nestedBuilderFields().forEach(field -> {
+        stream.println("    if (" + field.builderFieldName + "Builder != null) {");
+        stream.println("      " + field.builderFieldName + " = " + field.builderFieldName + "Builder.build();");
+        stream.println("      " + field.builderFieldName + "Builder = null;");
+        stream.println("    }");
+      });
+      stream.println("  }");
+      stream.println();
+    }
+
+    stream.println("  private " + targetClassName + " writeFieldsTo(" + targetClassName + " instance) {");
+    if (hasNestedBuilders()) {
+      stream.println("    buildNestedBuilders();");
+    }
+    for (ModeledField field : fields) {
+      String write = field.isSetViaReflection()
+                     ? writeMethodFor(field) + "(" + handleNameOf(field) + ", instance, "
+                                             + field.builderFieldName + ");"
+                     : field.directWrite;
+
+      stream.println("    if(" + fieldIsSet(field) + ") {");
+      stream.println("       " + write);
+      stream.println("    }");
+    }
+    stream.println();
+    stream.println("    return instance;");
+    stream.println("  }");
+  }
+
+  private void setFieldMethod() {
+    Set<String> writtenTypes = new LinkedHashSet<>();
+    fields.stream()
+          .filter(ModeledField::isSetViaReflection)
+          .forEach(field -> writtenTypes.add(field.primitive ? field.typeName : "Object"));
+
+    for (String type : writtenTypes) {
+      String fieldAccessorName = type.equals("Object") ? "set" : "set" + capitalize(type);
+
+      stream.println();
+      stream.println("  private static void " + (type.equals("Object") ? "setField" : "set" + capitalize(type))
+                                              + "(Field objectField, Object instance, " + type + " fieldValue) {");
+      stream.println("    try {");
+      stream.println("      objectField." + fieldAccessorName + "(instance, fieldValue);");
+      stream.println("    } catch (IllegalAccessException ex) {");
+      stream.println("      throw new IllegalStateException(ex); // all handles are accessible, see field()");
+      stream.println("    }");
+      stream.println("  }");
+    }
+  }
+
+  private String writeMethodFor(ModeledField field) {
+    return field.primitive ? "set" + capitalize(field.typeName) : "setField";
+  }
+
+  private void copyFieldMethod() {
+    Set<String> copiedTypes = new LinkedHashSet<>();
+    copiedFields.stream()
+                .filter(field -> !field.assignable)
+                .forEach(field -> copiedTypes.add(field.primitive ? field.typeName : "Object"));
+
+    for (String type : copiedTypes) {
+      String typeName = type.equals("Object") ? "" : capitalize(type);
+
+      stream.println();
+      stream.println("  private static void copy" + (type.equals("Object") ? "Field" : typeName)
+                                              + "(Field objectField, Object prototype, Object copy) {");
+      stream.println("    try {");
+      stream.println("      objectField.set" + typeName + "(copy, objectField.get" + typeName + "(prototype));");
+      stream.println("    } catch (IllegalAccessException ex) {");
+      stream.println("      throw new IllegalStateException(ex); // all handles are accessible, see field()");
+      stream.println("    }");
+      stream.println("  }");
+    }
+  }
+
+  private String copyMethodFor(ModeledField field) {
+    return field.primitive ? "copy" + capitalize(field.typeName) : "copyField";
+  }
+
+  private void fieldLookupMethod() {
+    if (handles.isEmpty()) {
+      return;
+    }
+
+    stream.println();
+    stream.println("  private static Field field(Class<?> type, String fieldName, String fieldTypeName) {");
+    stream.println("    Field objectField;");
+    stream.println("    try {");
+    stream.println("      objectField = type.getDeclaredField(fieldName);");
+    stream.println("      objectField.setAccessible(true);");
+    stream.println("    } catch (NoSuchFieldException | RuntimeException ex) {");
+    stream.println("      throw new IllegalStateException(\"" + builderClassName + " can't access \" + type.getName()"
+                                                               + " + \".\" + fieldName");
+    stream.println("                                      + \", generate the builder again\", ex);");
+    stream.println("    }");
+    stream.println("    if (!objectField.getType().getTypeName().equals(fieldTypeName)) {");
+    stream.println("      throw new IllegalStateException(\"" + builderClassName + " expects \" + type.getName()"
+                                                               + " + \".\" + fieldName");
+    stream.println("                                      + \" to be a \" + fieldTypeName"
+                                                      + " + \", generate the builder again\");");
+    stream.println("    }");
+    stream.println("    return objectField;");
+    stream.println("  }");
+  }
+}
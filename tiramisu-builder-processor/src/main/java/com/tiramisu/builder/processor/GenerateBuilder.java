@@ -0,0 +1,31 @@
+package com.tiramisu.builder.processor;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Generates a {@code <ClassName>Builder} in the package of the annotated class while it is compiled. The builder has
+ * the same shape as the ones created by the {@code BuilderGenerator} in tiramisu-util: a
+ * {@code with<FieldName>}-method per field in the hierarchy, and a {@code build()} that only sets the fields that a
+ * {@code with}-method was called for. The annotated class needs a no-args constructor.<br /><br />
+ *
+ * Fields whose type is annotated with {@code @GenerateBuilder} as well additionally get a {@code with}-method that
+ * takes the builder of that type.
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.TYPE)
+public @interface GenerateBuilder {
+
+  /** Classes in the type hierarchy between the annotated class and {@link #upperBound()} whose fields are skipped. */
+  Class<?>[] ignore() default {};
+
+  /**
+   * The builder covers fields in all classes in the class hierarchy starting from the annotated class up to this upper
+   * bound, inclusive. If this is {@code Object.class} or not an ancestor of the annotated class, the whole hierarchy
+   * is included. This also limits the fields that {@code copyOf} copies, so set it below classes whose fields can't be
+   * opened, e.g. JDK classes like {@code java.util.AbstractList}.
+   */
+  Class<?> upperBound() default Object.class;
+}
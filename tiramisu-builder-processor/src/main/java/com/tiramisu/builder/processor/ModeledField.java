@@ -0,0 +1,53 @@
+package com.tiramisu.builder.processor;
+
+/**
+ * A field of the annotated class' hierarchy, described in terms of the source code that the generated builder needs
+ * for it. Instances are created by the {@link BuilderProcessor} from the {@code javax.lang.model} elements, so no
+ * class of the compiled project is ever loaded.
+ */
+final class ModeledField {
+
+  /** The name of the field in its declaring class. */
+  String name;
+
+  /** The name the builder uses for the field, e.g. {@code hereInSub} if {@code Sub} and {@code Base} declare
+   * {@code here}. */
+  String builderFieldName;
+
+  /** The name of the {@code with}-method, {@code with<BuilderFieldName>} or just {@code with} for unique types. */
+  String setterMethodName;
+
+  /** The name of the declaring class as it can be used in the builder, qualified if its simple name is taken. */
+  String declaringClassName;
+
+  /** The simple name of the declaring class, e.g. for names in the builder that are derived from it. */
+  String declaringClassSimpleName;
+
+  /** The erased type of the field, as it can be used in the builder. */
+  String typeName;
+
+  /** The name of the erased type as {@link Class#getTypeName()} returns it at runtime, e.g. {@code a.Outer$Inner[]}. */
+  String runtimeTypeName;
+
+  /** Whether {@link #typeName} is a primitive type. */
+  boolean primitive;
+
+  /** A statement that sets the field on the result without reflection, or {@code null} if reflection is needed. */
+  String directWrite;
+
+  /** The simple name of the generated builder of the field's type, or {@code null} if it has none. */
+  String builderOfTypeName;
+
+  /** Bit index in the generated {@code fieldsToSet}. */
+  int bitIndex;
+
+  /** Whether the field is declared in the annotated class itself rather than in a superclass. */
+  boolean declaredInTarget;
+
+  /** Whether the builder can read and assign the field without reflection. */
+  boolean assignable;
+
+  boolean isSetViaReflection() {
+    return directWrite == null;
+  }
+}
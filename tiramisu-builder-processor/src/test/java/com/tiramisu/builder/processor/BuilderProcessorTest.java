@@ -0,0 +1,307 @@
+package com.tiramisu.builder.processor;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.lang.reflect.Field;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.BitSet;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+
+/**
+ * Runs the {@link BuilderProcessor} in {@code javac} on fixture classes, then loads the compiled fixtures and builders
+ * and uses the builders through reflection.
+ */
+public class BuilderProcessorTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void BuilderShouldWriteAndCopyFieldsOfSuperclassInOtherPackage() throws Exception {
+    // given
+    ClassLoader classes = compile(
+        source("fixtures.base.Base",
+               "public class Base {",
+               "  private String secret;",
+               "  public long visible;",
+               "  protected int inherited;",
+               "}"),
+        source("fixtures.Target",
+               "@com.tiramisu.builder.processor.GenerateBuilder",
+               "public class Target extends fixtures.base.Base {",
+               "  private String name;",
+               "}"));
+    Object builder = create(classes, "fixtures.TargetBuilder");
+    call(builder, "withSecret", String.class, "secret");
+    call(builder, "with", long.class, 5L);
+    call(builder, "with", int.class, 7);
+    call(builder, "withName", String.class, "name");
+
+    // when
+    Object target = call(builder, "build");
+    Object copy = builder.getClass().getMethod("copyOf", target.getClass()).invoke(null, target);
+
+    // then
+    Class<?> base = classes.loadClass("fixtures.base.Base");
+    for (Object instance : asList(target, copy)) {
+      assertThat(valueOf(instance, base, "secret"), is("secret"));
+      assertThat(valueOf(instance, base, "visible"), is(5L));
+      assertThat(valueOf(instance, base, "inherited"), is(7));
+      assertThat(valueOf(instance, target.getClass(), "name"), is("name"));
+    }
+    assertThat(copy, is(not(sameInstance(target))));
+  }
+
+  @Test
+  public void BuilderShouldNameFieldsWithTheSameNameAfterTheirClass() throws Exception {
+    // given
+    ClassLoader classes = compile(
+        source("fixtures.Base",
+               "public class Base {",
+               "  private String here;",
+               "  int there;",
+               "}"),
+        source("fixtures.Sub",
+               "@com.tiramisu.builder.processor.GenerateBuilder",
+               "public class Sub extends Base {",
+               "  private String here;",
+               "  int there;",
+               "}"));
+    Object builder = create(classes, "fixtures.SubBuilder");
+
+    // when
+    call(builder, "withHereInSub", String.class, "sub");
+    call(builder, "withHereInBase", String.class, "base");
+    call(builder, "withThereInSub", int.class, 1);
+    call(builder, "withThereInBase", int.class, 2);
+    Object sub = call(builder, "build");
+
+    // then
+    Class<?> base = classes.loadClass("fixtures.Base");
+    assertThat(valueOf(sub, sub.getClass(), "here"), is("sub"));
+    assertThat(valueOf(sub, base, "here"), is("base"));
+    assertThat(valueOf(sub, sub.getClass(), "there"), is(1));
+    assertThat(valueOf(sub, base, "there"), is(2));
+  }
+
+  @Test
+  public void BuilderShouldWriteFieldsThroughTheirOwnHandlesIfHandleNamesClash() throws Exception {
+    // given
+    ClassLoader classes = compile(
+        source("fixtures.other.Base",
+               "public class Base {",
+               "}"),
+        source("fixtures.base.Base",
+               "public class Base {",
+               "  private String foo_bar;",
+               "}"),
+        source("fixtures.Target",
+               "@com.tiramisu.builder.processor.GenerateBuilder",
+               "public class Target extends fixtures.base.Base {",
+               "  private fixtures.other.Base other;",
+               "  private String fooBar;",
+               "}"));
+    Object builder = create(classes, "fixtures.TargetBuilder");
+    call(builder, "withFooBar", String.class, "target");
+    call(builder, "withFoo_bar", String.class, "base");
+
+    // when
+    Object target = call(builder, "build");
+
+    // then
+    assertThat(valueOf(target, target.getClass(), "fooBar"), is("target"));
+    assertThat(valueOf(target, classes.loadClass("fixtures.base.Base"), "foo_bar"), is("base"));
+  }
+
+  @Test
+  public void NestedAnnotatedClassesShouldGetBuildersThatBuildEachOther() throws Exception {
+    // given
+    ClassLoader classes = compile(
+        source("fixtures.Outer",
+               "public class Outer {",
+               "  @com.tiramisu.builder.processor.GenerateBuilder",
+               "  public static class Leaf {",
+               "    private String name;",
+               "  }",
+               "  @com.tiramisu.builder.processor.GenerateBuilder",
+               "  public static class Holder {",
+               "    private Leaf leaf;",
+               "  }",
+               "  @com.tiramisu.builder.processor.GenerateBuilder",
+               "  public static class Empty {",
+               "  }",
+               "}"));
+    Object leafBuilder = create(classes, "fixtures.LeafBuilder");
+    Object holderBuilder = create(classes, "fixtures.HolderBuilder");
+
+    // when
+    call(holderBuilder, "with", leafBuilder.getClass(), leafBuilder);
+    call(leafBuilder, "with", String.class, "leaf");
+    Object holder = call(holderBuilder, "build");
+    Object empty = call(create(classes, "fixtures.EmptyBuilder"), "build");
+
+    // then
+    Object leaf = valueOf(holder, holder.getClass(), "leaf");
+    assertThat(leaf.getClass().getName(), is("fixtures.Outer$Leaf"));
+    assertThat(valueOf(leaf, leaf.getClass(), "name"), is("leaf"));
+    assertThat(empty.getClass().getName(), is("fixtures.Outer$Empty"));
+  }
+
+  @Test
+  public void BuilderShouldTrackMoreThan64FieldsInABitSet() throws Exception {
+    // given
+    String[] lines = new String[73];
+    lines[0] = "@com.tiramisu.builder.processor.GenerateBuilder";
+    lines[1] = "public class Wide {";
+    for (int i = 0; i < 70; i++) {
+      lines[i + 2] = "  private int field" + i + ";";
+    }
+    lines[72] = "}";
+    ClassLoader classes = compile(source("fixtures.Wide", lines));
+    Object builder = create(classes, "fixtures.WideBuilder");
+
+    // when
+    call(builder, "withField0", int.class, 10);
+    call(builder, "withField64", int.class, 74);
+    call(builder, "withField69", int.class, 79);
+    Object wide = call(builder, "build");
+    call(builder, "reset");
+    Object afterReset = call(builder, "build");
+
+    // then
+    assertThat(builder.getClass().getDeclaredField("fieldsToSet").getType() == BitSet.class, is(true));
+    for (int i = 0; i < 70; i++) {
+      int expected = i == 0 || i == 64 || i == 69 ? i + 10 : 0;
+      assertThat(valueOf(wide, wide.getClass(), "field" + i), is(expected));
+      assertThat(valueOf(afterReset, wide.getClass(), "field" + i), is(0));
+    }
+    assertThat(afterReset, is(not(sameInstance(wide))));
+  }
+
+  @Test
+  public void BuilderShouldNotCopyFieldsAboveTheUpperBound() throws Exception {
+    // given
+    ClassLoader classes = compile(
+        source("fixtures.Names",
+               "@com.tiramisu.builder.processor.GenerateBuilder(upperBound = Names.class)",
+               "public class Names extends java.util.AbstractList<String> {",
+               "  private String first;",
+               "  public String get(int index) { return first; }",
+               "  public int size() { return 1; }",
+               "}"));
+    Object builder = create(classes, "fixtures.NamesBuilder");
+    Object names = call(call(builder, "with", String.class, "first"), "build");
+
+    // when
+    Object copy = builder.getClass().getMethod("copyOf", names.getClass()).invoke(null, names);
+
+    // then
+    assertThat(((List<?>) copy).get(0), is("first"));
+    assertThat(valueOf(copy, names.getClass(), "first"), is("first"));
+    assertThat(copy, is(not(sameInstance(names))));
+  }
+
+  @Test
+  public void SpecShouldStartFromCopiesOfTheInstanceTheBuilderStartedFrom() throws Exception {
+    // given
+    ClassLoader classes = compile(
+        source("fixtures.Pair",
+               "@com.tiramisu.builder.processor.GenerateBuilder",
+               "public class Pair {",
+               "  private String left;",
+               "  private String right;",
+               "}"));
+    Object builder = create(classes, "fixtures.PairBuilder");
+    Object prototype = call(call(call(builder, "withLeft", String.class, "left"), "withRight", String.class, "right"),
+                            "build");
+    Object variantBuilder = create(classes, "fixtures.PairBuilder");
+    call(variantBuilder, "startingFrom", prototype.getClass(), prototype);
+    call(variantBuilder, "withRight", String.class, "changed");
+
+    // when
+    Object spec = call(variantBuilder, "freeze");
+    List<Object> variants = asList(call(spec, "build"), call(call(spec, "newBuilder"), "build"));
+
+    // then
+    for (Object variant : variants) {
+      assertThat(variant, is(not(sameInstance(prototype))));
+      assertThat(valueOf(variant, prototype.getClass(), "left"), is("left"));
+      assertThat(valueOf(variant, prototype.getClass(), "right"), is("changed"));
+    }
+    assertThat(valueOf(prototype, prototype.getClass(), "right"), is("right"));
+  }
+
+  /* ---------------------------------------------------------------------------------------------------------------- */
+  /*                                                     helpers                                                      */
+  /* ---------------------------------------------------------------------------------------------------------------- */
+  /** @return a source file of the class, whose package declaration is added from {@code qualifiedName} */
+  private static JavaFileObject source(String qualifiedName, String... lines) {
+    String packageName = qualifiedName.substring(0, qualifiedName.lastIndexOf('.'));
+    String source = "package " + packageName + ";\n" + String.join("\n", lines) + "\n";
+
+    return new SimpleJavaFileObject(URI.create("string:///" + qualifiedName.replace('.', '/')
+                                               + JavaFileObject.Kind.SOURCE.extension), JavaFileObject.Kind.SOURCE) {
+      @Override
+      public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+        return source;
+      }
+    };
+  }
+
+  /** Compiles the sources together with the builders that the processor generates for them. */
+  private ClassLoader compile(JavaFileObject... sources) throws Exception {
+    File classes = folder.newFolder();
+    File generatedSources = folder.newFolder();
+    String processorClasses = new File(GenerateBuilder.class.getProtectionDomain().getCodeSource().getLocation()
+                                                          .toURI()).getPath();
+
+    JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+    JavaCompiler.CompilationTask task = compiler.getTask(
+        null, null, diagnostics,
+        asList("-classpath", processorClasses, "-d", classes.getPath(), "-s", generatedSources.getPath()),
+        null, asList(sources));
+    task.setProcessors(singletonList(new BuilderProcessor()));
+
+    if (!task.call()) {
+      throw new AssertionError("Could not compile the fixtures: " + diagnostics.getDiagnostics());
+    }
+    return new URLClassLoader(new URL[] {classes.toURI().toURL()}, getClass().getClassLoader());
+  }
+
+  private static Object create(ClassLoader classes, String builderClassName) throws Exception {
+    return classes.loadClass(builderClassName).getMethod("create").invoke(null);
+  }
+
+  private static Object call(Object builder, String methodName) throws Exception {
+    return builder.getClass().getMethod(methodName).invoke(builder);
+  }
+
+  private static Object call(Object builder, String methodName, Class<?> parameterType, Object argument)
+      throws Exception {
+    return builder.getClass().getMethod(methodName, parameterType).invoke(builder, argument);
+  }
+
+  private static Object valueOf(Object instance, Class<?> declaringClass, String fieldName) throws Exception {
+    Field field = declaringClass.getDeclaredField(fieldName);
+    field.setAccessible(true);
+    return field.get(instance);
+  }
+}
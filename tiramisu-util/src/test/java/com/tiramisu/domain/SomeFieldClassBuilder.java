@@ -1,10 +1,13 @@
 package com.tiramisu.domain;
+import com.tiramisu.domain.builder.BuilderMetrics;
+import com.tiramisu.domain.builder.RandomValues;
 import com.tiramisu.domain.objects.SomeFieldClass;
 
 import java.lang.reflect.Field;
-import java.util.HashSet;
-import java.util.Set;
-import java.lang.String;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ObjIntConsumer;
+import java.util.stream.Stream;
 
 @SuppressWarnings({"unused", "UnusedReturnValue", "WeakerAccess", "SameParameterValue"})
 public final class SomeFieldClassBuilder {
@@ -12,27 +15,43 @@ public final class SomeFieldClassBuilder {
   /** This is a utility class. */
   private SomeFieldClassBuilder() {}
 
-  private SomeFieldClass _result_someFieldClass = new SomeFieldClass();
+  private static final Field STRING_BOY = field(SomeFieldClass.class, "stringBoy", "java.lang.String");
+  private static final Field SOME_CHAR = field(SomeFieldClass.class, "someChar", "char");
+
+  private SomeFieldClass _result_someFieldClass;
+  private SomeFieldClass _prototype_someFieldClass;
   private String stringBoy;
   private char someChar;
 
-  private Set<String> fieldsToSet = new HashSet<>();
+  private long fieldsToSet;
 
   public static SomeFieldClassBuilder create() {
     return new SomeFieldClassBuilder();
   }
 
+  private static final ThreadLocal<SomeFieldClassBuilder> POOL = ThreadLocal.withInitial(SomeFieldClassBuilder::new);
+
+  /**
+    * @return the builder of the current thread, {@link #reset() reset} to the state of a new builder.
+    *     Every call returns the same builder, so don't hold on to it while calling this again.
+    */
+  public static SomeFieldClassBuilder pooled() {
+    SomeFieldClassBuilder builder = POOL.get();
+    builder.reset();
+    return builder;
+  }
+
   /** {@link SomeFieldClass#stringBoy}. */
   public SomeFieldClassBuilder with(String stringBoy) {
     this.stringBoy = stringBoy;
-    fieldsToSet.add("stringBoy");
+    fieldsToSet |= 1L << 0;
     return this;
   }
 
   /** {@link SomeFieldClass#someChar}. */
   public SomeFieldClassBuilder with(char someChar) {
     this.someChar = someChar;
-    fieldsToSet.add("someChar");
+    fieldsToSet |= 1L << 1;
     return this;
   }
 
@@ -47,45 +66,301 @@ public final class SomeFieldClassBuilder {
   }
 
   /**
-    * Sets all fields to default values predefined in the builder.<br /><br />
-    * <b>NOTE:</b> all calls to the builder before this method is called will have no effect.
-    * TODO implement default values!
+    * Puts the builder back into the state it had after {@code create()}: no field is set and the next
+    * call to {@code build()} creates a new instance. This doesn't allocate anything.
+    */
+  public void reset() {
+    fieldsToSet = 0L;
+    stringBoy = null;
+    someChar = '\u0000';
+    _result_someFieldClass = null;
+    _prototype_someFieldClass = null;
+  }
+
+  /**
+    * Sets all fields to the random values of {@link RandomValues#DEFAULT_SEED}, so every call
+    * sets the same values. Fields of types without random values are left as they are.
+    */
+  public SomeFieldClassBuilder _withDefaults() {
+    return _withDefaults(RandomValues.seeded(RandomValues.DEFAULT_SEED));
+  }
+
+  /**
+    * Sets all fields to random values from {@code random}. Fields of types without random
+    * values are left as they are.<br /><br />
+    * <b>NOTE:</b> all other calls to the builder before this method is called will have
+    * no effect.
     */
-  public void _withDefaults() {
-    fieldsToSet.clear();
-    with(stringBoy); // TODO implement me!
-    with(someChar); // TODO implement me!
+  public SomeFieldClassBuilder _withDefaults(RandomValues random) {
+    with(random.nextString());
+    with(random.nextChar());
+    return this;
   }
 
   /**
-    * Allows to start building from an existing instance. If the instance you pass to this is
+    * Allows to start building from a copy of an existing instance, the instance itself is not changed
+    * by {@code build()}. {@code buildMany}, {@code stream} and specs frozen from this builder start
+    * from a new copy of the instance for every instance they build. If the instance you pass to this is
     * {@code null}, the call to this method will be ignored.
     */
   public void startingFrom(SomeFieldClass instance) {
     if (instance != null) {
-      fieldsToSet.clear();
-      _result_someFieldClass = instance;
+      fieldsToSet = 0L;
+      _prototype_someFieldClass = instance;
+      _result_someFieldClass = null;
     }
   }
 
   public SomeFieldClass build() {
-    if(fieldsToSet.contains("stringBoy")) {
-       setField("stringBoy", SomeFieldClass.class, stringBoy);
+    if (_result_someFieldClass == null) {
+      _result_someFieldClass = _prototype_someFieldClass == null ? newInstance() : copyOf(_prototype_someFieldClass);
+    }
+    return writeFieldsTo(_result_someFieldClass);
+  }
+
+  /**
+    * Builds {@code n} new instances. Before each instance is built, {@code customizer} is called with
+    * this builder and the index of the instance, so it can change fields per instance. Changes made by
+    * the customizer are kept for the following instances.
+    */
+  public List<SomeFieldClass> buildMany(int n, ObjIntConsumer<SomeFieldClassBuilder> customizer) {
+    List<SomeFieldClass> instances = new ArrayList<>(n);
+    for (int i = 0; i < n; i++) {
+      customizer.accept(this, i);
+      instances.add(newInstanceWithFields());
+    }
+    return instances;
+  }
+
+  /**
+    * An infinite stream of new instances that all have the fields set that are currently configured in
+    * this builder. Use {@link Stream#limit(long)} to get a finite number of instances.
+    */
+  public Stream<SomeFieldClass> stream() {
+    return Stream.generate(this::newInstanceWithFields);
+  }
+
+  /**
+    * @return a new instance with the fields of this builder, or a new copy of the instance that this
+    *     builder started from
+    */
+  private SomeFieldClass newInstanceWithFields() {
+    if (_prototype_someFieldClass != null) {
+      return writeFieldsTo(copyOf(_prototype_someFieldClass));
+    }
+    return writeFieldsTo(newInstance());
+  }
+
+  private static SomeFieldClass newInstance() {
+    return new SomeFieldClass();
+  }
+
+  /**
+    * @return an immutable snapshot of the fields set so far, which can be shared between
+    *     threads. Changing this builder afterwards doesn't change the spec.
+    */
+  public SomeFieldClassSpec freeze() {
+    return new SomeFieldClassSpec(copyOfBuilder());
+  }
+
+  private SomeFieldClassBuilder copyOfBuilder() {
+    SomeFieldClassBuilder builder = new SomeFieldClassBuilder();
+    builder.stringBoy = stringBoy;
+    builder.someChar = someChar;
+    builder.fieldsToSet = fieldsToSet;
+    builder._prototype_someFieldClass = _prototype_someFieldClass;
+    return builder;
+  }
+
+  /** The fields of a frozen builder. All methods can be called from any thread. */
+  public static final class SomeFieldClassSpec {
+
+    private final SomeFieldClassBuilder template;
+
+    private SomeFieldClassSpec(SomeFieldClassBuilder template) {
+      this.template = template;
     }
-    if(fieldsToSet.contains("someChar")) {
-       setField("someChar", SomeFieldClass.class, someChar);
+
+    /** @return a new builder with the fields of this spec, to be used by a single thread */
+    public SomeFieldClassBuilder newBuilder() {
+      return template.copyOfBuilder();
     }
 
-    return _result_someFieldClass;
+    /** @return a new instance with the fields of this spec */
+    public SomeFieldClass build() {
+      return template.newInstanceWithFields();
+    }
+
+    /**
+      * @return a new instance with the fields of this spec and random values from {@code random} in all
+      *     other fields, see {@link SomeFieldClassBuilder#_withDefaults(RandomValues)}
+      */
+    public SomeFieldClass build(RandomValues random) {
+      SomeFieldClassBuilder randomValues = new SomeFieldClassBuilder()._withDefaults(random);
+      return template.writeFieldsTo(randomValues.writeFieldsTo(newInstance()));
+    }
   }
 
-  private void setField(String fieldName, Class<?> type, Object fieldValue) {
+  /**
+    * Creates a new instance with the same values in all fields of the hierarchy as {@code prototype}.
+    * The copy is shallow, objects referenced by {@code prototype} are shared with the copy.
+    */
+  public static SomeFieldClass copyOf(SomeFieldClass prototype) {
+    SomeFieldClass copy = newInstance();
+    copyField(STRING_BOY, prototype, copy);
+    copyChar(SOME_CHAR, prototype, copy);
+    return copy;
+  }
+
+  /**
+    * The fields of many instances as one array per field, element {@code i} of each array belongs to
+    * instance {@code i}. Columns that are {@code null} are skipped by {@code hydrate} and {@code dehydrate}.
+    */
+  public static final class SomeFieldClassColumns {
+
+    public String[] stringBoy;
+    public char[] someChar;
+
+    public SomeFieldClassColumns() {}
+
+    /** Creates every column with {@code size} elements. */
+    public SomeFieldClassColumns(int size) {
+      this.stringBoy = new String[size];
+      this.someChar = new char[size];
+    }
+  }
+
+  /**
+    * Creates the instances {@code from} (inclusive) to {@code to} (exclusive) of {@code instances} with the
+    * values at the same indexes of {@code columns}. Fields without a column keep their initial values.
+    * Disjoint ranges can be hydrated in parallel, e.g. in blocks of 1024 instances:
+    * <pre>{@code
+    * IntStream.range(0, (n + 1023) / 1024).parallel()
+    *          .forEach(b -> hydrate(columns, b * 1024, Math.min(n, b * 1024 + 1024), instances));
+    * }</pre>
+    */
+  public static void hydrate(SomeFieldClassColumns columns, int from, int to, SomeFieldClass[] instances) {
+    for (int i = from; i < to; i++) {
+      instances[i] = newInstance();
+    }
+    if (columns.stringBoy != null) {
+      String[] column = columns.stringBoy;
+      for (int i = from; i < to; i++) {
+        SomeFieldClass instance = instances[i];
+        String stringBoy = column[i];
+        setField(STRING_BOY, instance, stringBoy);
+      }
+    }
+    if (columns.someChar != null) {
+      char[] column = columns.someChar;
+      for (int i = from; i < to; i++) {
+        SomeFieldClass instance = instances[i];
+        char someChar = column[i];
+        setChar(SOME_CHAR, instance, someChar);
+      }
+    }
+  }
+
+  /**
+    * Copies the fields of the instances {@code from} (inclusive) to {@code to} (exclusive) of
+    * {@code instances} to the same indexes of {@code columns}. Like {@code hydrate}, disjoint ranges can
+    * be dehydrated in parallel.
+    */
+  public static void dehydrate(SomeFieldClass[] instances, int from, int to, SomeFieldClassColumns columns) {
+    if (columns.stringBoy != null) {
+      String[] column = columns.stringBoy;
+      for (int i = from; i < to; i++) {
+        column[i] = (String) getField(STRING_BOY, instances[i]);
+      }
+    }
+    if (columns.someChar != null) {
+      char[] column = columns.someChar;
+      for (int i = from; i < to; i++) {
+        column[i] = getChar(SOME_CHAR, instances[i]);
+      }
+    }
+  }
+
+  private static final long REFLECTIVELY_WRITTEN_FIELDS = 0x3L;
+
+  private SomeFieldClass writeFieldsTo(SomeFieldClass instance) {
+    long startNanos = BuilderMetrics.ENABLED ? System.nanoTime() : 0L;
+    if((fieldsToSet & 1L << 0) != 0) {
+       setField(STRING_BOY, instance, stringBoy);
+    }
+    if((fieldsToSet & 1L << 1) != 0) {
+       setChar(SOME_CHAR, instance, someChar);
+    }
+    if (BuilderMetrics.ENABLED) {
+      int writes = Long.bitCount(fieldsToSet);
+      int reflectiveWrites = Long.bitCount(fieldsToSet & REFLECTIVELY_WRITTEN_FIELDS);
+      BuilderMetrics.recordBuild(SomeFieldClass.class, startNanos, reflectiveWrites, writes - reflectiveWrites);
+    }
+
+    return instance;
+  }
+
+  private static void setField(Field objectField, Object instance, Object fieldValue) {
     try {
-      Field objectField = type.getDeclaredField(fieldName);
+      objectField.set(instance, fieldValue);
+    } catch (IllegalAccessException ex) {
+      throw new IllegalStateException(ex); // all handles are accessible, see field()
+    }
+  }
+
+  private static void setChar(Field objectField, Object instance, char fieldValue) {
+    try {
+      objectField.setChar(instance, fieldValue);
+    } catch (IllegalAccessException ex) {
+      throw new IllegalStateException(ex); // all handles are accessible, see field()
+    }
+  }
+
+  private static void copyField(Field objectField, Object prototype, Object copy) {
+    try {
+      objectField.set(copy, objectField.get(prototype));
+    } catch (IllegalAccessException ex) {
+      throw new IllegalStateException(ex); // all handles are accessible, see field()
+    }
+  }
+
+  private static void copyChar(Field objectField, Object prototype, Object copy) {
+    try {
+      objectField.setChar(copy, objectField.getChar(prototype));
+    } catch (IllegalAccessException ex) {
+      throw new IllegalStateException(ex); // all handles are accessible, see field()
+    }
+  }
+
+  private static Object getField(Field objectField, Object instance) {
+    try {
+      return objectField.get(instance);
+    } catch (IllegalAccessException ex) {
+      throw new IllegalStateException(ex); // all handles are accessible, see field()
+    }
+  }
+
+  private static char getChar(Field objectField, Object instance) {
+    try {
+      return objectField.getChar(instance);
+    } catch (IllegalAccessException ex) {
+      throw new IllegalStateException(ex); // all handles are accessible, see field()
+    }
+  }
+
+  private static Field field(Class<?> type, String fieldName, String fieldTypeName) {
+    Field objectField;
+    try {
+      objectField = type.getDeclaredField(fieldName);
       objectField.setAccessible(true);
-      objectField.set(_result_someFieldClass, fieldValue);
-    } catch (Exception ex) {
-      ex.printStackTrace();
+    } catch (NoSuchFieldException | RuntimeException ex) {
+      throw new IllegalStateException("SomeFieldClassBuilder can't access " + type.getName() + "." + fieldName
+                                      + ", generate the builder again", ex);
+    }
+    if (!objectField.getType().getTypeName().equals(fieldTypeName)) {
+      throw new IllegalStateException("SomeFieldClassBuilder expects " + type.getName() + "." + fieldName
+                                      + " to be a " + fieldTypeName + ", generate the builder again");
     }
+    return objectField;
   }
 }
@@ -1,22 +1,37 @@
 package com.tiramisu.domain;
+import com.tiramisu.domain.builder.BuilderMetrics;
+import com.tiramisu.domain.builder.RandomValues;
 import com.tiramisu.domain.objects.Base;
+import com.tiramisu.domain.objects.SomeFieldClass;
 import com.tiramisu.domain.objects.Sub;
 
 import java.lang.reflect.Field;
-import java.util.HashSet;
-import java.util.Set;
-import java.lang.String;
-import java.util.List;
-import java.lang.Integer;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
+import java.util.function.ObjIntConsumer;
+import java.util.stream.Stream;
 
-@SuppressWarnings({"unused", "UnusedReturnValue", "WeakerAccess"})
+@SuppressWarnings({"unused", "UnusedReturnValue", "WeakerAccess", "SameParameterValue"})
 public final class SubBuilder {
 
   /** This is a utility class. */
   private SubBuilder() {}
 
-  private Sub sub = new Sub();
+  private static final Field THERE_IN_SUB = field(Sub.class, "there", "java.lang.String");
+  private static final Field HERE_IN_SUB = field(Sub.class, "here", "java.lang.String");
+  private static final Field DATE_IN_SUB = field(Sub.class, "date", "java.lang.String");
+  private static final Field SOME_CHAR = field(Sub.class, "someChar", "char");
+  private static final Field LIST = field(Sub.class, "list", "java.util.List");
+  private static final Field THERE_IN_BASE = field(Base.class, "there", "java.lang.Integer");
+  private static final Field DATE_IN_BASE = field(Base.class, "date", "java.util.Date");
+  private static final Field HERE_IN_BASE = field(Base.class, "here", "java.lang.String");
+  private static final Field HI = field(Base.class, "hi", "int");
+  private static final Field FIELD_WITH_BUILDER = field(Base.class, "fieldWithBuilder",
+      "com.tiramisu.domain.objects.SomeFieldClass");
+
+  private Sub _result_sub;
+  private Sub _prototype_sub;
   private String thereInSub;
   private String hereInSub;
   private String dateInSub;
@@ -26,77 +41,110 @@ public final class SubBuilder {
   private Date dateInBase;
   private String hereInBase;
   private int hi;
+  private SomeFieldClass fieldWithBuilder;
+  private SomeFieldClassBuilder fieldWithBuilderBuilder;
 
-  private Set<String> fieldsToSet = new HashSet<>();
+  private long fieldsToSet;
 
   public static SubBuilder create() {
     return new SubBuilder();
   }
 
+  private static final ThreadLocal<SubBuilder> POOL = ThreadLocal.withInitial(SubBuilder::new);
+
+  /**
+    * @return the builder of the current thread, {@link #reset() reset} to the state of a new builder.
+    *     Every call returns the same builder, so don't hold on to it while calling this again.
+    */
+  public static SubBuilder pooled() {
+    SubBuilder builder = POOL.get();
+    builder.reset();
+    return builder;
+  }
+
   /** {@link Sub#there}. */
   public SubBuilder withThereInSub(String thereInSub) {
     this.thereInSub = thereInSub;
-    fieldsToSet.add("thereInSub");
+    fieldsToSet |= 1L << 0;
     return this;
   }
 
   /** {@link Sub#here}. */
   public SubBuilder withHereInSub(String hereInSub) {
     this.hereInSub = hereInSub;
-    fieldsToSet.add("hereInSub");
+    fieldsToSet |= 1L << 1;
     return this;
   }
 
   /** {@link Sub#date}. */
   public SubBuilder withDateInSub(String dateInSub) {
     this.dateInSub = dateInSub;
-    fieldsToSet.add("dateInSub");
+    fieldsToSet |= 1L << 2;
     return this;
   }
 
   /** {@link Sub#someChar}. */
   public SubBuilder with(char someChar) {
     this.someChar = someChar;
-    fieldsToSet.add("someChar");
+    fieldsToSet |= 1L << 3;
     return this;
   }
 
   /** {@link Sub#list}. */
   public SubBuilder with(List list) {
     this.list = list;
-    fieldsToSet.add("list");
+    fieldsToSet |= 1L << 4;
     return this;
   }
 
   /** {@link Base#there}. */
   public SubBuilder with(Integer thereInBase) {
     this.thereInBase = thereInBase;
-    fieldsToSet.add("thereInBase");
+    fieldsToSet |= 1L << 5;
     return this;
   }
 
   /** {@link Base#date}. */
   public SubBuilder with(Date dateInBase) {
     this.dateInBase = dateInBase;
-    fieldsToSet.add("dateInBase");
+    fieldsToSet |= 1L << 6;
     return this;
   }
 
   /** {@link Base#here}. */
   public SubBuilder withHereInBase(String hereInBase) {
     this.hereInBase = hereInBase;
-    fieldsToSet.add("hereInBase");
+    fieldsToSet |= 1L << 7;
     return this;
   }
 
   /** {@link Base#hi}. */
   public SubBuilder with(int hi) {
     this.hi = hi;
-    fieldsToSet.add("hi");
+    fieldsToSet |= 1L << 8;
     return this;
   }
 
-  /** Sets all field to the default value the JVM initializes for the respective types. */
+  /** {@link Base#fieldWithBuilder}. */
+  public SubBuilder with(SomeFieldClass fieldWithBuilder) {
+    this.fieldWithBuilder = fieldWithBuilder;
+    this.fieldWithBuilderBuilder = null;
+    fieldsToSet |= 1L << 9;
+    return this;
+  }
+
+  /** {@link Base#fieldWithBuilder}, built by the next {@code build()} of this builder. */
+  public SubBuilder with(SomeFieldClassBuilder fieldWithBuilderBuilder) {
+    this.fieldWithBuilderBuilder = fieldWithBuilderBuilder;
+    fieldsToSet |= 1L << 9;
+    return this;
+  }
+
+  /**
+    * Sets all fields to the default value that the
+    * <a href="https://docs.oracle.com/javase/specs/jvms/se8/jvms8.pdf">JVM specification</a>
+    * defines in sections 2.3 and 2.4.
+    */
   public void clear() {
     withThereInSub(null);
     withHereInSub(null);
@@ -107,64 +155,524 @@ public final class SubBuilder {
     with((Date) null);
     withHereInBase(null);
     with(0);
+    with((SomeFieldClass) null);
+  }
+
+  /**
+    * Puts the builder back into the state it had after {@code create()}: no field is set and the next
+    * call to {@code build()} creates a new instance. This doesn't allocate anything.
+    */
+  public void reset() {
+    fieldsToSet = 0L;
+    thereInSub = null;
+    hereInSub = null;
+    dateInSub = null;
+    someChar = '\u0000';
+    list = null;
+    thereInBase = null;
+    dateInBase = null;
+    hereInBase = null;
+    hi = 0;
+    fieldWithBuilder = null;
+    fieldWithBuilderBuilder = null;
+    _result_sub = null;
+    _prototype_sub = null;
+  }
+
+  /**
+    * Sets all fields to the random values of {@link RandomValues#DEFAULT_SEED}, so every call
+    * sets the same values. Fields of types without random values are left as they are.
+    */
+  public SubBuilder _withDefaults() {
+    return _withDefaults(RandomValues.seeded(RandomValues.DEFAULT_SEED));
   }
 
   /**
-    * Sets all fields to default values predefined in the builder.
-    * TODO implement default values!
+    * Sets all fields to random values from {@code random}. Fields of types without random
+    * values are left as they are.<br /><br />
+    * <b>NOTE:</b> all other calls to the builder before this method is called will have
+    * no effect.
     */
-  public void _withDefaults() {
-    fieldsToSet.clear();
-    // withThereInSub(TODO implement me!);
-    // withHereInSub(TODO implement me!);
-    // withDateInSub(TODO implement me!);
-    // with(TODO implement me!);
-    // with(TODO implement me!);
-    // with(TODO implement me!);
-    // with(TODO implement me!);
-    // withHereInBase(TODO implement me!);
-    // with(TODO implement me!);
+  public SubBuilder _withDefaults(RandomValues random) {
+    withThereInSub(random.nextString());
+    withHereInSub(random.nextString());
+    withDateInSub(random.nextString());
+    with(random.nextChar());
+    with(random.nextList(() -> random.nextZonedDateTime()));
+    with(Integer.valueOf(random.nextInt()));
+    with(random.nextDate());
+    withHereInBase(random.nextString());
+    with(random.nextInt());
+    with(SomeFieldClassBuilder.create()._withDefaults(random));
+    return this;
+  }
+
+  /**
+    * Allows to start building from a copy of an existing instance, the instance itself is not changed
+    * by {@code build()}. {@code buildMany}, {@code stream} and specs frozen from this builder start
+    * from a new copy of the instance for every instance they build. If the instance you pass to this is
+    * {@code null}, the call to this method will be ignored.
+    */
+  public void startingFrom(Sub instance) {
+    if (instance != null) {
+      fieldsToSet = 0L;
+      fieldWithBuilderBuilder = null;
+      _prototype_sub = instance;
+      _result_sub = null;
+    }
   }
 
   public Sub build() {
-    if(fieldsToSet.contains("thereInSub")) {
-       setField("there", Sub.class, thereInSub);
+    if (_result_sub == null) {
+      _result_sub = _prototype_sub == null ? newInstance() : copyOf(_prototype_sub);
+    }
+    return writeFieldsTo(_result_sub);
+  }
+
+  /**
+    * Builds {@code n} new instances. Before each instance is built, {@code customizer} is called with
+    * this builder and the index of the instance, so it can change fields per instance. Changes made by
+    * the customizer are kept for the following instances.
+    */
+  public List<Sub> buildMany(int n, ObjIntConsumer<SubBuilder> customizer) {
+    List<Sub> instances = new ArrayList<>(n);
+    for (int i = 0; i < n; i++) {
+      customizer.accept(this, i);
+      instances.add(newInstanceWithFields());
+    }
+    return instances;
+  }
+
+  /**
+    * An infinite stream of new instances that all have the fields set that are currently configured in
+    * this builder. Use {@link Stream#limit(long)} to get a finite number of instances.
+    */
+  public Stream<Sub> stream() {
+    return Stream.generate(this::newInstanceWithFields);
+  }
+
+  /**
+    * @return a new instance with the fields of this builder, or a new copy of the instance that this
+    *     builder started from
+    */
+  private Sub newInstanceWithFields() {
+    if (_prototype_sub != null) {
+      return writeFieldsTo(copyOf(_prototype_sub));
+    }
+    return writeFieldsTo(newInstance());
+  }
+
+  private static Sub newInstance() {
+    return new Sub();
+  }
+
+  /**
+    * @return an immutable snapshot of the fields set so far, which can be shared between
+    *     threads. Changing this builder afterwards doesn't change the spec.
+    */
+  public SubSpec freeze() {
+    buildNestedBuilders();
+    return new SubSpec(copyOfBuilder());
+  }
+
+  private SubBuilder copyOfBuilder() {
+    SubBuilder builder = new SubBuilder();
+    builder.thereInSub = thereInSub;
+    builder.hereInSub = hereInSub;
+    builder.dateInSub = dateInSub;
+    builder.someChar = someChar;
+    builder.list = list;
+    builder.thereInBase = thereInBase;
+    builder.dateInBase = dateInBase;
+    builder.hereInBase = hereInBase;
+    builder.hi = hi;
+    builder.fieldWithBuilder = fieldWithBuilder;
+    builder.fieldsToSet = fieldsToSet;
+    builder._prototype_sub = _prototype_sub;
+    return builder;
+  }
+
+  /** The fields of a frozen builder. All methods can be called from any thread. */
+  public static final class SubSpec {
+
+    private final SubBuilder template;
+
+    private SubSpec(SubBuilder template) {
+      this.template = template;
+    }
+
+    /** @return a new builder with the fields of this spec, to be used by a single thread */
+    public SubBuilder newBuilder() {
+      return template.copyOfBuilder();
+    }
+
+    /** @return a new instance with the fields of this spec */
+    public Sub build() {
+      return template.newInstanceWithFields();
+    }
+
+    /**
+      * @return a new instance with the fields of this spec and random values from {@code random} in all
+      *     other fields, see {@link SubBuilder#_withDefaults(RandomValues)}
+      */
+    public Sub build(RandomValues random) {
+      SubBuilder randomValues = new SubBuilder()._withDefaults(random);
+      return template.writeFieldsTo(randomValues.writeFieldsTo(newInstance()));
+    }
+  }
+
+  /**
+    * Creates a new instance with the same values in all fields of the hierarchy as {@code prototype}.
+    * The copy is shallow, objects referenced by {@code prototype} are shared with the copy.
+    */
+  public static Sub copyOf(Sub prototype) {
+    Sub copy = newInstance();
+    copyField(THERE_IN_SUB, prototype, copy);
+    copyField(HERE_IN_SUB, prototype, copy);
+    copyField(DATE_IN_SUB, prototype, copy);
+    copyChar(SOME_CHAR, prototype, copy);
+    copyField(LIST, prototype, copy);
+    copyField(THERE_IN_BASE, prototype, copy);
+    copyField(DATE_IN_BASE, prototype, copy);
+    copyField(HERE_IN_BASE, prototype, copy);
+    copyInt(HI, prototype, copy);
+    copyField(FIELD_WITH_BUILDER, prototype, copy);
+    return copy;
+  }
+
+  /**
+    * The fields of many instances as one array per field, element {@code i} of each array belongs to
+    * instance {@code i}. Columns that are {@code null} are skipped by {@code hydrate} and {@code dehydrate}.
+    */
+  public static final class SubColumns {
+
+    public String[] thereInSub;
+    public String[] hereInSub;
+    public String[] dateInSub;
+    public char[] someChar;
+    public List[] list;
+    public Integer[] thereInBase;
+    public Date[] dateInBase;
+    public String[] hereInBase;
+    public int[] hi;
+    public SomeFieldClass[] fieldWithBuilder;
+
+    public SubColumns() {}
+
+    /** Creates every column with {@code size} elements. */
+    public SubColumns(int size) {
+      this.thereInSub = new String[size];
+      this.hereInSub = new String[size];
+      this.dateInSub = new String[size];
+      this.someChar = new char[size];
+      this.list = new List[size];
+      this.thereInBase = new Integer[size];
+      this.dateInBase = new Date[size];
+      this.hereInBase = new String[size];
+      this.hi = new int[size];
+      this.fieldWithBuilder = new SomeFieldClass[size];
     }
-    if(fieldsToSet.contains("hereInSub")) {
-       setField("here", Sub.class, hereInSub);
+  }
+
+  /**
+    * Creates the instances {@code from} (inclusive) to {@code to} (exclusive) of {@code instances} with the
+    * values at the same indexes of {@code columns}. Fields without a column keep their initial values.
+    * Disjoint ranges can be hydrated in parallel, e.g. in blocks of 1024 instances:
+    * <pre>{@code
+    * IntStream.range(0, (n + 1023) / 1024).parallel()
+    *          .forEach(b -> hydrate(columns, b * 1024, Math.min(n, b * 1024 + 1024), instances));
+    * }</pre>
+    */
+  public static void hydrate(SubColumns columns, int from, int to, Sub[] instances) {
+    for (int i = from; i < to; i++) {
+      instances[i] = newInstance();
+    }
+    if (columns.thereInSub != null) {
+      String[] column = columns.thereInSub;
+      for (int i = from; i < to; i++) {
+        Sub instance = instances[i];
+        String thereInSub = column[i];
+        setField(THERE_IN_SUB, instance, thereInSub);
+      }
+    }
+    if (columns.hereInSub != null) {
+      String[] column = columns.hereInSub;
+      for (int i = from; i < to; i++) {
+        Sub instance = instances[i];
+        String hereInSub = column[i];
+        setField(HERE_IN_SUB, instance, hereInSub);
+      }
+    }
+    if (columns.dateInSub != null) {
+      String[] column = columns.dateInSub;
+      for (int i = from; i < to; i++) {
+        Sub instance = instances[i];
+        String dateInSub = column[i];
+        setField(DATE_IN_SUB, instance, dateInSub);
+      }
+    }
+    if (columns.someChar != null) {
+      char[] column = columns.someChar;
+      for (int i = from; i < to; i++) {
+        Sub instance = instances[i];
+        char someChar = column[i];
+        setChar(SOME_CHAR, instance, someChar);
+      }
+    }
+    if (columns.list != null) {
+      List[] column = columns.list;
+      for (int i = from; i < to; i++) {
+        Sub instance = instances[i];
+        List list = column[i];
+        setField(LIST, instance, list);
+      }
+    }
+    if (columns.thereInBase != null) {
+      Integer[] column = columns.thereInBase;
+      for (int i = from; i < to; i++) {
+        Sub instance = instances[i];
+        Integer thereInBase = column[i];
+        setField(THERE_IN_BASE, instance, thereInBase);
+      }
+    }
+    if (columns.dateInBase != null) {
+      Date[] column = columns.dateInBase;
+      for (int i = from; i < to; i++) {
+        Sub instance = instances[i];
+        Date dateInBase = column[i];
+        setField(DATE_IN_BASE, instance, dateInBase);
+      }
+    }
+    if (columns.hereInBase != null) {
+      String[] column = columns.hereInBase;
+      for (int i = from; i < to; i++) {
+        Sub instance = instances[i];
+        String hereInBase = column[i];
+        setField(HERE_IN_BASE, instance, hereInBase);
+      }
+    }
+    if (columns.hi != null) {
+      int[] column = columns.hi;
+      for (int i = from; i < to; i++) {
+        Sub instance = instances[i];
+        int hi = column[i];
+        setInt(HI, instance, hi);
+      }
+    }
+    if (columns.fieldWithBuilder != null) {
+      SomeFieldClass[] column = columns.fieldWithBuilder;
+      for (int i = from; i < to; i++) {
+        Sub instance = instances[i];
+        SomeFieldClass fieldWithBuilder = column[i];
+        setField(FIELD_WITH_BUILDER, instance, fieldWithBuilder);
+      }
+    }
+  }
+
+  /**
+    * Copies the fields of the instances {@code from} (inclusive) to {@code to} (exclusive) of
+    * {@code instances} to the same indexes of {@code columns}. Like {@code hydrate}, disjoint ranges can
+    * be dehydrated in parallel.
+    */
+  public static void dehydrate(Sub[] instances, int from, int to, SubColumns columns) {
+    if (columns.thereInSub != null) {
+      String[] column = columns.thereInSub;
+      for (int i = from; i < to; i++) {
+        column[i] = (String) getField(THERE_IN_SUB, instances[i]);
+      }
+    }
+    if (columns.hereInSub != null) {
+      String[] column = columns.hereInSub;
+      for (int i = from; i < to; i++) {
+        column[i] = (String) getField(HERE_IN_SUB, instances[i]);
+      }
+    }
+    if (columns.dateInSub != null) {
+      String[] column = columns.dateInSub;
+      for (int i = from; i < to; i++) {
+        column[i] = (String) getField(DATE_IN_SUB, instances[i]);
+      }
+    }
+    if (columns.someChar != null) {
+      char[] column = columns.someChar;
+      for (int i = from; i < to; i++) {
+        column[i] = getChar(SOME_CHAR, instances[i]);
+      }
+    }
+    if (columns.list != null) {
+      List[] column = columns.list;
+      for (int i = from; i < to; i++) {
+        column[i] = (List) getField(LIST, instances[i]);
+      }
+    }
+    if (columns.thereInBase != null) {
+      Integer[] column = columns.thereInBase;
+      for (int i = from; i < to; i++) {
+        column[i] = (Integer) getField(THERE_IN_BASE, instances[i]);
+      }
+    }
+    if (columns.dateInBase != null) {
+      Date[] column = columns.dateInBase;
+      for (int i = from; i < to; i++) {
+        column[i] = (Date) getField(DATE_IN_BASE, instances[i]);
+      }
+    }
+    if (columns.hereInBase != null) {
+      String[] column = columns.hereInBase;
+      for (int i = from; i < to; i++) {
+        column[i] = (String) getField(HERE_IN_BASE, instances[i]);
+      }
+    }
+    if (columns.hi != null) {
+      int[] column = columns.hi;
+      for (int i = from; i < to; i++) {
+        column[i] = getInt(HI, instances[i]);
+      }
+    }
+    if (columns.fieldWithBuilder != null) {
+      SomeFieldClass[] column = columns.fieldWithBuilder;
+      for (int i = from; i < to; i++) {
+        column[i] = (SomeFieldClass) getField(FIELD_WITH_BUILDER, instances[i]);
+      }
+    }
+  }
+
+  private static final long REFLECTIVELY_WRITTEN_FIELDS = 0x3ffL;
+
+  private void buildNestedBuilders() {
+    if (fieldWithBuilderBuilder != null) {
+      fieldWithBuilder = fieldWithBuilderBuilder.build();
+      fieldWithBuilderBuilder = null;
+    }
+  }
+
+  private Sub writeFieldsTo(Sub instance) {
+    buildNestedBuilders();
+    long startNanos = BuilderMetrics.ENABLED ? System.nanoTime() : 0L;
+    if((fieldsToSet & 1L << 0) != 0) {
+       setField(THERE_IN_SUB, instance, thereInSub);
+    }
+    if((fieldsToSet & 1L << 1) != 0) {
+       setField(HERE_IN_SUB, instance, hereInSub);
+    }
+    if((fieldsToSet & 1L << 2) != 0) {
+       setField(DATE_IN_SUB, instance, dateInSub);
+    }
+    if((fieldsToSet & 1L << 3) != 0) {
+       setChar(SOME_CHAR, instance, someChar);
     }
-    if(fieldsToSet.contains("dateInSub")) {
-       setField("date", Sub.class, dateInSub);
+    if((fieldsToSet & 1L << 4) != 0) {
+       setField(LIST, instance, list);
     }
-    if(fieldsToSet.contains("someChar")) {
-       setField("someChar", Sub.class, someChar);
+    if((fieldsToSet & 1L << 5) != 0) {
+       setField(THERE_IN_BASE, instance, thereInBase);
     }
-    if(fieldsToSet.contains("list")) {
-       setField("list", Sub.class, list);
+    if((fieldsToSet & 1L << 6) != 0) {
+       setField(DATE_IN_BASE, instance, dateInBase);
     }
-    if(fieldsToSet.contains("thereInBase")) {
-       setField("there", Base.class, thereInBase);
+    if((fieldsToSet & 1L << 7) != 0) {
+       setField(HERE_IN_BASE, instance, hereInBase);
     }
-    if(fieldsToSet.contains("dateInBase")) {
-       setField("date", Base.class, dateInBase);
+    if((fieldsToSet & 1L << 8) != 0) {
+       setInt(HI, instance, hi);
     }
-    if(fieldsToSet.contains("hereInBase")) {
-       setField("here", Base.class, hereInBase);
+    if((fieldsToSet & 1L << 9) != 0) {
+       setField(FIELD_WITH_BUILDER, instance, fieldWithBuilder);
     }
-    if(fieldsToSet.contains("hi")) {
-       setField("hi", Base.class, hi);
+    if (BuilderMetrics.ENABLED) {
+      int writes = Long.bitCount(fieldsToSet);
+      int reflectiveWrites = Long.bitCount(fieldsToSet & REFLECTIVELY_WRITTEN_FIELDS);
+      BuilderMetrics.recordBuild(Sub.class, startNanos, reflectiveWrites, writes - reflectiveWrites);
     }
 
-    return sub;
+    return instance;
   }
 
-  private void setField(String fieldName, Class<?> type, Object fieldValue) {
+  private static void setField(Field objectField, Object instance, Object fieldValue) {
     try {
-      Field objectField = type.getDeclaredField(fieldName);
+      objectField.set(instance, fieldValue);
+    } catch (IllegalAccessException ex) {
+      throw new IllegalStateException(ex); // all handles are accessible, see field()
+    }
+  }
+
+  private static void setChar(Field objectField, Object instance, char fieldValue) {
+    try {
+      objectField.setChar(instance, fieldValue);
+    } catch (IllegalAccessException ex) {
+      throw new IllegalStateException(ex); // all handles are accessible, see field()
+    }
+  }
+
+  private static void setInt(Field objectField, Object instance, int fieldValue) {
+    try {
+      objectField.setInt(instance, fieldValue);
+    } catch (IllegalAccessException ex) {
+      throw new IllegalStateException(ex); // all handles are accessible, see field()
+    }
+  }
+
+  private static void copyField(Field objectField, Object prototype, Object copy) {
+    try {
+      objectField.set(copy, objectField.get(prototype));
+    } catch (IllegalAccessException ex) {
+      throw new IllegalStateException(ex); // all handles are accessible, see field()
+    }
+  }
+
+  private static void copyChar(Field objectField, Object prototype, Object copy) {
+    try {
+      objectField.setChar(copy, objectField.getChar(prototype));
+    } catch (IllegalAccessException ex) {
+      throw new IllegalStateException(ex); // all handles are accessible, see field()
+    }
+  }
+
+  private static void copyInt(Field objectField, Object prototype, Object copy) {
+    try {
+      objectField.setInt(copy, objectField.getInt(prototype));
+    } catch (IllegalAccessException ex) {
+      throw new IllegalStateException(ex); // all handles are accessible, see field()
+    }
+  }
+
+  private static Object getField(Field objectField, Object instance) {
+    try {
+      return objectField.get(instance);
+    } catch (IllegalAccessException ex) {
+      throw new IllegalStateException(ex); // all handles are accessible, see field()
+    }
+  }
+
+  private static char getChar(Field objectField, Object instance) {
+    try {
+      return objectField.getChar(instance);
+    } catch (IllegalAccessException ex) {
+      throw new IllegalStateException(ex); // all handles are accessible, see field()
+    }
+  }
+
+  private static int getInt(Field objectField, Object instance) {
+    try {
+      return objectField.getInt(instance);
+    } catch (IllegalAccessException ex) {
+      throw new IllegalStateException(ex); // all handles are accessible, see field()
+    }
+  }
+
+  private static Field field(Class<?> type, String fieldName, String fieldTypeName) {
+    Field objectField;
+    try {
+      objectField = type.getDeclaredField(fieldName);
       objectField.setAccessible(true);
-      objectField.set(sub, fieldValue);
-    } catch (Exception ex) {
-      ex.printStackTrace();
+    } catch (NoSuchFieldException | RuntimeException ex) {
+      throw new IllegalStateException("SubBuilder can't access " + type.getName() + "." + fieldName
+                                      + ", generate the builder again", ex);
+    }
+    if (!objectField.getType().getTypeName().equals(fieldTypeName)) {
+      throw new IllegalStateException("SubBuilder expects " + type.getName() + "." + fieldName
+                                      + " to be a " + fieldTypeName + ", generate the builder again");
     }
+    return objectField;
   }
 }
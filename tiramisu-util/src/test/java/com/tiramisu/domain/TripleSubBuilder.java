@@ -1,14 +1,17 @@
 package com.tiramisu.domain;
+import com.tiramisu.domain.builder.BuilderMetrics;
+import com.tiramisu.domain.builder.RandomValues;
 import com.tiramisu.domain.objects.Base;
 import com.tiramisu.domain.objects.SomeFieldClass;
 import com.tiramisu.domain.objects.Sub;
 import com.tiramisu.domain.objects.TripleSub;
 
 import java.lang.reflect.Field;
+import java.util.ArrayList;
 import java.util.Date;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
+import java.util.function.ObjIntConsumer;
+import java.util.stream.Stream;
 
 @SuppressWarnings({"unused", "UnusedReturnValue", "WeakerAccess", "SameParameterValue"})
 public final class TripleSubBuilder {
@@ -16,7 +19,28 @@ public final class TripleSubBuilder {
   /** This is a utility class. */
   private TripleSubBuilder() {}
 
-  private TripleSub _result_tripleSub = new TripleSub();
+  private static final Field LONGY = field(TripleSub.class, "longy", "long");
+  private static final Field DOUBLEY = field(TripleSub.class, "doubley", "double");
+  private static final Field HERE_IN_SUB = field(Sub.class, "here", "java.lang.String");
+  private static final Field DATE_IN_SUB = field(Sub.class, "date", "java.lang.String");
+  private static final Field SOME_CHAR = field(Sub.class, "someChar", "char");
+  private static final Field LIST = field(Sub.class, "list", "java.util.List");
+  private static final Field SHORTY = field(TripleSub.class, "shorty", "short");
+  private static final Field DATE_IN_BASE = field(Base.class, "date", "java.util.Date");
+  private static final Field HERE_IN_BASE = field(Base.class, "here", "java.lang.String");
+  private static final Field HI = field(Base.class, "hi", "int");
+  private static final Field FIELD_WITH_BUILDER = field(Base.class, "fieldWithBuilder",
+      "com.tiramisu.domain.objects.SomeFieldClass");
+  private static final Field TRIPLE = field(TripleSub.class, "triple", "java.lang.String");
+  private static final Field NO_LIGHT_IN_THE_DARK = field(TripleSub.class, "noLightInTheDark", "java.lang.Long");
+  private static final Field THERE_IN_SUB = field(Sub.class, "there", "java.lang.String");
+  private static final Field FLOATY = field(TripleSub.class, "floaty", "float");
+  private static final Field BYTEY = field(TripleSub.class, "bytey", "byte");
+  private static final Field BOOLEANY = field(TripleSub.class, "booleany", "boolean");
+  private static final Field THERE_IN_BASE = field(Base.class, "there", "java.lang.Integer");
+
+  private TripleSub _result_tripleSub;
+  private TripleSub _prototype_tripleSub;
   private long longy;
   private double doubley;
   private String hereInSub;
@@ -35,143 +59,157 @@ public final class TripleSubBuilder {
   private byte bytey;
   private boolean booleany;
   private Integer thereInBase;
+  private SomeFieldClassBuilder fieldWithBuilderBuilder;
 
-  private Set<String> fieldsToSet = new HashSet<>();
+  private long fieldsToSet;
 
   public static TripleSubBuilder create() {
     return new TripleSubBuilder();
   }
 
+  private static final ThreadLocal<TripleSubBuilder> POOL = ThreadLocal.withInitial(TripleSubBuilder::new);
+
+  /**
+    * @return the builder of the current thread, {@link #reset() reset} to the state of a new builder.
+    *     Every call returns the same builder, so don't hold on to it while calling this again.
+    */
+  public static TripleSubBuilder pooled() {
+    TripleSubBuilder builder = POOL.get();
+    builder.reset();
+    return builder;
+  }
+
   /** {@link TripleSub#longy}. */
   public TripleSubBuilder with(long longy) {
     this.longy = longy;
-    fieldsToSet.add("longy");
+    fieldsToSet |= 1L << 0;
     return this;
   }
 
   /** {@link TripleSub#doubley}. */
   public TripleSubBuilder with(double doubley) {
     this.doubley = doubley;
-    fieldsToSet.add("doubley");
+    fieldsToSet |= 1L << 1;
     return this;
   }
 
   /** {@link Sub#here}. */
   public TripleSubBuilder withHereInSub(String hereInSub) {
     this.hereInSub = hereInSub;
-    fieldsToSet.add("hereInSub");
+    fieldsToSet |= 1L << 2;
     return this;
   }
 
   /** {@link Sub#date}. */
   public TripleSubBuilder withDateInSub(String dateInSub) {
     this.dateInSub = dateInSub;
-    fieldsToSet.add("dateInSub");
+    fieldsToSet |= 1L << 3;
     return this;
   }
 
   /** {@link Sub#someChar}. */
   public TripleSubBuilder with(char someChar) {
     this.someChar = someChar;
-    fieldsToSet.add("someChar");
+    fieldsToSet |= 1L << 4;
     return this;
   }
 
   /** {@link Sub#list}. */
   public TripleSubBuilder with(List list) {
     this.list = list;
-    fieldsToSet.add("list");
+    fieldsToSet |= 1L << 5;
     return this;
   }
 
   /** {@link TripleSub#shorty}. */
   public TripleSubBuilder with(short shorty) {
     this.shorty = shorty;
-    fieldsToSet.add("shorty");
+    fieldsToSet |= 1L << 6;
     return this;
   }
 
   /** {@link Base#date}. */
   public TripleSubBuilder with(Date dateInBase) {
     this.dateInBase = dateInBase;
-    fieldsToSet.add("dateInBase");
+    fieldsToSet |= 1L << 7;
     return this;
   }
 
   /** {@link Base#here}. */
   public TripleSubBuilder withHereInBase(String hereInBase) {
     this.hereInBase = hereInBase;
-    fieldsToSet.add("hereInBase");
+    fieldsToSet |= 1L << 8;
     return this;
   }
 
   /** {@link Base#hi}. */
   public TripleSubBuilder with(int hi) {
     this.hi = hi;
-    fieldsToSet.add("hi");
+    fieldsToSet |= 1L << 9;
     return this;
   }
 
   /** {@link Base#fieldWithBuilder}. */
   public TripleSubBuilder with(SomeFieldClass fieldWithBuilder) {
     this.fieldWithBuilder = fieldWithBuilder;
-    fieldsToSet.add("fieldWithBuilder");
+    this.fieldWithBuilderBuilder = null;
+    fieldsToSet |= 1L << 10;
     return this;
   }
 
-  /** {@link Base#fieldWithBuilder}. */
+  /** {@link Base#fieldWithBuilder}, built by the next {@code build()} of this builder. */
   public TripleSubBuilder with(SomeFieldClassBuilder fieldWithBuilderBuilder) {
-    this.fieldWithBuilder = fieldWithBuilderBuilder.build();
-    fieldsToSet.add("fieldWithBuilder");
+    this.fieldWithBuilderBuilder = fieldWithBuilderBuilder;
+    fieldsToSet |= 1L << 10;
     return this;
   }
 
   /** {@link TripleSub#triple}. */
   public TripleSubBuilder withTriple(String triple) {
     this.triple = triple;
-    fieldsToSet.add("triple");
+    fieldsToSet |= 1L << 11;
     return this;
   }
 
   /** {@link TripleSub#noLightInTheDark}. */
   public TripleSubBuilder with(Long noLightInTheDark) {
     this.noLightInTheDark = noLightInTheDark;
-    fieldsToSet.add("noLightInTheDark");
+    fieldsToSet |= 1L << 12;
     return this;
   }
 
   /** {@link Sub#there}. */
   public TripleSubBuilder withThereInSub(String thereInSub) {
     this.thereInSub = thereInSub;
-    fieldsToSet.add("thereInSub");
+    fieldsToSet |= 1L << 13;
     return this;
   }
 
   /** {@link TripleSub#floaty}. */
   public TripleSubBuilder with(float floaty) {
     this.floaty = floaty;
-    fieldsToSet.add("floaty");
+    fieldsToSet |= 1L << 14;
     return this;
   }
 
   /** {@link TripleSub#bytey}. */
   public TripleSubBuilder with(byte bytey) {
     this.bytey = bytey;
-    fieldsToSet.add("bytey");
+    fieldsToSet |= 1L << 15;
     return this;
   }
 
   /** {@link TripleSub#booleany}. */
   public TripleSubBuilder with(boolean booleany) {
     this.booleany = booleany;
-    fieldsToSet.add("booleany");
+    fieldsToSet |= 1L << 16;
     return this;
   }
 
   /** {@link Base#there}. */
   public TripleSubBuilder with(Integer thereInBase) {
     this.thereInBase = thereInBase;
-    fieldsToSet.add("thereInBase");
+    fieldsToSet |= 1L << 17;
     return this;
   }
 
@@ -181,6 +219,11 @@ public final class TripleSubBuilder {
     * defines in sections 2.3 and 2.4.
     */
   public void clear() {
+    clearChunk0();
+    clearChunk1();
+  }
+
+  private void clearChunk0() {
     with(0L);
     with(0.0);
     withHereInSub(null);
@@ -193,6 +236,9 @@ public final class TripleSubBuilder {
     with(0);
     with((SomeFieldClass) null);
     withTriple(null);
+  }
+
+  private void clearChunk1() {
     with((Long) null);
     withThereInSub(null);
     with(0.0f);
@@ -202,108 +248,888 @@ public final class TripleSubBuilder {
   }
 
   /**
-    * Sets all fields to default values predefined in the builder.<br /><br />
-    * <b>NOTE:</b> all calls to the builder before this method is called will have no effect.
-    * TODO implement default values!
+    * Puts the builder back into the state it had after {@code create()}: no field is set and the next
+    * call to {@code build()} creates a new instance. This doesn't allocate anything.
     */
-  public void _withDefaults() {
-    with(longy); // TODO implement me!
-    with(doubley); // TODO implement me!
-    withHereInSub(hereInSub); // TODO implement me!
-    withDateInSub(dateInSub); // TODO implement me!
-    with(someChar); // TODO implement me!
-    with(list); // TODO implement me!
-    with(shorty); // TODO implement me!
-    with(dateInBase); // TODO implement me!
-    withHereInBase(hereInBase); // TODO implement me!
-    with(hi); // TODO implement me!
-    with(fieldWithBuilder); // TODO implement me!
-    withTriple(triple); // TODO implement me!
-    with(noLightInTheDark); // TODO implement me!
-    withThereInSub(thereInSub); // TODO implement me!
-    with(floaty); // TODO implement me!
-    with(bytey); // TODO implement me!
-    with(booleany); // TODO implement me!
-    with(thereInBase); // TODO implement me!
+  public void reset() {
+    fieldsToSet = 0L;
+    resetChunk0();
+    resetChunk1();
+    fieldWithBuilderBuilder = null;
+    _result_tripleSub = null;
+    _prototype_tripleSub = null;
+  }
+
+  private void resetChunk0() {
+    longy = 0L;
+    doubley = 0.0;
+    hereInSub = null;
+    dateInSub = null;
+    someChar = '\u0000';
+    list = null;
+    shorty = (short) 0;
+    dateInBase = null;
+    hereInBase = null;
+    hi = 0;
+    fieldWithBuilder = null;
+    triple = null;
+  }
+
+  private void resetChunk1() {
+    noLightInTheDark = null;
+    thereInSub = null;
+    floaty = 0.0f;
+    bytey = (byte) 0;
+    booleany = false;
+    thereInBase = null;
   }
 
   /**
-    * Allows to start building from an existing instance. If the instance you pass to this is
+    * Sets all fields to the random values of {@link RandomValues#DEFAULT_SEED}, so every call
+    * sets the same values. Fields of types without random values are left as they are.
+    */
+  public TripleSubBuilder _withDefaults() {
+    return _withDefaults(RandomValues.seeded(RandomValues.DEFAULT_SEED));
+  }
+
+  /**
+    * Sets all fields to random values from {@code random}. Fields of types without random
+    * values are left as they are.<br /><br />
+    * <b>NOTE:</b> all other calls to the builder before this method is called will have
+    * no effect.
+    */
+  public TripleSubBuilder _withDefaults(RandomValues random) {
+    defaultsChunk0(random);
+    defaultsChunk1(random);
+    return this;
+  }
+
+  private void defaultsChunk0(RandomValues random) {
+    with(random.nextLong());
+    with(random.nextDouble());
+    withHereInSub(random.nextString());
+    withDateInSub(random.nextString());
+    with(random.nextChar());
+    with(random.nextList(() -> random.nextZonedDateTime()));
+    with(random.nextShort());
+    with(random.nextDate());
+    withHereInBase(random.nextString());
+    with(random.nextInt());
+    with(SomeFieldClassBuilder.create()._withDefaults(random));
+    withTriple(random.nextString());
+  }
+
+  private void defaultsChunk1(RandomValues random) {
+    with(Long.valueOf(random.nextLong()));
+    withThereInSub(random.nextString());
+    with(random.nextFloat());
+    with(random.nextByte());
+    with(random.nextBoolean());
+    with(Integer.valueOf(random.nextInt()));
+  }
+
+  /**
+    * Allows to start building from a copy of an existing instance, the instance itself is not changed
+    * by {@code build()}. {@code buildMany}, {@code stream} and specs frozen from this builder start
+    * from a new copy of the instance for every instance they build. If the instance you pass to this is
     * {@code null}, the call to this method will be ignored.
     */
   public void startingFrom(TripleSub instance) {
     if (instance != null) {
-      clear();
-      _result_tripleSub = instance;
+      fieldsToSet = 0L;
+      fieldWithBuilderBuilder = null;
+      _prototype_tripleSub = instance;
+      _result_tripleSub = null;
     }
   }
 
   public TripleSub build() {
-    if(fieldsToSet.contains("longy")) {
-       setField("longy", TripleSub.class, longy);
+    if (_result_tripleSub == null) {
+      _result_tripleSub = _prototype_tripleSub == null ? newInstance() : copyOf(_prototype_tripleSub);
+    }
+    return writeFieldsTo(_result_tripleSub);
+  }
+
+  /**
+    * Builds {@code n} new instances. Before each instance is built, {@code customizer} is called with
+    * this builder and the index of the instance, so it can change fields per instance. Changes made by
+    * the customizer are kept for the following instances.
+    */
+  public List<TripleSub> buildMany(int n, ObjIntConsumer<TripleSubBuilder> customizer) {
+    List<TripleSub> instances = new ArrayList<>(n);
+    for (int i = 0; i < n; i++) {
+      customizer.accept(this, i);
+      instances.add(newInstanceWithFields());
+    }
+    return instances;
+  }
+
+  /**
+    * An infinite stream of new instances that all have the fields set that are currently configured in
+    * this builder. Use {@link Stream#limit(long)} to get a finite number of instances.
+    */
+  public Stream<TripleSub> stream() {
+    return Stream.generate(this::newInstanceWithFields);
+  }
+
+  /**
+    * @return a new instance with the fields of this builder, or a new copy of the instance that this
+    *     builder started from
+    */
+  private TripleSub newInstanceWithFields() {
+    if (_prototype_tripleSub != null) {
+      return writeFieldsTo(copyOf(_prototype_tripleSub));
+    }
+    return writeFieldsTo(newInstance());
+  }
+
+  private static TripleSub newInstance() {
+    return new TripleSub();
+  }
+
+  /**
+    * @return an immutable snapshot of the fields set so far, which can be shared between
+    *     threads. Changing this builder afterwards doesn't change the spec.
+    */
+  public TripleSubSpec freeze() {
+    buildNestedBuilders();
+    return new TripleSubSpec(copyOfBuilder());
+  }
+
+  private TripleSubBuilder copyOfBuilder() {
+    TripleSubBuilder builder = new TripleSubBuilder();
+    builder.longy = longy;
+    builder.doubley = doubley;
+    builder.hereInSub = hereInSub;
+    builder.dateInSub = dateInSub;
+    builder.someChar = someChar;
+    builder.list = list;
+    builder.shorty = shorty;
+    builder.dateInBase = dateInBase;
+    builder.hereInBase = hereInBase;
+    builder.hi = hi;
+    builder.fieldWithBuilder = fieldWithBuilder;
+    builder.triple = triple;
+    builder.noLightInTheDark = noLightInTheDark;
+    builder.thereInSub = thereInSub;
+    builder.floaty = floaty;
+    builder.bytey = bytey;
+    builder.booleany = booleany;
+    builder.thereInBase = thereInBase;
+    builder.fieldsToSet = fieldsToSet;
+    builder._prototype_tripleSub = _prototype_tripleSub;
+    return builder;
+  }
+
+  /** The fields of a frozen builder. All methods can be called from any thread. */
+  public static final class TripleSubSpec {
+
+    private final TripleSubBuilder template;
+
+    private TripleSubSpec(TripleSubBuilder template) {
+      this.template = template;
+    }
+
+    /** @return a new builder with the fields of this spec, to be used by a single thread */
+    public TripleSubBuilder newBuilder() {
+      return template.copyOfBuilder();
+    }
+
+    /** @return a new instance with the fields of this spec */
+    public TripleSub build() {
+      return template.newInstanceWithFields();
+    }
+
+    /**
+      * @return a new instance with the fields of this spec and random values from {@code random} in all
+      *     other fields, see {@link TripleSubBuilder#_withDefaults(RandomValues)}
+      */
+    public TripleSub build(RandomValues random) {
+      TripleSubBuilder randomValues = new TripleSubBuilder()._withDefaults(random);
+      return template.writeFieldsTo(randomValues.writeFieldsTo(newInstance()));
+    }
+  }
+
+  /**
+    * Creates a new instance with the same values in all fields of the hierarchy as {@code prototype}.
+    * The copy is shallow, objects referenced by {@code prototype} are shared with the copy.
+    */
+  public static TripleSub copyOf(TripleSub prototype) {
+    TripleSub copy = newInstance();
+    copyLong(LONGY, prototype, copy);
+    copyDouble(DOUBLEY, prototype, copy);
+    copyField(HERE_IN_SUB, prototype, copy);
+    copyField(DATE_IN_SUB, prototype, copy);
+    copyChar(SOME_CHAR, prototype, copy);
+    copyField(LIST, prototype, copy);
+    copyShort(SHORTY, prototype, copy);
+    copyField(DATE_IN_BASE, prototype, copy);
+    copyField(HERE_IN_BASE, prototype, copy);
+    copyInt(HI, prototype, copy);
+    copyField(FIELD_WITH_BUILDER, prototype, copy);
+    copyField(TRIPLE, prototype, copy);
+    copyField(NO_LIGHT_IN_THE_DARK, prototype, copy);
+    copyField(THERE_IN_SUB, prototype, copy);
+    copyFloat(FLOATY, prototype, copy);
+    copyByte(BYTEY, prototype, copy);
+    copyBoolean(BOOLEANY, prototype, copy);
+    copyField(THERE_IN_BASE, prototype, copy);
+    return copy;
+  }
+
+  /**
+    * The fields of many instances as one array per field, element {@code i} of each array belongs to
+    * instance {@code i}. Columns that are {@code null} are skipped by {@code hydrate} and {@code dehydrate}.
+    */
+  public static final class TripleSubColumns {
+
+    public long[] longy;
+    public double[] doubley;
+    public String[] hereInSub;
+    public String[] dateInSub;
+    public char[] someChar;
+    public List[] list;
+    public short[] shorty;
+    public Date[] dateInBase;
+    public String[] hereInBase;
+    public int[] hi;
+    public SomeFieldClass[] fieldWithBuilder;
+    public String[] triple;
+    public Long[] noLightInTheDark;
+    public String[] thereInSub;
+    public float[] floaty;
+    public byte[] bytey;
+    public boolean[] booleany;
+    public Integer[] thereInBase;
+
+    public TripleSubColumns() {}
+
+    /** Creates every column with {@code size} elements. */
+    public TripleSubColumns(int size) {
+      this.longy = new long[size];
+      this.doubley = new double[size];
+      this.hereInSub = new String[size];
+      this.dateInSub = new String[size];
+      this.someChar = new char[size];
+      this.list = new List[size];
+      this.shorty = new short[size];
+      this.dateInBase = new Date[size];
+      this.hereInBase = new String[size];
+      this.hi = new int[size];
+      this.fieldWithBuilder = new SomeFieldClass[size];
+      this.triple = new String[size];
+      this.noLightInTheDark = new Long[size];
+      this.thereInSub = new String[size];
+      this.floaty = new float[size];
+      this.bytey = new byte[size];
+      this.booleany = new boolean[size];
+      this.thereInBase = new Integer[size];
+    }
+  }
+
+  /**
+    * Creates the instances {@code from} (inclusive) to {@code to} (exclusive) of {@code instances} with the
+    * values at the same indexes of {@code columns}. Fields without a column keep their initial values.
+    * Disjoint ranges can be hydrated in parallel, e.g. in blocks of 1024 instances:
+    * <pre>{@code
+    * IntStream.range(0, (n + 1023) / 1024).parallel()
+    *          .forEach(b -> hydrate(columns, b * 1024, Math.min(n, b * 1024 + 1024), instances));
+    * }</pre>
+    */
+  public static void hydrate(TripleSubColumns columns, int from, int to, TripleSub[] instances) {
+    for (int i = from; i < to; i++) {
+      instances[i] = newInstance();
+    }
+    hydrateChunk0(columns, from, to, instances);
+    hydrateChunk1(columns, from, to, instances);
+  }
+
+  private static void hydrateChunk0(TripleSubColumns columns, int from, int to, TripleSub[] instances) {
+    if (columns.longy != null) {
+      long[] column = columns.longy;
+      for (int i = from; i < to; i++) {
+        TripleSub instance = instances[i];
+        long longy = column[i];
+        setLong(LONGY, instance, longy);
+      }
+    }
+    if (columns.doubley != null) {
+      double[] column = columns.doubley;
+      for (int i = from; i < to; i++) {
+        TripleSub instance = instances[i];
+        double doubley = column[i];
+        setDouble(DOUBLEY, instance, doubley);
+      }
+    }
+    if (columns.hereInSub != null) {
+      String[] column = columns.hereInSub;
+      for (int i = from; i < to; i++) {
+        TripleSub instance = instances[i];
+        String hereInSub = column[i];
+        setField(HERE_IN_SUB, instance, hereInSub);
+      }
+    }
+    if (columns.dateInSub != null) {
+      String[] column = columns.dateInSub;
+      for (int i = from; i < to; i++) {
+        TripleSub instance = instances[i];
+        String dateInSub = column[i];
+        setField(DATE_IN_SUB, instance, dateInSub);
+      }
+    }
+    if (columns.someChar != null) {
+      char[] column = columns.someChar;
+      for (int i = from; i < to; i++) {
+        TripleSub instance = instances[i];
+        char someChar = column[i];
+        setChar(SOME_CHAR, instance, someChar);
+      }
+    }
+    if (columns.list != null) {
+      List[] column = columns.list;
+      for (int i = from; i < to; i++) {
+        TripleSub instance = instances[i];
+        List list = column[i];
+        setField(LIST, instance, list);
+      }
+    }
+    if (columns.shorty != null) {
+      short[] column = columns.shorty;
+      for (int i = from; i < to; i++) {
+        TripleSub instance = instances[i];
+        short shorty = column[i];
+        setShort(SHORTY, instance, shorty);
+      }
+    }
+    if (columns.dateInBase != null) {
+      Date[] column = columns.dateInBase;
+      for (int i = from; i < to; i++) {
+        TripleSub instance = instances[i];
+        Date dateInBase = column[i];
+        setField(DATE_IN_BASE, instance, dateInBase);
+      }
+    }
+    if (columns.hereInBase != null) {
+      String[] column = columns.hereInBase;
+      for (int i = from; i < to; i++) {
+        TripleSub instance = instances[i];
+        String hereInBase = column[i];
+        setField(HERE_IN_BASE, instance, hereInBase);
+      }
+    }
+    if (columns.hi != null) {
+      int[] column = columns.hi;
+      for (int i = from; i < to; i++) {
+        TripleSub instance = instances[i];
+        int hi = column[i];
+        setInt(HI, instance, hi);
+      }
+    }
+    if (columns.fieldWithBuilder != null) {
+      SomeFieldClass[] column = columns.fieldWithBuilder;
+      for (int i = from; i < to; i++) {
+        TripleSub instance = instances[i];
+        SomeFieldClass fieldWithBuilder = column[i];
+        setField(FIELD_WITH_BUILDER, instance, fieldWithBuilder);
+      }
+    }
+    if (columns.triple != null) {
+      String[] column = columns.triple;
+      for (int i = from; i < to; i++) {
+        TripleSub instance = instances[i];
+        String triple = column[i];
+        setField(TRIPLE, instance, triple);
+      }
+    }
+  }
+
+  private static void hydrateChunk1(TripleSubColumns columns, int from, int to, TripleSub[] instances) {
+    if (columns.noLightInTheDark != null) {
+      Long[] column = columns.noLightInTheDark;
+      for (int i = from; i < to; i++) {
+        TripleSub instance = instances[i];
+        Long noLightInTheDark = column[i];
+        setField(NO_LIGHT_IN_THE_DARK, instance, noLightInTheDark);
+      }
     }
-    if(fieldsToSet.contains("doubley")) {
-       setField("doubley", TripleSub.class, doubley);
+    if (columns.thereInSub != null) {
+      String[] column = columns.thereInSub;
+      for (int i = from; i < to; i++) {
+        TripleSub instance = instances[i];
+        String thereInSub = column[i];
+        setField(THERE_IN_SUB, instance, thereInSub);
+      }
     }
-    if(fieldsToSet.contains("hereInSub")) {
-       setField("here", Sub.class, hereInSub);
+    if (columns.floaty != null) {
+      float[] column = columns.floaty;
+      for (int i = from; i < to; i++) {
+        TripleSub instance = instances[i];
+        float floaty = column[i];
+        setFloat(FLOATY, instance, floaty);
+      }
     }
-    if(fieldsToSet.contains("dateInSub")) {
-       setField("date", Sub.class, dateInSub);
+    if (columns.bytey != null) {
+      byte[] column = columns.bytey;
+      for (int i = from; i < to; i++) {
+        TripleSub instance = instances[i];
+        byte bytey = column[i];
+        setByte(BYTEY, instance, bytey);
+      }
     }
-    if(fieldsToSet.contains("someChar")) {
-       setField("someChar", Sub.class, someChar);
+    if (columns.booleany != null) {
+      boolean[] column = columns.booleany;
+      for (int i = from; i < to; i++) {
+        TripleSub instance = instances[i];
+        boolean booleany = column[i];
+        setBoolean(BOOLEANY, instance, booleany);
+      }
     }
-    if(fieldsToSet.contains("list")) {
-       setField("list", Sub.class, list);
+    if (columns.thereInBase != null) {
+      Integer[] column = columns.thereInBase;
+      for (int i = from; i < to; i++) {
+        TripleSub instance = instances[i];
+        Integer thereInBase = column[i];
+        setField(THERE_IN_BASE, instance, thereInBase);
+      }
     }
-    if(fieldsToSet.contains("shorty")) {
-       setField("shorty", TripleSub.class, shorty);
+  }
+
+  /**
+    * Copies the fields of the instances {@code from} (inclusive) to {@code to} (exclusive) of
+    * {@code instances} to the same indexes of {@code columns}. Like {@code hydrate}, disjoint ranges can
+    * be dehydrated in parallel.
+    */
+  public static void dehydrate(TripleSub[] instances, int from, int to, TripleSubColumns columns) {
+    dehydrateChunk0(instances, from, to, columns);
+    dehydrateChunk1(instances, from, to, columns);
+  }
+
+  private static void dehydrateChunk0(TripleSub[] instances, int from, int to, TripleSubColumns columns) {
+    if (columns.longy != null) {
+      long[] column = columns.longy;
+      for (int i = from; i < to; i++) {
+        column[i] = getLong(LONGY, instances[i]);
+      }
     }
-    if(fieldsToSet.contains("dateInBase")) {
-       setField("date", Base.class, dateInBase);
+    if (columns.doubley != null) {
+      double[] column = columns.doubley;
+      for (int i = from; i < to; i++) {
+        column[i] = getDouble(DOUBLEY, instances[i]);
+      }
     }
-    if(fieldsToSet.contains("hereInBase")) {
-       setField("here", Base.class, hereInBase);
+    if (columns.hereInSub != null) {
+      String[] column = columns.hereInSub;
+      for (int i = from; i < to; i++) {
+        column[i] = (String) getField(HERE_IN_SUB, instances[i]);
+      }
     }
-    if(fieldsToSet.contains("hi")) {
-       setField("hi", Base.class, hi);
+    if (columns.dateInSub != null) {
+      String[] column = columns.dateInSub;
+      for (int i = from; i < to; i++) {
+        column[i] = (String) getField(DATE_IN_SUB, instances[i]);
+      }
     }
-    if(fieldsToSet.contains("fieldWithBuilder")) {
-       setField("fieldWithBuilder", Base.class, fieldWithBuilder);
+    if (columns.someChar != null) {
+      char[] column = columns.someChar;
+      for (int i = from; i < to; i++) {
+        column[i] = getChar(SOME_CHAR, instances[i]);
+      }
     }
-    if(fieldsToSet.contains("triple")) {
-       setField("triple", TripleSub.class, triple);
+    if (columns.list != null) {
+      List[] column = columns.list;
+      for (int i = from; i < to; i++) {
+        column[i] = (List) getField(LIST, instances[i]);
+      }
     }
-    if(fieldsToSet.contains("noLightInTheDark")) {
-       setField("noLightInTheDark", TripleSub.class, noLightInTheDark);
+    if (columns.shorty != null) {
+      short[] column = columns.shorty;
+      for (int i = from; i < to; i++) {
+        column[i] = getShort(SHORTY, instances[i]);
+      }
     }
-    if(fieldsToSet.contains("thereInSub")) {
-       setField("there", Sub.class, thereInSub);
+    if (columns.dateInBase != null) {
+      Date[] column = columns.dateInBase;
+      for (int i = from; i < to; i++) {
+        column[i] = (Date) getField(DATE_IN_BASE, instances[i]);
+      }
     }
-    if(fieldsToSet.contains("floaty")) {
-       setField("floaty", TripleSub.class, floaty);
+    if (columns.hereInBase != null) {
+      String[] column = columns.hereInBase;
+      for (int i = from; i < to; i++) {
+        column[i] = (String) getField(HERE_IN_BASE, instances[i]);
+      }
     }
-    if(fieldsToSet.contains("bytey")) {
-       setField("bytey", TripleSub.class, bytey);
+    if (columns.hi != null) {
+      int[] column = columns.hi;
+      for (int i = from; i < to; i++) {
+        column[i] = getInt(HI, instances[i]);
+      }
     }
-    if(fieldsToSet.contains("booleany")) {
-       setField("booleany", TripleSub.class, booleany);
+    if (columns.fieldWithBuilder != null) {
+      SomeFieldClass[] column = columns.fieldWithBuilder;
+      for (int i = from; i < to; i++) {
+        column[i] = (SomeFieldClass) getField(FIELD_WITH_BUILDER, instances[i]);
+      }
     }
-    if(fieldsToSet.contains("thereInBase")) {
-       setField("there", Base.class, thereInBase);
+    if (columns.triple != null) {
+      String[] column = columns.triple;
+      for (int i = from; i < to; i++) {
+        column[i] = (String) getField(TRIPLE, instances[i]);
+      }
     }
+  }
 
-    return _result_tripleSub;
+  private static void dehydrateChunk1(TripleSub[] instances, int from, int to, TripleSubColumns columns) {
+    if (columns.noLightInTheDark != null) {
+      Long[] column = columns.noLightInTheDark;
+      for (int i = from; i < to; i++) {
+        column[i] = (Long) getField(NO_LIGHT_IN_THE_DARK, instances[i]);
+      }
+    }
+    if (columns.thereInSub != null) {
+      String[] column = columns.thereInSub;
+      for (int i = from; i < to; i++) {
+        column[i] = (String) getField(THERE_IN_SUB, instances[i]);
+      }
+    }
+    if (columns.floaty != null) {
+      float[] column = columns.floaty;
+      for (int i = from; i < to; i++) {
+        column[i] = getFloat(FLOATY, instances[i]);
+      }
+    }
+    if (columns.bytey != null) {
+      byte[] column = columns.bytey;
+      for (int i = from; i < to; i++) {
+        column[i] = getByte(BYTEY, instances[i]);
+      }
+    }
+    if (columns.booleany != null) {
+      boolean[] column = columns.booleany;
+      for (int i = from; i < to; i++) {
+        column[i] = getBoolean(BOOLEANY, instances[i]);
+      }
+    }
+    if (columns.thereInBase != null) {
+      Integer[] column = columns.thereInBase;
+      for (int i = from; i < to; i++) {
+        column[i] = (Integer) getField(THERE_IN_BASE, instances[i]);
+      }
+    }
   }
 
-  private void setField(String fieldName, Class<?> type, Object fieldValue) {
+  private static final long REFLECTIVELY_WRITTEN_FIELDS = 0x3ffffL;
+
+  private void buildNestedBuilders() {
+    if (fieldWithBuilderBuilder != null) {
+      fieldWithBuilder = fieldWithBuilderBuilder.build();
+      fieldWithBuilderBuilder = null;
+    }
+  }
+
+  private TripleSub writeFieldsTo(TripleSub instance) {
+    buildNestedBuilders();
+    long startNanos = BuilderMetrics.ENABLED ? System.nanoTime() : 0L;
+    writeFieldsChunk0(instance);
+    writeFieldsChunk1(instance);
+    if (BuilderMetrics.ENABLED) {
+      int writes = Long.bitCount(fieldsToSet);
+      int reflectiveWrites = Long.bitCount(fieldsToSet & REFLECTIVELY_WRITTEN_FIELDS);
+      BuilderMetrics.recordBuild(TripleSub.class, startNanos, reflectiveWrites, writes - reflectiveWrites);
+    }
+
+    return instance;
+  }
+
+  private void writeFieldsChunk0(TripleSub instance) {
+    if((fieldsToSet & 1L << 0) != 0) {
+       setLong(LONGY, instance, longy);
+    }
+    if((fieldsToSet & 1L << 1) != 0) {
+       setDouble(DOUBLEY, instance, doubley);
+    }
+    if((fieldsToSet & 1L << 2) != 0) {
+       setField(HERE_IN_SUB, instance, hereInSub);
+    }
+    if((fieldsToSet & 1L << 3) != 0) {
+       setField(DATE_IN_SUB, instance, dateInSub);
+    }
+    if((fieldsToSet & 1L << 4) != 0) {
+       setChar(SOME_CHAR, instance, someChar);
+    }
+    if((fieldsToSet & 1L << 5) != 0) {
+       setField(LIST, instance, list);
+    }
+    if((fieldsToSet & 1L << 6) != 0) {
+       setShort(SHORTY, instance, shorty);
+    }
+    if((fieldsToSet & 1L << 7) != 0) {
+       setField(DATE_IN_BASE, instance, dateInBase);
+    }
+    if((fieldsToSet & 1L << 8) != 0) {
+       setField(HERE_IN_BASE, instance, hereInBase);
+    }
+    if((fieldsToSet & 1L << 9) != 0) {
+       setInt(HI, instance, hi);
+    }
+    if((fieldsToSet & 1L << 10) != 0) {
+       setField(FIELD_WITH_BUILDER, instance, fieldWithBuilder);
+    }
+    if((fieldsToSet & 1L << 11) != 0) {
+       setField(TRIPLE, instance, triple);
+    }
+  }
+
+  private void writeFieldsChunk1(TripleSub instance) {
+    if((fieldsToSet & 1L << 12) != 0) {
+       setField(NO_LIGHT_IN_THE_DARK, instance, noLightInTheDark);
+    }
+    if((fieldsToSet & 1L << 13) != 0) {
+       setField(THERE_IN_SUB, instance, thereInSub);
+    }
+    if((fieldsToSet & 1L << 14) != 0) {
+       setFloat(FLOATY, instance, floaty);
+    }
+    if((fieldsToSet & 1L << 15) != 0) {
+       setByte(BYTEY, instance, bytey);
+    }
+    if((fieldsToSet & 1L << 16) != 0) {
+       setBoolean(BOOLEANY, instance, booleany);
+    }
+    if((fieldsToSet & 1L << 17) != 0) {
+       setField(THERE_IN_BASE, instance, thereInBase);
+    }
+  }
+
+  private static void setLong(Field objectField, Object instance, long fieldValue) {
+    try {
+      objectField.setLong(instance, fieldValue);
+    } catch (IllegalAccessException ex) {
+      throw new IllegalStateException(ex); // all handles are accessible, see field()
+    }
+  }
+
+  private static void setDouble(Field objectField, Object instance, double fieldValue) {
+    try {
+      objectField.setDouble(instance, fieldValue);
+    } catch (IllegalAccessException ex) {
+      throw new IllegalStateException(ex); // all handles are accessible, see field()
+    }
+  }
+
+  private static void setField(Field objectField, Object instance, Object fieldValue) {
+    try {
+      objectField.set(instance, fieldValue);
+    } catch (IllegalAccessException ex) {
+      throw new IllegalStateException(ex); // all handles are accessible, see field()
+    }
+  }
+
+  private static void setChar(Field objectField, Object instance, char fieldValue) {
+    try {
+      objectField.setChar(instance, fieldValue);
+    } catch (IllegalAccessException ex) {
+      throw new IllegalStateException(ex); // all handles are accessible, see field()
+    }
+  }
+
+  private static void setShort(Field objectField, Object instance, short fieldValue) {
+    try {
+      objectField.setShort(instance, fieldValue);
+    } catch (IllegalAccessException ex) {
+      throw new IllegalStateException(ex); // all handles are accessible, see field()
+    }
+  }
+
+  private static void setInt(Field objectField, Object instance, int fieldValue) {
+    try {
+      objectField.setInt(instance, fieldValue);
+    } catch (IllegalAccessException ex) {
+      throw new IllegalStateException(ex); // all handles are accessible, see field()
+    }
+  }
+
+  private static void setFloat(Field objectField, Object instance, float fieldValue) {
+    try {
+      objectField.setFloat(instance, fieldValue);
+    } catch (IllegalAccessException ex) {
+      throw new IllegalStateException(ex); // all handles are accessible, see field()
+    }
+  }
+
+  private static void setByte(Field objectField, Object instance, byte fieldValue) {
+    try {
+      objectField.setByte(instance, fieldValue);
+    } catch (IllegalAccessException ex) {
+      throw new IllegalStateException(ex); // all handles are accessible, see field()
+    }
+  }
+
+  private static void setBoolean(Field objectField, Object instance, boolean fieldValue) {
+    try {
+      objectField.setBoolean(instance, fieldValue);
+    } catch (IllegalAccessException ex) {
+      throw new IllegalStateException(ex); // all handles are accessible, see field()
+    }
+  }
+
+  private static void copyLong(Field objectField, Object prototype, Object copy) {
+    try {
+      objectField.setLong(copy, objectField.getLong(prototype));
+    } catch (IllegalAccessException ex) {
+      throw new IllegalStateException(ex); // all handles are accessible, see field()
+    }
+  }
+
+  private static void copyDouble(Field objectField, Object prototype, Object copy) {
+    try {
+      objectField.setDouble(copy, objectField.getDouble(prototype));
+    } catch (IllegalAccessException ex) {
+      throw new IllegalStateException(ex); // all handles are accessible, see field()
+    }
+  }
+
+  private static void copyField(Field objectField, Object prototype, Object copy) {
+    try {
+      objectField.set(copy, objectField.get(prototype));
+    } catch (IllegalAccessException ex) {
+      throw new IllegalStateException(ex); // all handles are accessible, see field()
+    }
+  }
+
+  private static void copyChar(Field objectField, Object prototype, Object copy) {
     try {
-      Field objectField = type.getDeclaredField(fieldName);
+      objectField.setChar(copy, objectField.getChar(prototype));
+    } catch (IllegalAccessException ex) {
+      throw new IllegalStateException(ex); // all handles are accessible, see field()
+    }
+  }
+
+  private static void copyShort(Field objectField, Object prototype, Object copy) {
+    try {
+      objectField.setShort(copy, objectField.getShort(prototype));
+    } catch (IllegalAccessException ex) {
+      throw new IllegalStateException(ex); // all handles are accessible, see field()
+    }
+  }
+
+  private static void copyInt(Field objectField, Object prototype, Object copy) {
+    try {
+      objectField.setInt(copy, objectField.getInt(prototype));
+    } catch (IllegalAccessException ex) {
+      throw new IllegalStateException(ex); // all handles are accessible, see field()
+    }
+  }
+
+  private static void copyFloat(Field objectField, Object prototype, Object copy) {
+    try {
+      objectField.setFloat(copy, objectField.getFloat(prototype));
+    } catch (IllegalAccessException ex) {
+      throw new IllegalStateException(ex); // all handles are accessible, see field()
+    }
+  }
+
+  private static void copyByte(Field objectField, Object prototype, Object copy) {
+    try {
+      objectField.setByte(copy, objectField.getByte(prototype));
+    } catch (IllegalAccessException ex) {
+      throw new IllegalStateException(ex); // all handles are accessible, see field()
+    }
+  }
+
+  private static void copyBoolean(Field objectField, Object prototype, Object copy) {
+    try {
+      objectField.setBoolean(copy, objectField.getBoolean(prototype));
+    } catch (IllegalAccessException ex) {
+      throw new IllegalStateException(ex); // all handles are accessible, see field()
+    }
+  }
+
+  private static long getLong(Field objectField, Object instance) {
+    try {
+      return objectField.getLong(instance);
+    } catch (IllegalAccessException ex) {
+      throw new IllegalStateException(ex); // all handles are accessible, see field()
+    }
+  }
+
+  private static double getDouble(Field objectField, Object instance) {
+    try {
+      return objectField.getDouble(instance);
+    } catch (IllegalAccessException ex) {
+      throw new IllegalStateException(ex); // all handles are accessible, see field()
+    }
+  }
+
+  private static Object getField(Field objectField, Object instance) {
+    try {
+      return objectField.get(instance);
+    } catch (IllegalAccessException ex) {
+      throw new IllegalStateException(ex); // all handles are accessible, see field()
+    }
+  }
+
+  private static char getChar(Field objectField, Object instance) {
+    try {
+      return objectField.getChar(instance);
+    } catch (IllegalAccessException ex) {
+      throw new IllegalStateException(ex); // all handles are accessible, see field()
+    }
+  }
+
+  private static short getShort(Field objectField, Object instance) {
+    try {
+      return objectField.getShort(instance);
+    } catch (IllegalAccessException ex) {
+      throw new IllegalStateException(ex); // all handles are accessible, see field()
+    }
+  }
+
+  private static int getInt(Field objectField, Object instance) {
+    try {
+      return objectField.getInt(instance);
+    } catch (IllegalAccessException ex) {
+      throw new IllegalStateException(ex); // all handles are accessible, see field()
+    }
+  }
+
+  private static float getFloat(Field objectField, Object instance) {
+    try {
+      return objectField.getFloat(instance);
+    } catch (IllegalAccessException ex) {
+      throw new IllegalStateException(ex); // all handles are accessible, see field()
+    }
+  }
+
+  private static byte getByte(Field objectField, Object instance) {
+    try {
+      return objectField.getByte(instance);
+    } catch (IllegalAccessException ex) {
+      throw new IllegalStateException(ex); // all handles are accessible, see field()
+    }
+  }
+
+  private static boolean getBoolean(Field objectField, Object instance) {
+    try {
+      return objectField.getBoolean(instance);
+    } catch (IllegalAccessException ex) {
+      throw new IllegalStateException(ex); // all handles are accessible, see field()
+    }
+  }
+
+  private static Field field(Class<?> type, String fieldName, String fieldTypeName) {
+    Field objectField;
+    try {
+      objectField = type.getDeclaredField(fieldName);
       objectField.setAccessible(true);
-      objectField.set(_result_tripleSub, fieldValue);
-    } catch (Exception ex) {
-      ex.printStackTrace();
+    } catch (NoSuchFieldException | RuntimeException ex) {
+      throw new IllegalStateException("TripleSubBuilder can't access " + type.getName() + "." + fieldName
+                                      + ", generate the builder again", ex);
+    }
+    if (!objectField.getType().getTypeName().equals(fieldTypeName)) {
+      throw new IllegalStateException("TripleSubBuilder expects " + type.getName() + "." + fieldName
+                                      + " to be a " + fieldTypeName + ", generate the builder again");
     }
+    return objectField;
   }
 }
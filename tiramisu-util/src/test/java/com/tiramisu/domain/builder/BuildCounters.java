@@ -0,0 +1,52 @@
+package com.tiramisu.domain.builder;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/** The {@link BuilderMetrics} of one target class. The counters can be updated concurrently. */
+public final class BuildCounters {
+
+  private final LongAdder builds = new LongAdder();
+  private final LongAdder buildNanos = new LongAdder();
+  private final LongAdder reflectiveWrites = new LongAdder();
+  private final LongAdder directWrites = new LongAdder();
+  private final LongAdder failedWrites = new LongAdder();
+
+  BuildCounters() {}
+
+  void recordBuild(long nanos, int reflectiveWrites, int directWrites) {
+    this.builds.increment();
+    this.buildNanos.add(nanos);
+    this.reflectiveWrites.add(reflectiveWrites);
+    this.directWrites.add(directWrites);
+  }
+
+  void recordFailedWrite() {
+    failedWrites.increment();
+  }
+
+  public long builds() {
+    return builds.sum();
+  }
+
+  public long buildNanos() {
+    return buildNanos.sum();
+  }
+
+  public long reflectiveWrites() {
+    return reflectiveWrites.sum();
+  }
+
+  public long directWrites() {
+    return directWrites.sum();
+  }
+
+  public long failedWrites() {
+    return failedWrites.sum();
+  }
+
+  @Override
+  public String toString() {
+    return "builds=" + builds() + ", buildNanos=" + buildNanos() + ", reflectiveWrites=" + reflectiveWrites()
+           + ", directWrites=" + directWrites() + ", failedWrites=" + failedWrites();
+  }
+}
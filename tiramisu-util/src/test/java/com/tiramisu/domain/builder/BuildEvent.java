@@ -0,0 +1,31 @@
+package com.tiramisu.domain.builder;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/** Emitted by {@link BuilderMetrics#recordBuild} for every build while metrics are enabled. */
+@Name("com.tiramisu.builder.Build")
+@Label("Builder Build")
+@Description("A builder wrote its fields into an instance")
+@Category({"Tiramisu", "Builders"})
+@StackTrace(false)
+final class BuildEvent extends Event {
+
+  @Label("Target Class")
+  Class<?> targetClass;
+
+  @Label("Build Time")
+  @Timespan(Timespan.NANOSECONDS)
+  long buildTime;
+
+  @Label("Reflective Writes")
+  int reflectiveWrites;
+
+  @Label("Direct Writes")
+  int directWrites;
+}
@@ -0,0 +1,109 @@
+package com.tiramisu.domain.builder;
+
+import com.tiramisu.domain.builder.generator.FieldDiscovery;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Everything a {@link RuntimeBuilder} needs to know about the class it builds: the no-args constructor and the fields
+ * in the hierarchy, already looked up and made accessible. A plan is immutable and can be shared between threads; the
+ * {@link Builders#planFor(Class) default plans} are computed once per class.
+ *
+ * @param <T> the class that is built
+ */
+public final class BuildPlan<T> {
+
+  private final Class<T> targetClass;
+  private final Constructor<T> constructor;
+  private final PlannedField[] fields;
+  private final Map<String, Integer> builderFieldNameToIndex;
+
+  private BuildPlan(Class<T> targetClass, Constructor<T> constructor, PlannedField[] fields) {
+    this.targetClass = targetClass;
+    this.constructor = constructor;
+    this.fields = fields;
+
+    Map<String, Integer> builderFieldNameToIndex = new HashMap<>();
+    for (int i = 0; i < fields.length; i++) {
+      builderFieldNameToIndex.put(fields[i].builderFieldName(), i);
+    }
+    this.builderFieldNameToIndex = Collections.unmodifiableMap(builderFieldNameToIndex);
+  }
+
+  /**
+   * Uses the same rules as the {@link com.tiramisu.domain.builder.generator.BuilderGenerator BuilderGenerator} to
+   * find the fields and to name them, except that static fields are left out.
+   *
+   * @see FieldDiscovery#fields(Class, Class, Collection)
+   */
+  static <T> BuildPlan<T> of(Class<T> targetClass, Class<?> upperBoundOfHierarchy,
+                             Collection<Class<?>> ignoredClassesInHierarchy) {
+    Set<Field> fields = FieldDiscovery.fields(targetClass, upperBoundOfHierarchy, ignoredClassesInHierarchy);
+    fields.removeIf(field -> Modifier.isStatic(field.getModifiers()));
+
+    Map<Field, String> fieldToBuilderFieldName = FieldDiscovery.builderFieldNames(fields);
+
+    PlannedField[] plannedFields = fields.stream()
+        .peek(field -> field.setAccessible(true))
+        .map(field -> new PlannedField(field, fieldToBuilderFieldName.get(field)))
+        .toArray(PlannedField[]::new);
+
+    return new BuildPlan<>(targetClass, noArgsConstructorOf(targetClass), plannedFields);
+  }
+
+  static <T> Constructor<T> noArgsConstructorOf(Class<T> targetClass) {
+    try {
+      Constructor<T> constructor = targetClass.getDeclaredConstructor();
+      constructor.setAccessible(true);
+      return constructor;
+    } catch (NoSuchMethodException e) {
+      throw new IllegalArgumentException(targetClass.getName() + " has no no-args constructor", e);
+    }
+  }
+
+  public Class<T> targetClass() {
+    return targetClass;
+  }
+
+  /** @return the names that can be passed to {@link RuntimeBuilder#set(String, Object)} and its typed variants */
+  public Set<String> builderFieldNames() {
+    return builderFieldNameToIndex.keySet();
+  }
+
+  public RuntimeBuilder<T> newBuilder() {
+    return new RuntimeBuilder<>(this);
+  }
+
+  int numberOfFields() {
+    return fields.length;
+  }
+
+  PlannedField field(int index) {
+    return fields[index];
+  }
+
+  int indexOf(String builderFieldName) {
+    Integer index = builderFieldNameToIndex.get(builderFieldName);
+    if (index == null) {
+      throw new IllegalArgumentException(
+          targetClass.getSimpleName() + " has no field called " + builderFieldName + ", known fields are "
+          + builderFieldNameToIndex.keySet());
+    }
+    return index;
+  }
+
+  T newInstance() {
+    try {
+      return constructor.newInstance();
+    } catch (ReflectiveOperationException e) {
+      throw new IllegalStateException("Could not create an instance of " + targetClass.getName(), e);
+    }
+  }
+}
@@ -0,0 +1,72 @@
+package com.tiramisu.domain.builder;
+
+import java.lang.reflect.Field;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Counts what builders do per target class: builds, the time spent writing fields, how many fields were written via
+ * reflection and how many directly, and how many reflective writes failed. Every build and every failed write is also
+ * emitted as a JFR event ({@code com.tiramisu.builder.Build} and {@code com.tiramisu.builder.FailedWrite}).<br /><br />
+ *
+ * Metrics are off unless the JVM is started with {@code -Dtiramisu.builder.metrics=true}. Builders only call this
+ * class inside {@code if (BuilderMetrics.ENABLED)}, and since {@link #ENABLED} is a constant once this class is
+ * initialized, the JIT compiler removes that code entirely when metrics are off.
+ */
+public final class BuilderMetrics {
+
+  /** This is a utility class. */
+  private BuilderMetrics() {}
+
+  public static final boolean ENABLED = Boolean.getBoolean("tiramisu.builder.metrics");
+
+  private static final Map<Class<?>, BuildCounters> COUNTERS = new ConcurrentHashMap<>();
+
+  /**
+   * @param startNanos the {@link System#nanoTime()} when the builder started writing fields
+   * @param reflectiveWrites the number of fields that were written via reflection
+   * @param directWrites the number of fields that were written via a setter or an assignment
+   */
+  public static void recordBuild(Class<?> targetClass, long startNanos, int reflectiveWrites, int directWrites) {
+    long nanos = System.nanoTime() - startNanos;
+    countersFor(targetClass).recordBuild(nanos, reflectiveWrites, directWrites);
+
+    BuildEvent event = new BuildEvent();
+    if (event.isEnabled()) {
+      event.targetClass = targetClass;
+      event.buildTime = nanos;
+      event.reflectiveWrites = reflectiveWrites;
+      event.directWrites = directWrites;
+      event.commit();
+    }
+  }
+
+  /** Records a reflective write (or copy) of {@code field} that threw {@code exception}. */
+  public static void recordFailedWrite(Class<?> targetClass, Field field, Exception exception) {
+    countersFor(targetClass).recordFailedWrite();
+
+    FailedWriteEvent event = new FailedWriteEvent();
+    if (event.isEnabled()) {
+      event.targetClass = targetClass;
+      event.field = field == null ? null : field.getDeclaringClass().getName() + "#" + field.getName();
+      event.exception = exception.toString();
+      event.commit();
+    }
+  }
+
+  /** @return the counters of {@code targetClass}, all zero if nothing was recorded for it yet */
+  public static BuildCounters countersFor(Class<?> targetClass) {
+    BuildCounters counters = COUNTERS.get(targetClass);
+    return counters != null ? counters : COUNTERS.computeIfAbsent(targetClass, type -> new BuildCounters());
+  }
+
+  /** @return the counters of all target classes that something was recorded for */
+  public static Map<Class<?>, BuildCounters> allCounters() {
+    return Collections.unmodifiableMap(COUNTERS);
+  }
+
+  public static void reset() {
+    COUNTERS.clear();
+  }
+}
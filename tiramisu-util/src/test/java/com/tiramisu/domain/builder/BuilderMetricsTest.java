@@ -0,0 +1,75 @@
+package com.tiramisu.domain.builder;
+
+import com.tiramisu.domain.SubBuilder;
+import com.tiramisu.domain.objects.Contact;
+import com.tiramisu.domain.objects.ContactBuilder;
+import com.tiramisu.domain.objects.Sub;
+import com.tiramisu.domain.objects.TripleSub;
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assume.assumeFalse;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * {@link BuilderMetrics#ENABLED} is fixed when the class is initialized, so the tests for enabled metrics only run in
+ * the surefire execution that sets {@code tiramisu.builder.metrics}, all other tests run with metrics disabled.
+ */
+public class BuilderMetricsTest {
+
+  @Test
+  public void MetricsShouldCountBuildsAndWrites() {
+    assumeTrue(BuilderMetrics.ENABLED);
+
+    // given
+    BuilderMetrics.reset();
+
+    // when
+    SubBuilder.create().withHereInSub("here").withThereInSub("there").build();
+    Builders.forClass(TripleSub.class).set("triple", "three").build();
+
+    // then
+    BuildCounters subCounters = BuilderMetrics.countersFor(Sub.class);
+    assertThat(subCounters.builds(), is(1L));
+    assertThat(subCounters.reflectiveWrites(), is(2L));
+    assertThat(subCounters.directWrites(), is(0L));
+    assertThat(subCounters.failedWrites(), is(0L));
+    assertThat(BuilderMetrics.countersFor(TripleSub.class).builds(), is(1L));
+    assertThat(BuilderMetrics.countersFor(TripleSub.class).reflectiveWrites(), is(1L));
+  }
+
+  @Test
+  public void BuildShouldWriteSettersAndPackagePrivateFieldsWithoutReflection() {
+    assumeTrue(BuilderMetrics.ENABLED);
+
+    // given
+    BuilderMetrics.reset();
+
+    // when
+    Contact contact = ContactBuilder.create().withName("name").with(42).build();
+    ContactBuilder.create().withName("name").with(42).withNote("note").build();
+
+    // then
+    BuildCounters counters = BuilderMetrics.countersFor(Contact.class);
+    assertThat(contact.getName(), is("name"));
+    assertThat(contact.getAge(), is(42));
+    assertThat(counters.builds(), is(2L));
+    assertThat(counters.directWrites(), is(4L));
+    assertThat(counters.reflectiveWrites(), is(1L));
+  }
+
+  @Test
+  public void DisabledMetricsShouldRecordNothing() {
+    assumeFalse(BuilderMetrics.ENABLED);
+
+    // when
+    Sub sub = SubBuilder.create().withHereInSub("here").withThereInSub("there").build();
+    TripleSub tripleSub = Builders.forClass(TripleSub.class).set("triple", "three").build();
+
+    // then
+    assertThat(sub.getHere(), is("here"));
+    assertThat(tripleSub.getTriple(), is("three"));
+    assertThat(BuilderMetrics.allCounters().isEmpty(), is(true));
+  }
+}
@@ -0,0 +1,35 @@
+package com.tiramisu.domain.builder;
+
+/**
+ * The values of a {@link RuntimeBuilder} at the time it was {@link RuntimeBuilder#freeze() frozen}. A spec is
+ * immutable, so it can be shared between threads and all its methods can be called concurrently without locking.
+ *
+ * <pre>{@code
+ * BuilderSpec<TripleSub> spec = Builders.forClass(TripleSub.class).set("triple", "three").freeze();
+ *
+ * // on any number of threads
+ * TripleSub tripleSub = spec.build();
+ * TripleSub variant = spec.newBuilder().setLong("longy", 5L).build();
+ * }</pre>
+ *
+ * @param <T> the class that is built
+ */
+public final class BuilderSpec<T> {
+
+  /** Never changed after the spec was created; {@link RuntimeBuilder#build()} only reads it. */
+  private final RuntimeBuilder<T> template;
+
+  BuilderSpec(RuntimeBuilder<T> template) {
+    this.template = template;
+  }
+
+  /** @return a new builder with the values of this spec, to be used by a single thread */
+  public RuntimeBuilder<T> newBuilder() {
+    return template.copy();
+  }
+
+  /** @return a new instance with the values of this spec */
+  public T build() {
+    return template.build();
+  }
+}
@@ -1,16 +1,46 @@
 package com.tiramisu.domain.builder;
 
+import com.tiramisu.domain.SomeFieldClassBuilder;
 import com.tiramisu.domain.SubBuilder;
+import com.tiramisu.domain.TripleSubBuilder;
+import com.tiramisu.domain.builder.generator.FieldDiscovery;
+import com.tiramisu.domain.builder.generator.InMemoryBuilders;
+import com.tiramisu.domain.objects.Base;
+import com.tiramisu.domain.objects.Contact;
+import com.tiramisu.domain.objects.ContactBuilder;
+import com.tiramisu.domain.objects.ImmutableSub;
+import com.tiramisu.domain.objects.Page;
+import com.tiramisu.domain.objects.SomeFieldClass;
 import com.tiramisu.domain.objects.Sub;
+import com.tiramisu.domain.objects.TripleSub;
+import com.tiramisu.domain.objects.Wide;
+import com.tiramisu.domain.objects.extended.ExtendedSub;
 import org.junit.Test;
 
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.stream.IntStream;
 
+import static java.util.Arrays.asList;
 import static java.util.Collections.singletonList;
+import static java.util.stream.Collectors.toList;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
 
 public class BuilderTest {
 
@@ -43,4 +73,433 @@ public class BuilderTest {
     assertThat(sub.getDateInBase(), is(date));
   }
 
-}
\ No newline at end of file
+  @Test
+  public void BuildManyShouldBuildNewInstancesWithCustomizedFields() {
+    // given
+    SubBuilder builder = SubBuilder.create().withThereInSub("shared");
+
+    // when
+    List<Sub> subs = builder.buildMany(3, (subBuilder, i) -> subBuilder.with(Integer.valueOf(i)));
+
+    // then
+    assertThat(subs.size(), is(3));
+    assertThat(subs.get(0), is(not(sameInstance(subs.get(1)))));
+    assertThat(subs.get(1), is(not(sameInstance(builder.build()))));
+    for (int i = 0; i < subs.size(); i++) {
+      assertThat(subs.get(i).getThere(), is("shared"));
+      assertThat(subs.get(i).getThereInBase(), is(i));
+    }
+  }
+
+  @Test
+  public void StreamShouldBuildNewInstances() {
+    // given
+    SubBuilder builder = SubBuilder.create().withHereInSub("here");
+
+    // when
+    List<Sub> subs = builder.stream().limit(2).collect(toList());
+
+    // then
+    assertThat(subs.get(0), is(not(sameInstance(subs.get(1)))));
+    assertThat(subs.get(0).getHere(), is("here"));
+    assertThat(subs.get(1).getHere(), is("here"));
+  }
+
+  @Test
+  public void ResetShouldRestoreStateOfNewBuilder() {
+    // given
+    SubBuilder builder = SubBuilder.create().withHereInSub("here");
+    Sub first = builder.build();
+
+    // when
+    builder.reset();
+    Sub second = builder.withThereInSub("there").build();
+
+    // then
+    assertThat(second, is(not(sameInstance(first))));
+    assertThat(second.getHere(), is(nullValue()));
+    assertThat(second.getThere(), is("there"));
+  }
+
+  @Test
+  public void PooledShouldReturnResetBuilderOfCurrentThread() {
+    // given
+    SubBuilder builder = SubBuilder.pooled().withHereInSub("here");
+    Sub first = builder.build();
+
+    // when
+    SubBuilder pooled = SubBuilder.pooled();
+
+    // then
+    assertThat(pooled, is(sameInstance(builder)));
+    assertThat(pooled.build(), is(not(sameInstance(first))));
+    assertThat(pooled.build().getHere(), is(nullValue()));
+  }
+
+  @Test
+  public void FrozenSpecShouldBuildFromManyThreadsAndIgnoreLaterChanges() {
+    // given
+    SubBuilder builder = SubBuilder.create().withHereInSub("here");
+    SubBuilder.SubSpec spec = builder.freeze();
+    builder.withHereInSub("changed later");
+
+    // when
+    List<Sub> subs = IntStream.range(0, 1000).parallel().mapToObj(i -> spec.build()).collect(toList());
+    Sub variant = spec.newBuilder().withThereInSub("there").build();
+
+    // then
+    assertThat(subs.stream().distinct().count(), is(1000L));
+    assertThat(subs.stream().allMatch(sub -> sub.getHere().equals("here")), is(true));
+    assertThat(variant.getHere(), is("here"));
+    assertThat(variant.getThere(), is("there"));
+  }
+
+  @Test
+  public void StartingFromShouldBuildFromCopyOfInstance() {
+    // given
+    Sub prototype = SubBuilder.create().withHereInSub("here").withThereInSub("there").build();
+    SubBuilder builder = SubBuilder.create();
+
+    // when
+    builder.startingFrom(prototype);
+    Sub variant = builder.withThereInSub("elsewhere").build();
+
+    // then
+    assertThat(variant, is(not(sameInstance(prototype))));
+    assertThat(variant.getHere(), is("here"));
+    assertThat(variant.getThere(), is("elsewhere"));
+    assertThat(prototype.getThere(), is("there"));
+  }
+
+  @Test
+  public void SpecsAndBulkBuildsShouldStartFromCopiesOfTheInstance() {
+    // given
+    Sub prototype = SubBuilder.create().withHereInSub("here").withThereInSub("there").build();
+    SubBuilder builder = SubBuilder.create();
+    builder.startingFrom(prototype);
+    builder.withThereInSub("elsewhere");
+
+    // when
+    SubBuilder.SubSpec spec = builder.freeze();
+    List<Sub> variants = new ArrayList<>(asList(spec.build(), spec.newBuilder().build()));
+    variants.addAll(builder.buildMany(2, (subBuilder, i) -> {}));
+    variants.addAll(builder.stream().limit(2).collect(toList()));
+
+    // then
+    for (Sub variant : variants) {
+      assertThat(variant, is(not(sameInstance(prototype))));
+      assertThat(variant.getHere(), is("here"));
+      assertThat(variant.getThere(), is("elsewhere"));
+    }
+    assertThat(variants.get(2), is(not(sameInstance(variants.get(3)))));
+    assertThat(prototype.getThere(), is("there"));
+  }
+
+  @Test
+  public void InMemoryBuilderShouldBeCompiledEvenIfABuilderWithTheSameNameExists() throws Exception {
+    // given
+    Object builder = InMemoryBuilders.create(Contact.class);
+    builder.getClass().getMethod("withName", String.class).invoke(builder, "name");
+    builder.getClass().getMethod("with", int.class).invoke(builder, 42);
+
+    // when
+    Contact contact = (Contact) builder.getClass().getMethod("build").invoke(builder);
+
+    // then
+    assertThat(builder.getClass().getName(), is(ContactBuilder.class.getName()));
+    assertThat(builder.getClass() == ContactBuilder.class, is(false));
+    assertThat(builder.getClass().getClassLoader() == Contact.class.getClassLoader(), is(false));
+    assertThat(contact.getName(), is("name"));
+    assertThat(contact.getAge(), is(42));
+  }
+
+  @Test
+  public void CopyOfShouldCopyFieldsOfSuperclassesInOtherPackages() throws Exception {
+    // given
+    Object builder = InMemoryBuilders.create(ExtendedSub.class);
+    builder.getClass().getMethod("withExtension", String.class).invoke(builder, "extension");
+    builder.getClass().getMethod("withHereInSub", String.class).invoke(builder, "here");
+    builder.getClass().getMethod("with", int.class).invoke(builder, 7);
+    ExtendedSub prototype = (ExtendedSub) builder.getClass().getMethod("build").invoke(builder);
+
+    // when
+    ExtendedSub copy = (ExtendedSub) builder.getClass().getMethod("copyOf", ExtendedSub.class).invoke(null, prototype);
+
+    // then
+    assertThat(copy, is(not(sameInstance(prototype))));
+    assertThat(copy.getExtension(), is("extension"));
+    assertThat(copy.getHere(), is("here"));
+    assertThat(valuesOf(copy), is(valuesOf(prototype)));
+  }
+
+  @Test
+  public void FieldLookupShouldFailForRenamedAndRetypedFields() throws Exception {
+    // given
+    Method field = SubBuilder.class.getDeclaredMethod("field", Class.class, String.class, String.class);
+    field.setAccessible(true);
+
+    // when
+    Throwable renamed = causeOf(() -> field.invoke(null, Sub.class, "renamed", "java.lang.String"));
+    Throwable retyped = causeOf(() -> field.invoke(null, Sub.class, "here", "java.lang.Integer"));
+
+    // then
+    assertThat(renamed, is(instanceOf(IllegalStateException.class)));
+    assertThat(renamed.getMessage(), containsString("Sub.renamed"));
+    assertThat(retyped, is(instanceOf(IllegalStateException.class)));
+    assertThat(retyped.getMessage(), containsString("java.lang.Integer"));
+  }
+
+  @Test
+  public void NestedBuilderShouldBeBuiltWhenParentBuilds() throws Exception {
+    // given
+    SomeFieldClassBuilder nested = SomeFieldClassBuilder.create();
+    SubBuilder builder = SubBuilder.create().with(nested);
+
+    // when
+    nested.with('x');
+    Sub sub = builder.build();
+
+    // then
+    Object fieldWithBuilder = valueOf(sub, Base.class, "fieldWithBuilder");
+    assertThat(fieldWithBuilder, is(sameInstance(nested.build())));
+    assertThat(valueOf(fieldWithBuilder, SomeFieldClass.class, "someChar"), is('x'));
+  }
+
+  @Test
+  public void DefaultsShouldFillAllFieldsReproducibly() throws Exception {
+    // when
+    TripleSub first = TripleSubBuilder.create()._withDefaults().build();
+    TripleSub second = TripleSubBuilder.create()._withDefaults().build();
+    TripleSub otherSeed = TripleSubBuilder.create()._withDefaults(RandomValues.seeded(1L)).build();
+
+    // then
+    assertThat(valuesOf(first), is(valuesOf(second)));
+    assertThat(valuesOf(first), is(not(valuesOf(otherSeed))));
+    assertThat(valuesOf(first).contains(null), is(false));
+  }
+
+  @Test
+  public void RandomFloatsShouldBeMultiplesOf2ToTheMinus24BelowOne() {
+    // given
+    RandomValues random = RandomValues.seeded(42L);
+
+    // when
+    float[] floats = new float[100_000];
+    for (int i = 0; i < floats.length; i++) {
+      floats[i] = random.nextFloat();
+    }
+
+    // then
+    for (float value : floats) {
+      assertThat(value >= 0f && value < 1f, is(true));
+      assertThat(value * 0x1.0p24f % 1f, is(0f));
+    }
+  }
+
+  @Test
+  public void ParallelFixturesShouldBeTheSameAsSequentialOnes() throws Exception {
+    // given
+    TripleSubBuilder.TripleSubSpec spec = TripleSubBuilder.create().withTriple("triple").freeze();
+
+    // when
+    List<TripleSub> parallel = Fixtures.parallelStream(spec::build, 10_000, 42L).collect(toList());
+    List<TripleSub> sequential = Fixtures.stream(spec::build, 10_000, 42L).collect(toList());
+
+    // then
+    assertThat(parallel.size(), is(10_000));
+    assertThat(parallel.stream().allMatch(tripleSub -> tripleSub.getTriple().equals("triple")), is(true));
+    for (int i = 0; i < parallel.size(); i++) {
+      assertThat(valuesOf(parallel.get(i)), is(valuesOf(sequential.get(i))));
+    }
+    assertThat(valuesOf(parallel.get(0)), is(not(valuesOf(parallel.get(1)))));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void ParallelFixturesShouldRejectNegativeCounts() {
+    Fixtures.parallelStream(TripleSubBuilder.create().freeze()::build, -1, 42L);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void SequentialFixturesShouldRejectNegativeCounts() {
+    Fixtures.stream(TripleSubBuilder.create().freeze()::build, -1, 42L);
+  }
+
+  @Test
+  public void HydrateShouldRestoreDehydratedInstancesByRange() throws Exception {
+    // given
+    TripleSub[] instances = Fixtures.stream(TripleSubBuilder.create().freeze()::build, 1_000, 42L)
+                                    .toArray(TripleSub[]::new);
+    TripleSubBuilder.TripleSubColumns columns = new TripleSubBuilder.TripleSubColumns(instances.length);
+    TripleSubBuilder.dehydrate(instances, 0, instances.length, columns);
+
+    // when
+    TripleSub[] hydrated = new TripleSub[instances.length];
+    IntStream.range(0, 10)
+             .parallel()
+             .forEach(block -> TripleSubBuilder.hydrate(columns, block * 100, block * 100 + 100, hydrated));
+    columns.longy = null;
+    TripleSub[] withoutLongy = new TripleSub[1];
+    TripleSubBuilder.hydrate(columns, 0, 1, withoutLongy);
+
+    // then
+    for (int i = 0; i < instances.length; i++) {
+      assertThat(valuesOf(hydrated[i]), is(valuesOf(instances[i])));
+    }
+    assertThat(valueOf(withoutLongy[0], TripleSub.class, "longy"), is(0L));
+    assertThat(valueOf(withoutLongy[0], TripleSub.class, "doubley"),
+               is(valueOf(instances[0], TripleSub.class, "doubley")));
+  }
+
+  @Test
+  public void ColumnsShouldBeCreatedForAFieldNamedSize() throws Exception {
+    // given
+    Class<?> builderClass = InMemoryBuilders.builderClassFor(Page.class);
+    Class<?> columnsClass = Class.forName(builderClass.getName() + "$PageColumns", true, builderClass.getClassLoader());
+    Object columns = columnsClass.getConstructor(int.class).newInstance(2);
+    columnsClass.getField("size").set(columns, new int[] {10, 20});
+    columnsClass.getField("cursor").set(columns, new String[] {"a", "b"});
+
+    // when
+    Page[] pages = new Page[2];
+    Method hydrate = builderClass.getMethod("hydrate", columnsClass, int.class, int.class, Page[].class);
+    hydrate.invoke(null, columns, 0, 2, pages);
+
+    // then
+    assertThat(((long[]) columnsClass.getField("offset").get(columns)).length, is(2));
+    assertThat(pages[1].getSize(), is(20));
+    assertThat(pages[1].getCursor(), is("b"));
+    assertThat(pages[1].getOffset(), is(0L));
+  }
+
+  @Test
+  public void BuilderOfMoreThan64FieldsShouldTrackThemInABitSet() throws Exception {
+    // given
+    Object builder = InMemoryBuilders.create(Wide.class);
+    for (int field : new int[] {0, 63, 64, 69}) {
+      builder.getClass().getMethod("withField" + field, int.class).invoke(builder, field + 100);
+    }
+    Method build = builder.getClass().getMethod("build");
+
+    // when
+    Wide wide = (Wide) build.invoke(builder);
+    builder.getClass().getMethod("reset").invoke(builder);
+    Wide afterReset = (Wide) build.invoke(builder);
+
+    // then
+    assertThat(builder.getClass().getDeclaredField("fieldsToSet").getType() == BitSet.class, is(true));
+    for (int field = 0; field < 70; field++) {
+      int expected = field == 0 || field == 63 || field == 64 || field == 69 ? field + 100 : 0;
+      assertThat(valueOf(wide, Wide.class, "field" + field), is(expected));
+      assertThat(valueOf(afterReset, Wide.class, "field" + field), is(0));
+    }
+    assertThat(wide.getField64(), is(164));
+    assertThat(afterReset, is(not(sameInstance(wide))));
+  }
+
+  @Test
+  public void ChunkedMethodsShouldCoverEveryFieldExactlyOnce() throws Exception {
+    // given
+    Class<?> builderClass = InMemoryBuilders.builderClassFor(Wide.class);
+    Class<?> columnsClass = Class.forName(builderClass.getName() + "$WideColumns", true, builderClass.getClassLoader());
+    Method build = builderClass.getMethod("build");
+    RandomValues random = RandomValues.seeded(42L);
+    List<Integer> randomInts = IntStream.range(0, 70).mapToObj(i -> random.nextInt()).sorted().collect(toList());
+    Object clearedBuilder = withEveryField(InMemoryBuilders.create(Wide.class));
+    Object resetBuilder = withEveryField(InMemoryBuilders.create(Wide.class));
+    Object defaultsBuilder = InMemoryBuilders.create(Wide.class);
+
+    // when
+    Wide built = (Wide) build.invoke(withEveryField(InMemoryBuilders.create(Wide.class)));
+    builderClass.getMethod("clear").invoke(clearedBuilder);
+    Wide cleared = (Wide) build.invoke(clearedBuilder);
+    builderClass.getMethod("reset").invoke(resetBuilder);
+    Wide afterReset = (Wide) build.invoke(resetBuilder);
+    builderClass.getMethod("_withDefaults", RandomValues.class).invoke(defaultsBuilder, RandomValues.seeded(42L));
+    Wide defaults = (Wide) build.invoke(defaultsBuilder);
+    Object columns = columnsClass.getConstructor(int.class).newInstance(2);
+    builderClass.getMethod("dehydrate", Wide[].class, int.class, int.class, columnsClass)
+                .invoke(null, new Wide[] {built, defaults}, 0, 2, columns);
+    Wide[] hydrated = new Wide[2];
+    builderClass.getMethod("hydrate", columnsClass, int.class, int.class, Wide[].class)
+                .invoke(null, columns, 0, 2, hydrated);
+
+    // then
+    assertThat(Arrays.stream(builderClass.getDeclaredMethods())
+                     .filter(method -> method.getName().startsWith("writeFieldsChunk"))
+                     .count(), is(6L));
+    List<Integer> defaultValues = new ArrayList<>();
+    for (int field = 0; field < 70; field++) {
+      String fieldName = "field" + field;
+      Object defaultValue = valueOf(defaults, Wide.class, fieldName);
+      defaultValues.add((Integer) defaultValue);
+      assertThat(valueOf(built, Wide.class, fieldName), is(field + 1));
+      assertThat(valueOf(cleared, Wide.class, fieldName), is(0));
+      assertThat(valueOf(afterReset, Wide.class, fieldName), is(0));
+      assertThat(((int[]) columnsClass.getField(fieldName).get(columns))[1], is(defaultValue));
+      assertThat(valueOf(hydrated[0], Wide.class, fieldName), is(field + 1));
+      assertThat(valueOf(hydrated[1], Wide.class, fieldName), is(defaultValue));
+    }
+    // every field takes exactly one of the first 70 random values, so no field is drawn twice or skipped
+    Collections.sort(defaultValues);
+    assertThat(defaultValues, is(randomInts));
+  }
+
+  @Test
+  public void AllArgsConstructorShouldBuildInstancesWithFinalFields() throws Exception {
+    // given
+    Object builder = InMemoryBuilders.create(ImmutableSub.class);
+    builder.getClass().getMethod("with", String.class).invoke(builder, "here");
+    builder.getClass().getMethod("with", long.class).invoke(builder, 5L);
+    Method build = builder.getClass().getMethod("build");
+
+    // when
+    ImmutableSub first = (ImmutableSub) build.invoke(builder);
+    ImmutableSub second = (ImmutableSub) build.invoke(builder);
+    ImmutableSub copy = (ImmutableSub) builder.getClass().getMethod("copyOf", ImmutableSub.class).invoke(null, first);
+
+    // then
+    assertThat(second, is(not(sameInstance(first))));
+    assertThat(first.getHere(), is("here"));
+    assertThat(first.getLongy(), is(5L));
+    assertThat(first.getList(), is(nullValue()));
+    assertThat(copy.getHere(), is("here"));
+    assertThat(copy.getLongy(), is(5L));
+  }
+
+  /** The values of all fields in the hierarchy, ordered by name, with nested objects replaced by their values. */
+  private static List<Object> valuesOf(Object instance) throws Exception {
+    List<Field> fields = new ArrayList<>(FieldDiscovery.fields(instance.getClass(), null, Collections.emptySet()));
+    fields.sort(Comparator.comparing(field -> field.getDeclaringClass().getName() + "#" + field.getName()));
+
+    List<Object> values = new ArrayList<>();
+    for (Field field : fields) {
+      Object value = valueOf(instance, field.getDeclaringClass(), field.getName());
+      values.add(value instanceof SomeFieldClass ? valuesOf(value) : value);
+    }
+    return values;
+  }
+
+  private static Object valueOf(Object instance, Class<?> declaringClass, String fieldName) throws Exception {
+    Field field = declaringClass.getDeclaredField(fieldName);
+    field.setAccessible(true);
+    return field.get(instance);
+  }
+
+  /** Sets every field of a builder of {@link Wide} to its number plus one. */
+  private static Object withEveryField(Object builder) throws Exception {
+    for (int field = 0; field < 70; field++) {
+      builder.getClass().getMethod("withField" + field, int.class).invoke(builder, field + 1);
+    }
+    return builder;
+  }
+
+  private static Throwable causeOf(Callable<?> call) throws Exception {
+    try {
+      call.call();
+      return null;
+    } catch (InvocationTargetException ex) {
+      return ex.getCause();
+    }
+  }
+
+}
@@ -0,0 +1,87 @@
+package com.tiramisu.domain.builder;
+
+import java.util.Collections;
+
+import static java.util.Arrays.asList;
+
+/**
+ * Entry point for {@link RuntimeBuilder}s. The reflective lookups for a class are done once, the first time a builder
+ * for it is requested, and the resulting {@link BuildPlan} is kept for as long as the class is loaded.
+ *
+ * <pre>{@code
+ * TripleSub tripleSub = Builders.forClass(TripleSub.class)
+ *     .set("hereInSub", "here")
+ *     .setLong("longy", 5L)
+ *     .build();
+ * }</pre>
+ */
+public final class Builders {
+
+  /** This is a utility class. */
+  private Builders() {}
+
+  private static final ClassValue<BuildPlan<?>> PLANS = new ClassValue<BuildPlan<?>>() {
+    @Override
+    protected BuildPlan<?> computeValue(Class<?> type) {
+      return BuildPlan.of(type, Object.class, Collections.emptySet());
+    }
+  };
+
+  private static final ClassValue<CopyPlan<?>> COPY_PLANS = new ClassValue<CopyPlan<?>>() {
+    @Override
+    protected CopyPlan<?> computeValue(Class<?> type) {
+      return CopyPlan.of(type);
+    }
+  };
+
+  private static final ClassValue<ThreadLocal<RuntimeBuilder<?>>> POOLS =
+      new ClassValue<ThreadLocal<RuntimeBuilder<?>>>() {
+        @Override
+        protected ThreadLocal<RuntimeBuilder<?>> computeValue(Class<?> type) {
+          return ThreadLocal.withInitial(() -> planFor(type).newBuilder());
+        }
+      };
+
+  /** @return a new builder that covers all fields in the hierarchy of {@code targetClass} */
+  public static <T> RuntimeBuilder<T> forClass(Class<T> targetClass) {
+    return planFor(targetClass).newBuilder();
+  }
+
+  /**
+   * @return the builder for {@code targetClass} that is kept for the current thread, {@link RuntimeBuilder#reset()
+   *     reset} to the state of a new builder. Every call on the same thread returns the same builder, so don't hold on
+   *     to it while calling this again.
+   */
+  @SuppressWarnings("unchecked")
+  public static <T> RuntimeBuilder<T> pooled(Class<T> targetClass) {
+    return ((RuntimeBuilder<T>) POOLS.get(targetClass).get()).reset();
+  }
+
+  /** @return the cached plan that covers all fields in the hierarchy of {@code targetClass} */
+  @SuppressWarnings("unchecked")
+  public static <T> BuildPlan<T> planFor(Class<T> targetClass) {
+    return (BuildPlan<T>) PLANS.get(targetClass);
+  }
+
+  /**
+   * Plans for a part of the hierarchy are not cached, keep the returned plan and create builders with
+   * {@link BuildPlan#newBuilder()}.
+   *
+   * @param upperBoundOfHierarchy the last class in the hierarchy whose fields are covered
+   * @param ignoredClassesInHierarchy classes whose fields are not covered
+   */
+  public static <T> BuildPlan<T> planFor(Class<T> targetClass, Class<? super T> upperBoundOfHierarchy,
+                                         Class<?>... ignoredClassesInHierarchy) {
+    return BuildPlan.of(targetClass, upperBoundOfHierarchy, asList(ignoredClassesInHierarchy));
+  }
+
+  /**
+   * Copies every instance field in the hierarchy of the prototype's class into a new instance of that class. The copy
+   * is shallow, objects referenced by {@code prototype} are shared with the copy.
+   */
+  @SuppressWarnings("unchecked")
+  public static <T> T copyOf(T prototype) {
+    CopyPlan<T> plan = (CopyPlan<T>) COPY_PLANS.get(prototype.getClass());
+    return plan.copy(prototype);
+  }
+}
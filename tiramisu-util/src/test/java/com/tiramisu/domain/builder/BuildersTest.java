@@ -0,0 +1,315 @@
+package com.tiramisu.domain.builder;
+
+import com.tiramisu.domain.objects.Sub;
+import com.tiramisu.domain.objects.TripleSub;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Arrays.asList;
+import static java.util.stream.Collectors.toList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasItems;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class BuildersTest {
+
+  @Test
+  public void RuntimeBuilderShouldBuildCorrectObject() {
+    // given
+    String hereInSub = "not really here";
+    String hereInBase = "not here either";
+    Date date = Date.from(Instant.ofEpochMilli(5L));
+
+    // when
+    TripleSub tripleSub = Builders.forClass(TripleSub.class)
+        .set("hereInSub", hereInSub)
+        .set("hereInBase", hereInBase)
+        .set("dateInBase", date)
+        .setLong("longy", 42L)
+        .setBoolean("booleany", true)
+        .set("shorty", (short) 3)
+        .build();
+
+    // then
+    assertThat(tripleSub.getHere(), is(hereInSub));
+    assertThat(tripleSub.getHereInBase(), is(hereInBase));
+    assertThat(tripleSub.getDateInBase(), is(date));
+    assertThat(tripleSub.getLongy(), is(42L));
+    assertThat(tripleSub.isBooleany(), is(true));
+    assertThat(tripleSub.getShorty(), is((short) 3));
+    assertThat(tripleSub.getThere(), is(nullValue()));
+  }
+
+  @Test
+  public void PlanShouldBeComputedOnceAndBuildersShouldCreateNewInstances() {
+    // when
+    BuildPlan<TripleSub> plan = Builders.planFor(TripleSub.class);
+    RuntimeBuilder<TripleSub> builder = plan.newBuilder().set("triple", "three");
+
+    // then
+    assertThat(Builders.planFor(TripleSub.class), is(sameInstance(plan)));
+    assertThat(builder.build(), is(not(sameInstance(builder.build()))));
+    assertThat(plan.builderFieldNames(), hasItems("hereInSub", "hereInBase", "triple", "longy"));
+  }
+
+  @Test
+  public void PlanShouldRespectUpperBoundOfHierarchy() {
+    // when
+    BuildPlan<Sub> plan = Builders.planFor(Sub.class, Sub.class);
+
+    // then
+    assertThat(plan.builderFieldNames(), hasItems("here", "there", "date", "list", "someChar"));
+    assertThat(plan.builderFieldNames().contains("hi"), is(false));
+  }
+
+  @Test
+  public void CopyOfShouldCopyAllFieldsIntoNewInstance() {
+    // given
+    TripleSub prototype = Builders.forClass(TripleSub.class)
+        .set("hereInSub", "here")
+        .set("thereInBase", 7)
+        .setLong("longy", 42L)
+        .setChar("someChar", 'c')
+        .build();
+
+    // when
+    TripleSub copy = Builders.copyOf(prototype);
+
+    // then
+    assertThat(copy, is(not(sameInstance(prototype))));
+    assertThat(copy.getHere(), is("here"));
+    assertThat(copy.getThereInBase(), is(7));
+    assertThat(copy.getLongy(), is(42L));
+    assertThat(copy.getSomeChar(), is('c'));
+  }
+
+  @Test
+  public void RuntimeBuilderStartingFromPrototypeShouldNotChangePrototype() {
+    // given
+    TripleSub prototype = Builders.forClass(TripleSub.class).set("triple", "three").setShort("shorty", (short) 1).build();
+
+    // when
+    TripleSub variant = Builders.forClass(TripleSub.class).startingFrom(prototype).setShort("shorty", (short) 2).build();
+
+    // then
+    assertThat(variant.getTriple(), is("three"));
+    assertThat(variant.getShorty(), is((short) 2));
+    assertThat(prototype.getShorty(), is((short) 1));
+  }
+
+  @Test
+  public void PooledBuilderShouldBeResetAndReused() {
+    // given
+    RuntimeBuilder<TripleSub> builder = Builders.pooled(TripleSub.class).set("triple", "three");
+
+    // when
+    RuntimeBuilder<TripleSub> pooled = Builders.pooled(TripleSub.class);
+
+    // then
+    assertThat(pooled, is(sameInstance(builder)));
+    assertThat(pooled.build().getTriple(), is(nullValue()));
+  }
+
+  @Test
+  public void FrozenSpecShouldNotChangeWithBuilder() {
+    // given
+    RuntimeBuilder<TripleSub> builder = Builders.forClass(TripleSub.class).set("triple", "three");
+
+    // when
+    BuilderSpec<TripleSub> spec = builder.freeze();
+    builder.set("triple", "four");
+
+    // then
+    assertThat(spec.build().getTriple(), is("three"));
+    assertThat(spec.build(), is(not(sameInstance(spec.build()))));
+    assertThat(spec.newBuilder().setLong("longy", 5L).build().getLongy(), is(5L));
+    assertThat(spec.newBuilder().build().getTriple(), is("three"));
+  }
+
+  @Test
+  public void PrimitiveFieldShouldRejectValuesOfOtherTypes() {
+    // given
+    RuntimeBuilder<TripleSub> builder = Builders.forClass(TripleSub.class);
+
+    // when
+    List<Throwable> exceptions = asList(exceptionOf(() -> builder.set("hi", "1")),
+                                        exceptionOf(() -> builder.set("hi", 1L)),
+                                        exceptionOf(() -> builder.set("hi", 1.5)),
+                                        exceptionOf(() -> builder.set("hi", (short) 1)),
+                                        exceptionOf(() -> builder.set("doubley", 1)),
+                                        exceptionOf(() -> builder.set("doubley", 1.5f)));
+    TripleSub tripleSub = builder.set("hi", 1).set("doubley", 1.5).build();
+
+    // then
+    exceptions.forEach(exception -> assertThat(exception, is(instanceOf(IllegalArgumentException.class))));
+    assertThat(tripleSub.getDoubley(), is(1.5));
+  }
+
+  @Test
+  public void ReferenceFieldShouldRejectValuesOfOtherTypes() {
+    // given
+    RuntimeBuilder<TripleSub> builder = Builders.forClass(TripleSub.class);
+
+    // when
+    List<Throwable> exceptions = asList(exceptionOf(() -> builder.set("triple", 42L)),
+                                        exceptionOf(() -> builder.set("noLightInTheDark", 42)),
+                                        exceptionOf(() -> builder.set("dateInBase", "2020-01-01")));
+    TripleSub tripleSub = builder.set("triple", "three").set("noLightInTheDark", 42L).set("hereInSub", null).build();
+
+    // then
+    exceptions.forEach(exception -> assertThat(exception, is(instanceOf(IllegalArgumentException.class))));
+    assertThat(tripleSub.getTriple(), is("three"));
+    assertThat(tripleSub.getNoLightInTheDark(), is(42L));
+    assertThat(tripleSub.getHere(), is(nullValue()));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void UnknownFieldNameShouldBeRejected() {
+    Builders.forClass(TripleSub.class).set("noSuchField", "value");
+  }
+
+  @Test
+  public void RowMapperShouldMapCsvWithHeader() {
+    // given
+    String csv = "triple,longy,shorty,booleany,doubley,hereInSub,hereInBase,noLightInTheDark\n"
+                 + "one,5,-3,true,2.5,\"here, in sub\",base,\n"
+                 + "\r\n"
+                 + "two,-9223372036854775808,7,FALSE,0,\"say \"\"hi\"\"\",,42\r\n";
+
+    // when
+    List<TripleSub> rows = RowMapper.streamWithHeader(TripleSub.class, new StringReader(csv), ',').collect(toList());
+
+    // then
+    assertThat(rows.size(), is(2));
+    assertThat(rows.get(0).getTriple(), is("one"));
+    assertThat(rows.get(0).getLongy(), is(5L));
+    assertThat(rows.get(0).getShorty(), is((short) -3));
+    assertThat(rows.get(0).isBooleany(), is(true));
+    assertThat(rows.get(0).getDoubley(), is(2.5));
+    assertThat(rows.get(0).getHere(), is("here, in sub"));
+    assertThat(rows.get(0).getHereInBase(), is("base"));
+    assertThat(rows.get(0).getNoLightInTheDark(), is(nullValue()));
+    assertThat(rows.get(1).getLongy(), is(Long.MIN_VALUE));
+    assertThat(rows.get(1).isBooleany(), is(false));
+    assertThat(rows.get(1).getHere(), is("say \"hi\""));
+    assertThat(rows.get(1).getHereInBase(), is(nullValue()));
+    assertThat(rows.get(1).getNoLightInTheDark(), is(42L));
+  }
+
+  @Test
+  public void RowMapperShouldSkipColumnsWithoutName() {
+    // given
+    String csv = "triple,,longy,\n"
+                 + "one,ignored,5,trailing\n";
+
+    // when
+    List<TripleSub> rows = RowMapper.streamWithHeader(TripleSub.class, new StringReader(csv), ',').collect(toList());
+
+    // then
+    assertThat(rows.size(), is(1));
+    assertThat(rows.get(0).getTriple(), is("one"));
+    assertThat(rows.get(0).getLongy(), is(5L));
+  }
+
+  @Test
+  public void RowMapperShouldCloseReaderIfHeaderFails() {
+    // given
+    AtomicInteger closes = new AtomicInteger();
+    Reader unknownColumn = new StringReader("longy,unknown\n5,6\n") {
+      @Override
+      public void close() {
+        closes.incrementAndGet();
+        super.close();
+      }
+    };
+    Reader broken = new Reader() {
+      @Override
+      public int read(char[] buffer, int offset, int length) throws IOException {
+        throw new IOException("broken");
+      }
+
+      @Override
+      public void close() {
+        closes.incrementAndGet();
+      }
+    };
+
+    // when
+    Throwable unknownException = exceptionOf(() -> RowMapper.streamWithHeader(TripleSub.class, unknownColumn, ','));
+    Throwable brokenException = exceptionOf(() -> RowMapper.streamWithHeader(TripleSub.class, broken, ','));
+
+    // then
+    assertThat(unknownException, is(instanceOf(IllegalArgumentException.class)));
+    assertThat(brokenException, is(instanceOf(UncheckedIOException.class)));
+    assertThat(closes.get(), is(2));
+  }
+
+  @Test
+  public void RowMapperShouldMapRecords() {
+    // given
+    RowMapper<TripleSub> mapper = RowMapper.forColumns(TripleSub.class, asList("longy", "hereInSub", "dateInBase"));
+    Map<String, Object> record = new HashMap<>();
+    record.put("longy", "7");
+    record.put("hereInSub", "here");
+    record.put("dateInBase", Date.from(Instant.ofEpochMilli(5L)));
+
+    // when
+    TripleSub tripleSub = mapper.map(record);
+
+    // then
+    assertThat(tripleSub.getLongy(), is(7L));
+    assertThat(tripleSub.getHere(), is("here"));
+    assertThat(tripleSub.getDateInBase(), is(Date.from(Instant.ofEpochMilli(5L))));
+  }
+
+  @Test
+  public void RowMapperShouldLeavePrimitiveFieldsAloneForNullValues() {
+    // given
+    RowMapper<TripleSub> mapper = RowMapper.forColumns(TripleSub.class, asList("longy", "hereInSub", "triple"));
+    Map<String, Object> record = new HashMap<>();
+    record.put("longy", null);
+    record.put("hereInSub", null);
+    record.put("triple", "three");
+
+    // when
+    TripleSub tripleSub = mapper.map(record);
+
+    // then
+    assertThat(tripleSub.getLongy(), is(0L));
+    assertThat(tripleSub.getHere(), is(nullValue()));
+    assertThat(tripleSub.getTriple(), is("three"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void RowMapperShouldRejectUnknownColumns() {
+    RowMapper.forColumns(TripleSub.class, asList("longy", "unknown"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void RowMapperShouldRejectMalformedNumbers() {
+    RowMapper.forColumns(TripleSub.class, asList("triple", "shorty")).map("one,70000", ',');
+  }
+
+  private static Throwable exceptionOf(Runnable call) {
+    try {
+      call.run();
+      return null;
+    } catch (RuntimeException ex) {
+      return ex;
+    }
+  }
+}
@@ -0,0 +1,117 @@
+package com.tiramisu.domain.builder;
+
+/**
+ * Parses values straight from a range of a {@link CharSequence}, so a {@link RowMapper} doesn't need a {@link String}
+ * per cell for numbers, booleans and characters.
+ */
+final class CharSequences {
+
+  /** This is a utility class. */
+  private CharSequences() {}
+
+  /** Like {@link Long#parseLong(String)}, including the overflow checks. */
+  static long parseLong(CharSequence text, int start, int end) {
+    int i = start;
+    boolean negative = false;
+    if (i < end && (text.charAt(i) == '-' || text.charAt(i) == '+')) {
+      negative = text.charAt(i) == '-';
+      i++;
+    }
+    if (i == end) {
+      throw notA("number", text, start, end);
+    }
+
+    // accumulate negatively, because Long.MIN_VALUE has no positive counterpart
+    long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+    long limitBeforeMultiplying = limit / 10;
+    long result = 0;
+    for (; i < end; i++) {
+      int digit = Character.digit(text.charAt(i), 10);
+      if (digit < 0 || result < limitBeforeMultiplying) {
+        throw notA("long", text, start, end);
+      }
+      result *= 10;
+      if (result < limit + digit) {
+        throw notA("long", text, start, end);
+      }
+      result -= digit;
+    }
+    return negative ? result : -result;
+  }
+
+  static int parseInt(CharSequence text, int start, int end) {
+    long value = parseLong(text, start, end);
+    if (value != (int) value) {
+      throw notA("int", text, start, end);
+    }
+    return (int) value;
+  }
+
+  static short parseShort(CharSequence text, int start, int end) {
+    long value = parseLong(text, start, end);
+    if (value != (short) value) {
+      throw notA("short", text, start, end);
+    }
+    return (short) value;
+  }
+
+  static byte parseByte(CharSequence text, int start, int end) {
+    long value = parseLong(text, start, end);
+    if (value != (byte) value) {
+      throw notA("byte", text, start, end);
+    }
+    return (byte) value;
+  }
+
+  /** Unlike {@link Boolean#parseBoolean(String)}, anything but {@code true} and {@code false} is rejected. */
+  static boolean parseBoolean(CharSequence text, int start, int end) {
+    if (equalsIgnoreCase(text, start, end, "true")) {
+      return true;
+    }
+    if (equalsIgnoreCase(text, start, end, "false")) {
+      return false;
+    }
+    throw new IllegalArgumentException("Not a boolean: " + text.subSequence(start, end));
+  }
+
+  static char parseChar(CharSequence text, int start, int end) {
+    if (end - start != 1) {
+      throw new IllegalArgumentException("Not a single character: " + text.subSequence(start, end));
+    }
+    return text.charAt(start);
+  }
+
+  /** Decimal numbers need a {@link String}, there is no other parser for them in the JDK. */
+  static double parseDouble(CharSequence text, int start, int end) {
+    return Double.parseDouble(text.subSequence(start, end).toString());
+  }
+
+  static float parseFloat(CharSequence text, int start, int end) {
+    return Float.parseFloat(text.subSequence(start, end).toString());
+  }
+
+  static int indexOf(CharSequence text, char c, int start, int end) {
+    for (int i = start; i < end; i++) {
+      if (text.charAt(i) == c) {
+        return i;
+      }
+    }
+    return end;
+  }
+
+  private static boolean equalsIgnoreCase(CharSequence text, int start, int end, String expected) {
+    if (end - start != expected.length()) {
+      return false;
+    }
+    for (int i = 0; i < expected.length(); i++) {
+      if (Character.toLowerCase(text.charAt(start + i)) != expected.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static NumberFormatException notA(String type, CharSequence text, int start, int end) {
+    return new NumberFormatException("Not a " + type + ": " + text.subSequence(start, end));
+  }
+}
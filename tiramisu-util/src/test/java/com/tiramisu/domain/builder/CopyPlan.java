@@ -0,0 +1,99 @@
+package com.tiramisu.domain.builder;
+
+import com.tiramisu.domain.builder.generator.FieldDiscovery;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * How to make a shallow copy of an instance: every instance field in the whole hierarchy, already looked up, made
+ * accessible and grouped by its kind, so copying an instance is a run of primitive reads and writes without boxing or
+ * checking any field types. A plan is immutable and computed once per class, see {@link Builders#copyOf(Object)}.
+ *
+ * @param <T> the class that is copied
+ */
+final class CopyPlan<T> {
+
+  private final Class<T> targetClass;
+  private final Constructor<T> constructor;
+
+  private final Field[] longFields;
+  private final Field[] intFields;
+  private final Field[] shortFields;
+  private final Field[] byteFields;
+  private final Field[] charFields;
+  private final Field[] booleanFields;
+  private final Field[] doubleFields;
+  private final Field[] floatFields;
+  private final Field[] referenceFields;
+
+  private CopyPlan(Class<T> targetClass, Set<Field> fields) {
+    this.targetClass = targetClass;
+    this.constructor = BuildPlan.noArgsConstructorOf(targetClass);
+
+    fields.forEach(field -> field.setAccessible(true));
+    this.longFields = fieldsOfType(fields, long.class);
+    this.intFields = fieldsOfType(fields, int.class);
+    this.shortFields = fieldsOfType(fields, short.class);
+    this.byteFields = fieldsOfType(fields, byte.class);
+    this.charFields = fieldsOfType(fields, char.class);
+    this.booleanFields = fieldsOfType(fields, boolean.class);
+    this.doubleFields = fieldsOfType(fields, double.class);
+    this.floatFields = fieldsOfType(fields, float.class);
+    this.referenceFields = fields.stream().filter(field -> !field.getType().isPrimitive()).toArray(Field[]::new);
+  }
+
+  /** Unlike a {@link BuildPlan}, a copy plan always covers the whole hierarchy, ignored classes included. */
+  static <T> CopyPlan<T> of(Class<T> targetClass) {
+    Set<Field> fields = FieldDiscovery.fields(targetClass, null, Collections.emptySet());
+    fields.removeIf(field -> Modifier.isStatic(field.getModifiers()));
+
+    return new CopyPlan<>(targetClass, fields);
+  }
+
+  private static Field[] fieldsOfType(Set<Field> fields, Class<?> type) {
+    return fields.stream().filter(field -> field.getType() == type).toArray(Field[]::new);
+  }
+
+  /** @return a new instance with the values of all fields of {@code prototype}; referenced objects are shared */
+  T copy(T prototype) {
+    try {
+      T copy = constructor.newInstance();
+
+      for (Field field : longFields) {
+        field.setLong(copy, field.getLong(prototype));
+      }
+      for (Field field : intFields) {
+        field.setInt(copy, field.getInt(prototype));
+      }
+      for (Field field : shortFields) {
+        field.setShort(copy, field.getShort(prototype));
+      }
+      for (Field field : byteFields) {
+        field.setByte(copy, field.getByte(prototype));
+      }
+      for (Field field : charFields) {
+        field.setChar(copy, field.getChar(prototype));
+      }
+      for (Field field : booleanFields) {
+        field.setBoolean(copy, field.getBoolean(prototype));
+      }
+      for (Field field : doubleFields) {
+        field.setDouble(copy, field.getDouble(prototype));
+      }
+      for (Field field : floatFields) {
+        field.setFloat(copy, field.getFloat(prototype));
+      }
+      for (Field field : referenceFields) {
+        field.set(copy, field.get(prototype));
+      }
+
+      return copy;
+    } catch (ReflectiveOperationException e) {
+      throw new IllegalStateException("Could not copy an instance of " + targetClass.getName(), e);
+    }
+  }
+}
@@ -0,0 +1,24 @@
+package com.tiramisu.domain.builder;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/** Emitted by {@link BuilderMetrics#recordFailedWrite} while metrics are enabled. */
+@Name("com.tiramisu.builder.FailedWrite")
+@Label("Failed Builder Write")
+@Description("A builder could not write a field via reflection")
+@Category({"Tiramisu", "Builders"})
+final class FailedWriteEvent extends Event {
+
+  @Label("Target Class")
+  Class<?> targetClass;
+
+  @Label("Field")
+  String field;
+
+  @Label("Exception")
+  String exception;
+}
@@ -0,0 +1,103 @@
+package com.tiramisu.domain.builder;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Streams of many random instances, e.g. to fill a test database. Element {@code i} of a stream is created from
+ * {@link RandomValues#forIndex(long, long) RandomValues.forIndex(seed, i)}, so a seed always gives the same elements
+ * in the same order, whether the stream is sequential or parallel and however the fork-join pool splits it.
+ *
+ * <pre>{@code
+ * TripleSubBuilder.TripleSubSpec spec = TripleSubBuilder.create().withTriple("triple").freeze();
+ * List<TripleSub> dataset = Fixtures.parallelStream(spec::build, 1_000_000, 42L).collect(toList());
+ * }</pre>
+ */
+public final class Fixtures {
+
+  /** This is a utility class. */
+  private Fixtures() {}
+
+  /**
+   * @param fixture creates an instance from the random values of its index. It is called from several threads at
+   *     once, e.g. the {@code build(RandomValues)} method of a frozen builder spec.
+   * @return a parallel stream of {@code count} instances
+   * @throws IllegalArgumentException if {@code count} is negative
+   */
+  public static <T> Stream<T> parallelStream(Function<RandomValues, ? extends T> fixture, long count, long seed) {
+    return StreamSupport.stream(spliterator(fixture, count, seed), true);
+  }
+
+  /**
+   * @return the same instances as {@link #parallelStream}, created one after another on the calling thread
+   * @throws IllegalArgumentException if {@code count} is negative
+   */
+  public static <T> Stream<T> stream(Function<RandomValues, ? extends T> fixture, long count, long seed) {
+    return StreamSupport.stream(spliterator(fixture, count, seed), false);
+  }
+
+  /** A negative count would give a {@code SIZED} spliterator with a negative size, which breaks e.g. toArray. */
+  private static <T> Spliterator<T> spliterator(Function<RandomValues, ? extends T> fixture, long count, long seed) {
+    if (count < 0) {
+      throw new IllegalArgumentException("The count of instances can't be negative: " + count);
+    }
+    return new IndexSpliterator<>(fixture, seed, 0L, count);
+  }
+
+  /** Splits its range of indexes in halves, like the spliterator of {@code LongStream.range}. */
+  private static final class IndexSpliterator<T> implements Spliterator<T> {
+
+    private final Function<RandomValues, ? extends T> fixture;
+    private final long seed;
+    private long index;
+    private final long fence;
+
+    private IndexSpliterator(Function<RandomValues, ? extends T> fixture, long seed, long index, long fence) {
+      this.fixture = fixture;
+      this.seed = seed;
+      this.index = index;
+      this.fence = fence;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+      if (index >= fence) {
+        return false;
+      }
+      action.accept(fixture.apply(RandomValues.forIndex(seed, index++)));
+      return true;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super T> action) {
+      for (long i = index; i < fence; i++) {
+        action.accept(fixture.apply(RandomValues.forIndex(seed, i)));
+      }
+      index = fence;
+    }
+
+    @Override
+    public Spliterator<T> trySplit() {
+      long middle = (index + fence) >>> 1;
+      if (middle <= index) {
+        return null;
+      }
+      Spliterator<T> prefix = new IndexSpliterator<>(fixture, seed, index, middle);
+      index = middle;
+      return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+      return fence - index;
+    }
+
+    @Override
+    public int characteristics() {
+      return ORDERED | SIZED | SUBSIZED | IMMUTABLE;
+    }
+  }
+}
@@ -0,0 +1,112 @@
+package com.tiramisu.domain.builder;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * Reads lines into a reused buffer instead of a new {@link String} per line. The buffer only grows to hold the longest
+ * line, so memory stays bounded no matter how large the input is. Lines end at {@code \n}, {@code \r} or
+ * {@code \r\n}.
+ */
+final class LineReader implements Closeable {
+
+  private static final int INITIAL_BUFFER_SIZE = 8192;
+
+  private final Reader reader;
+  private final Line line = new Line();
+  private char[] buffer = new char[INITIAL_BUFFER_SIZE];
+  private int position;
+  private int limit;
+  private boolean skipLineFeed;
+
+  LineReader(Reader reader) {
+    this.reader = reader;
+  }
+
+  /**
+   * @return the next line without its terminator, or {@code null} at the end of the input. The line is only valid
+   *     until the next call, use {@code toString()} to keep it.
+   */
+  CharSequence nextLine() throws IOException {
+    int scan = position;
+    while (true) {
+      while (scan < limit) {
+        char c = buffer[scan];
+        if (skipLineFeed) {
+          skipLineFeed = false;
+          if (c == '\n') {
+            position = ++scan;
+            continue;
+          }
+        }
+        if (c == '\n' || c == '\r') {
+          line.start = position;
+          line.end = scan;
+          skipLineFeed = c == '\r';
+          position = scan + 1;
+          return line;
+        }
+        scan++;
+      }
+
+      if (position > 0) {
+        System.arraycopy(buffer, position, buffer, 0, limit - position);
+        scan -= position;
+        limit -= position;
+        position = 0;
+      }
+      if (limit == buffer.length) {
+        buffer = Arrays.copyOf(buffer, buffer.length * 2);
+      }
+
+      int read = reader.read(buffer, limit, buffer.length - limit);
+      if (read < 0) {
+        if (position == limit) {
+          return null;
+        }
+        line.start = position;
+        line.end = limit;
+        position = limit;
+        return line;
+      }
+      limit += read;
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    reader.close();
+  }
+
+  /** A view of the current line in the buffer. */
+  private final class Line implements CharSequence {
+
+    private int start;
+    private int end;
+
+    @Override
+    public int length() {
+      return end - start;
+    }
+
+    @Override
+    public char charAt(int index) {
+      if (index < 0 || index >= end - start) {
+        throw new IndexOutOfBoundsException("index " + index + ", length " + (end - start));
+      }
+      return buffer[start + index];
+    }
+
+    @Override
+    public CharSequence subSequence(int from, int to) {
+      return new String(buffer, start + from, to - from);
+    }
+
+    @Override
+    public String toString() {
+      return new String(buffer, start, end - start);
+    }
+  }
+}
@@ -0,0 +1,100 @@
+package com.tiramisu.domain.builder;
+
+import java.lang.reflect.Field;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A field of a {@link BuildPlan}: the accessible {@link Field} together with the name the builder uses for it.
+ * Primitive values are passed around as the raw bits of the value in a {@code long} so they don't have to be boxed.
+ */
+final class PlannedField {
+
+  private static final Map<Class<?>, Class<?>> WRAPPER_TYPES = new HashMap<>();
+
+  static {
+    WRAPPER_TYPES.put(long.class, Long.class);
+    WRAPPER_TYPES.put(int.class, Integer.class);
+    WRAPPER_TYPES.put(double.class, Double.class);
+    WRAPPER_TYPES.put(boolean.class, Boolean.class);
+    WRAPPER_TYPES.put(float.class, Float.class);
+    WRAPPER_TYPES.put(short.class, Short.class);
+    WRAPPER_TYPES.put(byte.class, Byte.class);
+    WRAPPER_TYPES.put(char.class, Character.class);
+  }
+
+  private final Field field;
+  private final String builderFieldName;
+  private final Class<?> type;
+
+  PlannedField(Field field, String builderFieldName) {
+    this.field = field;
+    this.builderFieldName = builderFieldName;
+    this.type = field.getType();
+  }
+
+  Field field() {
+    return field;
+  }
+
+  String builderFieldName() {
+    return builderFieldName;
+  }
+
+  Class<?> type() {
+    return type;
+  }
+
+  boolean isPrimitive() {
+    return type.isPrimitive();
+  }
+
+  /** Writes {@code reference} if the field has a reference type, otherwise the primitive value encoded in {@code bits}. */
+  void write(Object target, Object reference, long bits) throws IllegalAccessException {
+    if (type == long.class) {
+      field.setLong(target, bits);
+    } else if (type == int.class) {
+      field.setInt(target, (int) bits);
+    } else if (type == double.class) {
+      field.setDouble(target, Double.longBitsToDouble(bits));
+    } else if (type == boolean.class) {
+      field.setBoolean(target, bits != 0);
+    } else if (type == float.class) {
+      field.setFloat(target, Float.intBitsToFloat((int) bits));
+    } else if (type == short.class) {
+      field.setShort(target, (short) bits);
+    } else if (type == byte.class) {
+      field.setByte(target, (byte) bits);
+    } else if (type == char.class) {
+      field.setChar(target, (char) bits);
+    } else {
+      field.set(target, reference);
+    }
+  }
+
+  /**
+   * @return the bits of a boxed value of this field's primitive type, as {@link #write} expects them
+   * @throws IllegalArgumentException if {@code boxedValue} is {@code null} or not of the wrapper type of the field, so
+   *     e.g. a {@link Long} isn't narrowed for an {@code int} field
+   */
+  long bitsOf(Object boxedValue) {
+    if (boxedValue == null) {
+      throw new IllegalArgumentException("Field " + builderFieldName + " is primitive and can't be set to null");
+    }
+    if (boxedValue.getClass() != WRAPPER_TYPES.get(type)) {
+      throw new IllegalArgumentException(
+          "Field " + builderFieldName + " is of type " + type.getName() + ", not " + boxedValue.getClass());
+    }
+    if (type == double.class) {
+      return Double.doubleToRawLongBits((Double) boxedValue);
+    } else if (type == float.class) {
+      return Float.floatToRawIntBits((Float) boxedValue);
+    } else if (type == boolean.class) {
+      return (Boolean) boxedValue ? 1 : 0;
+    } else if (type == char.class) {
+      return (Character) boxedValue;
+    } else {
+      return ((Number) boxedValue).longValue();
+    }
+  }
+}
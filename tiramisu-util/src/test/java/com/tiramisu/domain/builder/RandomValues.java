@@ -0,0 +1,144 @@
+package com.tiramisu.domain.builder;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.Supplier;
+
+/**
+ * Random field values for the {@code _withDefaults} methods of generated builders. The values come from a
+ * {@link SplittableRandom}, so the same seed always gives the same values, and primitives are returned as primitives,
+ * so filling primitive fields doesn't box anything.<br /><br />
+ *
+ * An instance is not thread-safe. To fill builders on several threads, give each thread its own instance from
+ * {@link #split()} or from {@link #seeded(long)} with a seed per thread.
+ *
+ * <pre>{@code
+ * RandomValues random = RandomValues.seeded(7L);
+ * List<TripleSub> dataset = TripleSubBuilder.create().buildMany(1_000, (builder, i) -> builder._withDefaults(random));
+ * }</pre>
+ */
+public final class RandomValues {
+
+  /** The seed of {@code _withDefaults()}, {@code -Dtiramisu.builder.seed=<seed>} changes it to reproduce a dataset. */
+  public static final long DEFAULT_SEED = Long.getLong("tiramisu.builder.seed", 0x7153a715L);
+
+  private static final char[] ALPHANUMERICS =
+      "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz".toCharArray();
+
+  private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+  private static final int STRING_LENGTH = 12;
+  private static final int MAX_LIST_SIZE = 4;
+
+  /** Dates and times are spread over 1970 to 2039, the range of {@code 2^41} milliseconds. */
+  private static final long DATE_RANGE_MILLIS = 1L << 41;
+
+  private final SplittableRandom random;
+
+  private RandomValues(SplittableRandom random) {
+    this.random = random;
+  }
+
+  public static RandomValues seeded(long seed) {
+    return new RandomValues(new SplittableRandom(seed));
+  }
+
+  /**
+   * @return the random values of element {@code index} of a dataset with {@code seed}. They only depend on the seed
+   *     and the index, so a dataset is the same no matter which thread creates which element.
+   */
+  public static RandomValues forIndex(long seed, long index) {
+    return seeded(mix(seed + index * GOLDEN_GAMMA));
+  }
+
+  /** The finalizer of SplitMix64, so seeds of neighbouring indexes don't give correlated values. */
+  private static long mix(long z) {
+    z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+    z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+    return z ^ (z >>> 31);
+  }
+
+  /** @return a new instance whose values don't overlap with this one's, for use by another thread */
+  public RandomValues split() {
+    return new RandomValues(random.split());
+  }
+
+  public boolean nextBoolean() {
+    return random.nextBoolean();
+  }
+
+  public byte nextByte() {
+    return (byte) random.nextInt();
+  }
+
+  public short nextShort() {
+    return (short) random.nextInt();
+  }
+
+  public int nextInt() {
+    return random.nextInt();
+  }
+
+  public long nextLong() {
+    return random.nextLong();
+  }
+
+  /** @return a letter or a digit, so the value is readable in test output */
+  public char nextChar() {
+    return ALPHANUMERICS[random.nextInt(ALPHANUMERICS.length)];
+  }
+
+  /**
+   * @return one of the {@code 2^24} floats in {@code [0, 1)} that are multiples of {@code 2^-24}. Rounding
+   *     {@link #nextDouble()} to a float could return 1.
+   */
+  public float nextFloat() {
+    return (random.nextInt() >>> 8) * 0x1.0p-24f;
+  }
+
+  public double nextDouble() {
+    return random.nextDouble();
+  }
+
+  /** @return a string of {@value #STRING_LENGTH} letters and digits */
+  public String nextString() {
+    char[] chars = new char[STRING_LENGTH];
+    for (int i = 0; i < chars.length; i++) {
+      chars[i] = nextChar();
+    }
+    return new String(chars);
+  }
+
+  public Date nextDate() {
+    return new Date(random.nextLong(DATE_RANGE_MILLIS));
+  }
+
+  public Instant nextInstant() {
+    return Instant.ofEpochMilli(random.nextLong(DATE_RANGE_MILLIS));
+  }
+
+  /** @return a time in UTC, so the value doesn't depend on the default time zone */
+  public ZonedDateTime nextZonedDateTime() {
+    return nextInstant().atZone(ZoneOffset.UTC);
+  }
+
+  /** @return a mutable list of up to {@value #MAX_LIST_SIZE} elements from {@code elements} */
+  public <T> List<T> nextList(Supplier<? extends T> elements) {
+    int size = random.nextInt(MAX_LIST_SIZE + 1);
+    List<T> list = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      list.add(elements.get());
+    }
+    return list;
+  }
+
+  public <E extends Enum<E>> E nextEnum(Class<E> enumClass) {
+    E[] constants = enumClass.getEnumConstants();
+    return constants[random.nextInt(constants.length)];
+  }
+}
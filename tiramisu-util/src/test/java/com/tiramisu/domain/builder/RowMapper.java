@@ -0,0 +1,363 @@
+package com.tiramisu.domain.builder;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Maps delimited rows (CSV, TSV, ...) and {@link Map}-shaped records to new instances. The columns are bound to the
+ * fields of a {@link BuildPlan} once, by the names a generated builder uses for them (e.g. {@code hereInSub} and
+ * {@code hereInBase}), so mapping a row is a run of writes through the plan's accessible fields. Primitive fields and
+ * integral wrapper fields are parsed straight from the row, without a {@link String} per cell.<br /><br />
+ *
+ * Cells may be quoted with {@code "}, a quote in a quoted cell is written as {@code ""}. Quoted cells can't span lines.
+ * An empty cell sets a reference field to {@code null} and leaves a primitive field alone. A mapper is immutable and
+ * can be shared between threads.
+ *
+ * <pre>{@code
+ * try (Stream<TripleSub> rows = RowMapper.streamWithHeader(TripleSub.class, new FileReader(csv), ',')) {
+ *   rows.forEach(repository::save);
+ * }
+ * }</pre>
+ *
+ * @param <T> the class that is mapped to
+ */
+public final class RowMapper<T> {
+
+  private static final char QUOTE = '"';
+
+  private final BuildPlan<T> plan;
+  private final Column[] columns;
+
+  private RowMapper(BuildPlan<T> plan, Collection<String> columnNames) {
+    this.plan = plan;
+    this.columns = columnNames.stream()
+                              .map(name -> name == null ? null : new Column(plan.field(plan.indexOf(name))))
+                              .toArray(Column[]::new);
+  }
+
+  /**
+   * @param columnNames the builder field name of each column in order, {@code null} for a column that is skipped
+   * @throws IllegalArgumentException if there is no field for a column or if its type can't be parsed
+   */
+  public static <T> RowMapper<T> forColumns(Class<T> targetClass, Collection<String> columnNames) {
+    return forColumns(Builders.planFor(targetClass), columnNames);
+  }
+
+  /** @see #forColumns(Class, Collection) */
+  public static <T> RowMapper<T> forColumns(BuildPlan<T> plan, Collection<String> columnNames) {
+    return new RowMapper<>(plan, columnNames);
+  }
+
+  /**
+   * Like {@link #stream(Reader, char)}, but the column names are read from the first line of {@code reader}. Columns
+   * without a name, e.g. after a trailing delimiter, are skipped. If the header can't be read or mapped,
+   * {@code reader} is closed before the exception is thrown.
+   *
+   * @throws IllegalArgumentException if there is no field for a column or if its type can't be parsed
+   * @throws UncheckedIOException if the header can't be read
+   */
+  public static <T> Stream<T> streamWithHeader(Class<T> targetClass, Reader reader, char delimiter) {
+    LineReader lines = new LineReader(reader);
+    try {
+      CharSequence header = nextLine(lines);
+
+      List<String> columnNames = new ArrayList<>();
+      if (header != null) {
+        int length = header.length();
+        for (int start = 0; start <= length; start++) {
+          int end = endOfCell(header, start, length, delimiter);
+          String columnName = textOf(header, start, end);
+          columnNames.add(columnName.isEmpty() ? null : columnName);
+          start = end;
+        }
+      }
+      return forColumns(targetClass, columnNames).stream(lines, delimiter);
+    } catch (RuntimeException e) {
+      try {
+        lines.close();
+      } catch (IOException closeFailure) {
+        e.addSuppressed(closeFailure);
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * Maps the lines of {@code reader} to new instances while the stream is consumed, blank lines are skipped. Only the
+   * current line is kept in memory, in a buffer that is reused for every line. Closing the stream closes
+   * {@code reader}.
+   */
+  public Stream<T> stream(Reader reader, char delimiter) {
+    return stream(new LineReader(reader), delimiter);
+  }
+
+  private Stream<T> stream(LineReader lines, char delimiter) {
+    Spliterator<T> rows = new Spliterators.AbstractSpliterator<T>(Long.MAX_VALUE,
+                                                                  Spliterator.ORDERED | Spliterator.NONNULL) {
+      @Override
+      public boolean tryAdvance(Consumer<? super T> action) {
+        CharSequence line = nextLine(lines);
+        while (line != null && line.length() == 0) {
+          line = nextLine(lines);
+        }
+        if (line == null) {
+          return false;
+        }
+        action.accept(map(line, delimiter));
+        return true;
+      }
+    };
+
+    return StreamSupport.stream(rows, false).onClose(() -> {
+      try {
+        lines.close();
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    });
+  }
+
+  private static CharSequence nextLine(LineReader lines) {
+    try {
+      return lines.nextLine();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * @return a new instance with the cells of {@code row}, which is split at {@code delimiter}. Cells after the last
+   *     column are ignored.
+   * @throws IllegalArgumentException if the row has fewer cells than columns or if a cell can't be parsed
+   */
+  public T map(CharSequence row, char delimiter) {
+    T instance = plan.newInstance();
+    int length = row.length();
+    int start = 0;
+
+    for (int i = 0; i < columns.length; i++) {
+      if (start > length) {
+        throw new IllegalArgumentException("Expected " + columns.length + " cells but got " + i + ": " + row);
+      }
+      int end = endOfCell(row, start, length, delimiter);
+      if (columns[i] != null) {
+        writeCell(columns[i], instance, row, start, end);
+      }
+      start = end + 1;
+    }
+    return instance;
+  }
+
+  /**
+   * @return a new instance with the values of {@code record} for the columns of this mapper. Text is parsed like the
+   *     cells of a row, other values are written as they are. Columns that {@code record} has no key for are left
+   *     alone, and so are primitive fields whose value is {@code null}, like for an empty cell.
+   */
+  public T map(Map<String, ?> record) {
+    T instance = plan.newInstance();
+
+    for (Column column : columns) {
+      if (column == null) {
+        continue;
+      }
+      Object value = record.get(column.name());
+      if (value != null || record.containsKey(column.name())) {
+        column.write(instance, value);
+      }
+    }
+    return instance;
+  }
+
+  /** @return the index of the delimiter after the cell that starts at {@code start}, or the length of the row */
+  private static int endOfCell(CharSequence row, int start, int length, char delimiter) {
+    if (start >= length || row.charAt(start) != QUOTE) {
+      return CharSequences.indexOf(row, delimiter, start, length);
+    }
+
+    for (int i = start + 1; i < length; i++) {
+      if (row.charAt(i) == QUOTE) {
+        if (i + 1 < length && row.charAt(i + 1) == QUOTE) {
+          i++;
+        } else if (i + 1 < length && row.charAt(i + 1) != delimiter) {
+          throw new IllegalArgumentException("Unexpected text after the quoted cell at " + start + ": " + row);
+        } else {
+          return i + 1;
+        }
+      }
+    }
+    throw new IllegalArgumentException("Unterminated quote at " + start + ": " + row);
+  }
+
+  /** Only quoted cells that contain quotes need a new string, other cells are parsed where they are. */
+  private static void writeCell(Column column, Object instance, CharSequence row, int start, int end) {
+    if (start == end || row.charAt(start) != QUOTE) {
+      column.write(instance, row, start, end);
+    } else if (CharSequences.indexOf(row, QUOTE, start + 1, end - 1) == end - 1) {
+      column.write(instance, row, start + 1, end - 1);
+    } else {
+      String unquoted = textOf(row, start, end);
+      column.write(instance, unquoted, 0, unquoted.length());
+    }
+  }
+
+  private static String textOf(CharSequence row, int start, int end) {
+    if (start == end || row.charAt(start) != QUOTE) {
+      return row.subSequence(start, end).toString();
+    }
+    return row.subSequence(start + 1, end - 1).toString().replace("\"\"", "\"");
+  }
+
+  /** Parses the text of a cell for a field with a reference type. */
+  private interface CellParser {
+    Object parse(CharSequence text, int start, int end);
+  }
+
+  /** A field of the plan together with the parser for its type, which is picked once when the column is bound. */
+  private static final class Column {
+
+    private final PlannedField field;
+    private final CellParser parser;
+
+    Column(PlannedField field) {
+      this.field = field;
+      this.parser = field.isPrimitive() ? null : parserFor(field.type());
+
+      if (!field.isPrimitive() && parser == null) {
+        throw new IllegalArgumentException("Can't parse values of " + field.builderFieldName() + ", it is a "
+                                           + field.type().getName());
+      }
+    }
+
+    String name() {
+      return field.builderFieldName();
+    }
+
+    void write(Object instance, CharSequence text, int start, int end) {
+      try {
+        if (!field.isPrimitive()) {
+          field.write(instance, start == end ? null : parser.parse(text, start, end), 0L);
+        } else if (start < end) {
+          field.write(instance, null, bitsOf(text, start, end));
+        }
+      } catch (IllegalAccessException e) {
+        throw new IllegalStateException(e); // the fields of a plan are accessible
+      } catch (RuntimeException e) {
+        throw new IllegalArgumentException("Can't write " + text.subSequence(start, end) + " to " + name(), e);
+      }
+    }
+
+    void write(Object instance, Object value) {
+      if (value == null && field.isPrimitive()) {
+        return;
+      }
+      if (value instanceof CharSequence && !field.type().isInstance(value)) {
+        CharSequence text = (CharSequence) value;
+        write(instance, text, 0, text.length());
+        return;
+      }
+
+      try {
+        if (field.isPrimitive()) {
+          field.write(instance, null, field.bitsOf(value));
+        } else {
+          field.write(instance, value, 0L);
+        }
+      } catch (IllegalAccessException e) {
+        throw new IllegalStateException(e); // the fields of a plan are accessible
+      }
+    }
+
+    /** @return the bits of the primitive value, as {@link PlannedField#write} expects them */
+    private long bitsOf(CharSequence text, int start, int end) {
+      Class<?> type = field.type();
+
+      if (type == long.class) {
+        return CharSequences.parseLong(text, start, end);
+      } else if (type == int.class) {
+        return CharSequences.parseInt(text, start, end);
+      } else if (type == double.class) {
+        return Double.doubleToRawLongBits(CharSequences.parseDouble(text, start, end));
+      } else if (type == boolean.class) {
+        return CharSequences.parseBoolean(text, start, end) ? 1 : 0;
+      } else if (type == float.class) {
+        return Float.floatToRawIntBits(CharSequences.parseFloat(text, start, end));
+      } else if (type == short.class) {
+        return CharSequences.parseShort(text, start, end);
+      } else if (type == byte.class) {
+        return CharSequences.parseByte(text, start, end);
+      } else {
+        return CharSequences.parseChar(text, start, end);
+      }
+    }
+
+    /** @return the parser for values of {@code type}, or {@code null} if there is none */
+    private static CellParser parserFor(Class<?> type) {
+      if (type.isAssignableFrom(String.class)) {
+        return (text, start, end) -> text.subSequence(start, end).toString();
+      }
+      if (type == Long.class) {
+        return (text, start, end) -> CharSequences.parseLong(text, start, end);
+      }
+      if (type == Integer.class) {
+        return (text, start, end) -> CharSequences.parseInt(text, start, end);
+      }
+      if (type == Short.class) {
+        return (text, start, end) -> CharSequences.parseShort(text, start, end);
+      }
+      if (type == Byte.class) {
+        return (text, start, end) -> CharSequences.parseByte(text, start, end);
+      }
+      if (type == Character.class) {
+        return (text, start, end) -> CharSequences.parseChar(text, start, end);
+      }
+      if (type == Boolean.class) {
+        return (text, start, end) -> CharSequences.parseBoolean(text, start, end);
+      }
+      if (type == Double.class) {
+        return (text, start, end) -> CharSequences.parseDouble(text, start, end);
+      }
+      if (type == Float.class) {
+        return (text, start, end) -> CharSequences.parseFloat(text, start, end);
+      }
+      if (type == BigDecimal.class) {
+        return (text, start, end) -> new BigDecimal(text.subSequence(start, end).toString());
+      }
+      if (type.isEnum()) {
+        return (text, start, end) -> enumValueOf(type, text.subSequence(start, end).toString());
+      }
+      if (type == Date.class) {
+        return (text, start, end) -> Date.from(Instant.parse(text.subSequence(start, end)));
+      }
+      if (type == Instant.class) {
+        return (text, start, end) -> Instant.parse(text.subSequence(start, end));
+      }
+      if (type == LocalDate.class) {
+        return (text, start, end) -> LocalDate.parse(text.subSequence(start, end));
+      }
+      if (type == ZonedDateTime.class) {
+        return (text, start, end) -> ZonedDateTime.parse(text.subSequence(start, end));
+      }
+      return null;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Object enumValueOf(Class<?> enumClass, String name) {
+      return Enum.valueOf((Class) enumClass, name);
+    }
+  }
+}
@@ -0,0 +1,163 @@
+package com.tiramisu.domain.builder;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * A builder for classes that no builder has been generated for. Values are set by the names that a generated builder
+ * would use for its fields (e.g. {@code hereInSub} and {@code hereInBase}). Primitive values can be set with the typed
+ * methods like {@link #setLong(String, long)} to avoid boxing them.<br /><br />
+ *
+ * Like a generated builder, this only sets the fields that a value was set for. Unlike a generated builder, every call
+ * to {@link #build()} creates a new instance.
+ *
+ * @param <T> the class that is built
+ * @see Builders#forClass(Class)
+ */
+public final class RuntimeBuilder<T> {
+
+  private final BuildPlan<T> plan;
+  private final Object[] references;
+  private final long[] primitives;
+  private final BitSet fieldsToSet;
+  private T prototype;
+
+  RuntimeBuilder(BuildPlan<T> plan) {
+    this.plan = plan;
+    this.references = new Object[plan.numberOfFields()];
+    this.primitives = new long[plan.numberOfFields()];
+    this.fieldsToSet = new BitSet(plan.numberOfFields());
+  }
+
+  private RuntimeBuilder(RuntimeBuilder<T> builder) {
+    this.plan = builder.plan;
+    this.references = builder.references.clone();
+    this.primitives = builder.primitives.clone();
+    this.fieldsToSet = (BitSet) builder.fieldsToSet.clone();
+    this.prototype = builder.prototype;
+  }
+
+  /**
+   * Sets a field of any type; values for primitive fields are unboxed.
+   *
+   * @throws IllegalArgumentException if {@code value} is not of the type of the field, or {@code null} for a primitive
+   *     field
+   */
+  public RuntimeBuilder<T> set(String builderFieldName, Object value) {
+    int index = plan.indexOf(builderFieldName);
+    PlannedField field = plan.field(index);
+
+    if (field.isPrimitive()) {
+      primitives[index] = field.bitsOf(value);
+    } else if (value != null && !field.type().isInstance(value)) {
+      throw new IllegalArgumentException(
+          "Field " + builderFieldName + " is of type " + field.type().getName() + ", not " + value.getClass());
+    } else {
+      references[index] = value;
+    }
+    fieldsToSet.set(index);
+    return this;
+  }
+
+  public RuntimeBuilder<T> setLong(String builderFieldName, long value) {
+    return setPrimitive(builderFieldName, long.class, value);
+  }
+
+  public RuntimeBuilder<T> setInt(String builderFieldName, int value) {
+    return setPrimitive(builderFieldName, int.class, value);
+  }
+
+  public RuntimeBuilder<T> setShort(String builderFieldName, short value) {
+    return setPrimitive(builderFieldName, short.class, value);
+  }
+
+  public RuntimeBuilder<T> setByte(String builderFieldName, byte value) {
+    return setPrimitive(builderFieldName, byte.class, value);
+  }
+
+  public RuntimeBuilder<T> setChar(String builderFieldName, char value) {
+    return setPrimitive(builderFieldName, char.class, value);
+  }
+
+  public RuntimeBuilder<T> setBoolean(String builderFieldName, boolean value) {
+    return setPrimitive(builderFieldName, boolean.class, value ? 1 : 0);
+  }
+
+  public RuntimeBuilder<T> setDouble(String builderFieldName, double value) {
+    return setPrimitive(builderFieldName, double.class, Double.doubleToRawLongBits(value));
+  }
+
+  public RuntimeBuilder<T> setFloat(String builderFieldName, float value) {
+    return setPrimitive(builderFieldName, float.class, Float.floatToRawIntBits(value));
+  }
+
+  private RuntimeBuilder<T> setPrimitive(String builderFieldName, Class<?> type, long bits) {
+    int index = plan.indexOf(builderFieldName);
+
+    if (plan.field(index).type() != type) {
+      throw new IllegalArgumentException(
+          "Field " + builderFieldName + " is of type " + plan.field(index).type().getName() + ", not " + type);
+    }
+    primitives[index] = bits;
+    fieldsToSet.set(index);
+    return this;
+  }
+
+  /**
+   * Makes {@link #build()} start from a copy of {@code prototype} instead of a new instance, so the fields that no
+   * value was set for keep the values of the prototype. The prototype itself is never changed. {@code null} makes the
+   * builder start from new instances again.
+   *
+   * @see Builders#copyOf(Object)
+   */
+  public RuntimeBuilder<T> startingFrom(T prototype) {
+    this.prototype = prototype;
+    return this;
+  }
+
+  /**
+   * Puts the builder back into the state it had when it was created: no field is set and there is no prototype. This
+   * doesn't allocate anything.
+   */
+  public RuntimeBuilder<T> reset() {
+    fieldsToSet.clear();
+    Arrays.fill(references, null);
+    prototype = null;
+    return this;
+  }
+
+  /**
+   * @return an immutable snapshot of the values set so far, which can be shared between threads. Changing this builder
+   *     afterwards doesn't change the spec.
+   */
+  public BuilderSpec<T> freeze() {
+    return new BuilderSpec<>(copy());
+  }
+
+  RuntimeBuilder<T> copy() {
+    return new RuntimeBuilder<>(this);
+  }
+
+  /** @return a new instance (or copy of the prototype) with all fields set that a value was set for */
+  public T build() {
+    T result = prototype == null ? plan.newInstance() : Builders.copyOf(prototype);
+    long startNanos = BuilderMetrics.ENABLED ? System.nanoTime() : 0L;
+
+    for (int index = fieldsToSet.nextSetBit(0); index >= 0; index = fieldsToSet.nextSetBit(index + 1)) {
+      PlannedField field = plan.field(index);
+      try {
+        field.write(result, references[index], primitives[index]);
+      } catch (IllegalAccessException e) {
+        if (BuilderMetrics.ENABLED) {
+          BuilderMetrics.recordFailedWrite(plan.targetClass(), field.field(), e);
+        }
+        throw new IllegalStateException("Could not set " + field.builderFieldName(), e);
+      }
+    }
+
+    if (BuilderMetrics.ENABLED) {
+      BuilderMetrics.recordBuild(plan.targetClass(), startNanos, fieldsToSet.cardinality(), 0);
+    }
+    return result;
+  }
+}
@@ -0,0 +1,130 @@
+package com.tiramisu.domain.builder.generator;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The fingerprints of the builders generated by the last run of the {@link BuilderGenerator}, keyed by the qualified
+ * name of the builder. They are kept in a properties file, which is read once at the start of a run and written once
+ * at its end; in between, the builders of a batch run may read and update them concurrently.
+ */
+final class BuilderFingerprints {
+
+  private final File file;
+  private final Map<String, String> fingerprints = new ConcurrentHashMap<>();
+
+  private BuilderFingerprints(File file) {
+    this.file = file;
+  }
+
+  /** @return the fingerprints stored in {@code file}, or none if the file doesn't exist or can't be read */
+  static BuilderFingerprints load(File file) {
+    BuilderFingerprints builderFingerprints = new BuilderFingerprints(file);
+
+    if (file.exists()) {
+      Properties properties = new Properties();
+      try (InputStream in = new FileInputStream(file)) {
+        properties.load(in);
+        properties.stringPropertyNames().forEach(name ->
+            builderFingerprints.fingerprints.put(name, properties.getProperty(name)));
+      } catch (IOException e) {
+        e.printStackTrace();
+      }
+    }
+    return builderFingerprints;
+  }
+
+  String get(String qualifiedBuilderClassName) {
+    return fingerprints.get(qualifiedBuilderClassName);
+  }
+
+  void put(String qualifiedBuilderClassName, String fingerprint) {
+    fingerprints.put(qualifiedBuilderClassName, fingerprint);
+  }
+
+  /** Writes the fingerprints sorted by builder name, so the file itself only changes if a fingerprint changes. */
+  void save() {
+    StringBuilder content = new StringBuilder();
+    new TreeMap<>(fingerprints).forEach((name, fingerprint) ->
+        content.append(name).append('=').append(fingerprint).append('\n'));
+
+    file.getAbsoluteFile().getParentFile().mkdirs();
+    try (OutputStream out = new FileOutputStream(file)) {
+      out.write(content.toString().getBytes(StandardCharsets.ISO_8859_1));
+    } catch (IOException e) {
+      e.printStackTrace();
+    }
+  }
+
+  /**
+   * @return a description of a configuration value that is the same in every run, i.e. with classes by name and the
+   *     elements of collections and maps in sorted order
+   */
+  static String describe(Object value) {
+    if (value instanceof Class) {
+      return ((Class<?>) value).getName();
+    }
+    if (value instanceof Collection) {
+      TreeSet<String> elements = new TreeSet<>();
+      ((Collection<?>) value).forEach(element -> elements.add(describe(element)));
+      return elements.toString();
+    }
+    if (value instanceof Map) {
+      TreeMap<String, String> entries = new TreeMap<>();
+      ((Map<?, ?>) value).forEach((key, entryValue) -> entries.put(describe(key), describe(entryValue)));
+      return entries.toString();
+    }
+    return String.valueOf(value);
+  }
+
+  /** @return the hash of the compiled class, so that changes to the generator itself invalidate all fingerprints */
+  static String hashOfClassFile(Class<?> type) {
+    try (InputStream in = type.getResourceAsStream(type.getSimpleName() + ".class")) {
+      if (in == null) {
+        return type.getName();
+      }
+
+      MessageDigest digest = sha256();
+      byte[] buffer = new byte[8192];
+      for (int read = in.read(buffer); read != -1; read = in.read(buffer)) {
+        digest.update(buffer, 0, read);
+      }
+      return hex(digest.digest());
+    } catch (IOException e) {
+      return type.getName();
+    }
+  }
+
+  static String hash(String content) {
+    return hex(sha256().digest(content.getBytes(StandardCharsets.UTF_8)));
+  }
+
+  private static MessageDigest sha256() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("Every Java platform has to support SHA-256", e);
+    }
+  }
+
+  private static String hex(byte[] bytes) {
+    StringBuilder hex = new StringBuilder(bytes.length * 2);
+    for (byte b : bytes) {
+      hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+    }
+    return hex.toString();
+  }
+}
@@ -1,19 +1,47 @@
 package com.tiramisu.domain.builder.generator;
 
 import com.tiramisu.domain.SomeFieldClassBuilder;
+import com.tiramisu.domain.builder.BuilderMetrics;
+import com.tiramisu.domain.builder.RandomValues;
 import com.tiramisu.domain.objects.DoubleSub;
 import com.tiramisu.domain.objects.SomeFieldClass;
 import com.tiramisu.domain.objects.TripleSub;
 
+import java.beans.ConstructorProperties;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.PrintStream;
+import java.io.UnsupportedEncodingException;
+import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Parameter;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static java.util.Arrays.asList;
 
@@ -28,11 +56,23 @@ public final class BuilderGenerator {
 
   private BuilderGenerator() {}
 
+  /** Generates the builder for {@code targetClass} into its package directory below {@code sourceRoot}. */
+  private BuilderGenerator(Class<?> targetClass, File sourceRoot) {
+    TARGET_CLASS = targetClass;
+    this.sourceRoot = sourceRoot;
+  }
+
   /*-
    * HowTo:
    *      1. Set the fields in the configuration section below
    *      2. Execute the main method of this class
    *      3. A class will be generated in the root directory of the project, copy it to the package where you need it
+   *
+   * HowTo generate builders for a whole package:
+   *      1. Set the fields in the configuration section below, they apply to all builders except TARGET_CLASS
+   *      2. Execute the main method of this class with the package name (or a directory of compiled classes) and the
+   *         source root to generate into as arguments, e.g. "com.tiramisu.domain.objects src/test/java"
+   *      3. A builder is generated for every public class with a no-args constructor, in its package directory
    */
 
   /* ---------------------------------------------------------------------------------------------------------------- */
@@ -40,11 +80,13 @@ public final class BuilderGenerator {
   /* ---------------------------------------------------------------------------------------------------------------- */
 
   /** Class for which you want a builder to be generated. */
-  private Class<TripleSub> TARGET_CLASS = TripleSub.class;
+  private Class<?> TARGET_CLASS = TripleSub.class;
 
   /** The generator covers fields in all classes in the class hierarchy starting from {@link #TARGET_CLASS} up to this
    * upper bound, inclusive. If you set this to {@code Object.class}, {@code null}, or some class that is not an
-   * ancestor of {@code TARGET_CLASS}, then the whole hierarchy above {@link #TARGET_CLASS} is included.*/
+   * ancestor of {@code TARGET_CLASS}, then the whole hierarchy above {@link #TARGET_CLASS} is included. This also
+   * limits the fields that {@code copyOf} copies, so set it below classes whose fields can't be opened, e.g. JDK
+   * classes like {@code java.util.AbstractList}.*/
   private Class<Object> UPPER_BOUND_OF_HIERARCHY = Object.class;
 
   /** Add the classes in the type hierarchy between {@link #TARGET_CLASS} and {@link #UPPER_BOUND_OF_HIERARCHY} that
@@ -66,7 +108,10 @@ public final class BuilderGenerator {
    *  {@value #SETTER_METHOD_NAME_PREFIX}{@code <fieldName>(Spaghetti)}
    *  and a
    *  {@value #SETTER_METHOD_NAME_PREFIX}{@code <fieldName>(SpaghettiBuilder)}
-   *  method. */
+   *  method.<br /><br />
+   *
+   *  The {@code SpaghettiBuilder} is only built when the generated builder builds, so a nested builder that is replaced
+   *  before that is never built at all. */
   private HashMap<Class<?>, Class<?>> FIELD_TYPES_TO_EXISTING_BUILDER_CLASSES = new HashMap<Class<?>, Class<?>>() {
     { // initialize the anonymous map in an initializer block
       put(SomeFieldClass.class, SomeFieldClassBuilder.class);
@@ -95,10 +140,59 @@ public final class BuilderGenerator {
 
   private boolean DEFAULT_CONSTRUCTOR_OF_TARGET_CLASS_IS_ACCESSIBLE = true;
 
+  /** If this is {@code true} and {@link #TARGET_CLASS} has a public constructor that takes a value for every builder
+   * field, {@code build()} (and the spec's {@code build()}) create each instance with a single call to it instead of
+   * writing the fields after construction. That also covers {@code final} fields, and the instances are safely
+   * published to other threads. Fields that no {@value #SETTER_METHOD_NAME_PREFIX}{@code <fieldName>}-method was called
+   * for are passed as {@code null} (or zero), so {@link #ONLY_OVERWRITE_FIELDS_THAT_BUILDER_METHOD_WAS_CALLED_FOR} has
+   * no effect on them. The parameters are matched to the fields by name, see {@link #allArgsConstructorArguments()}.
+   * Without a no-args constructor, the remaining methods that need an empty instance (e.g. {@code copyOf}) pass
+   * {@code null} and zeros to the constructor and write the fields afterwards. */
+  private boolean USE_ALL_ARGS_CONSTRUCTOR = true;
+
+  /** If this is {@code true}, {@code build()} calls public setters (e.g. generated by Lombok's {@code @Setter}) or
+   * assigns fields directly wherever that is legal from {@link #PACKAGE_OF_BUILDER}. Reflection is only used for the
+   * remaining fields, e.g. private ones without a setter. If this is {@code false}, all fields are set via reflection.
+   */
+  private boolean USE_SETTERS_AND_ACCESSIBLE_FIELDS_DIRECTLY = true;
+
+  /** The package the builder will be placed in. This decides which non-public fields can be assigned directly (see
+   * {@link #USE_SETTERS_AND_ACCESSIBLE_FIELDS_DIRECTLY}). If this is {@code null}, the builder is generated for the
+   * package of {@link #TARGET_CLASS}. */
+  private String PACKAGE_OF_BUILDER = null;
+
   /** If this is {@code true} and a file at the location where the builder will be generated already exists, then it
    * will be overwritten silently. If this is {@code false}, the program exits without changing the file. */
   private boolean ALLOW_FILE_OVERWRITING = true;
 
+  /** If this is {@code true}, a fingerprint of everything a builder depends on (the fields in the hierarchy, the
+   * configuration and the generator itself) is stored in {@value #FINGERPRINTS_FILE_NAME} next to the generated
+   * builders, and builders whose fingerprint didn't change since the last run are skipped. Either way, a builder file
+   * is only written if its content changes, so unchanged builders don't trigger recompilation. */
+  private boolean SKIP_UNCHANGED_BUILDERS = true;
+
+  /** If this is {@code true}, the builder gets a static {@code pooled()} method that hands out a reset builder that is
+   * kept per thread, so loops that build lots of objects don't create a new builder for each of them. */
+  private boolean GENERATE_THREAD_LOCAL_POOL = true;
+
+  /** If this is {@code true}, the builder reports its builds and their reflective and direct writes to
+   * {@link BuilderMetrics}. That code only runs if metrics are enabled when the builder is used, otherwise the JIT
+   * compiler removes it. */
+  private boolean GENERATE_METRICS = true;
+
+  /** If this is {@code true}, the builder gets a {@code <TargetClass>Columns} class with an array per field and static
+   * {@code hydrate}/{@code dehydrate} methods that turn ranges of these arrays into instances and back. */
+  private boolean GENERATE_COLUMNS = true;
+
+  /** Methods that do something for every field ({@code build()}, {@code clear()}, {@code reset()},
+   * {@code _withDefaults}, {@code hydrate} and {@code dehydrate}) do it in private chunk methods with at most this many
+   * fields each if the class has more fields than that. With 12 fields, the chunks of {@code build()}, {@code clear()},
+   * {@code reset()} and {@code _withDefaults} have less than the 325 bytes of bytecode up to which HotSpot inlines hot
+   * methods ({@code -XX:FreqInlineSize}), the chunks of {@code hydrate} and {@code dehydrate} are loops that are
+   * compiled on their own. Even the methods that call the chunks of a class with hundreds of fields stay far below the
+   * 8000 bytes above which HotSpot doesn't compile a method at all ({@code -XX:+DontCompileHugeMethods}). */
+  private int FIELDS_PER_CHUNK = 12;
+
   /** Prefix for the names of the methods that set fields in the generated object.
    * @see #OMIT_FIELD_NAME_IN_SETTER_METHOD_NAME_FOR_UNIQUE_FIELD_TYPES
    */
@@ -107,64 +201,253 @@ public final class BuilderGenerator {
   /* ---------------------------------------------------------------------------------------------------------------- */
   /*                                                 generating code                                                  */
   /* ---------------------------------------------------------------------------------------------------------------- */
-  private String targetClassName = TARGET_CLASS.getSimpleName();
-  private String resultFieldName = "_result_" + lowercase(TARGET_CLASS.getSimpleName());
+  private static final String FINGERPRINTS_FILE_NAME = ".builder-fingerprints";
 
-  private String builderClassName = TARGET_CLASS.getSimpleName() + "Builder";
+  private String targetClassName;
+  private String resultFieldName;
+  private String prototypeFieldName;
+
+  private String builderClassName;
+  private String builderPackage;
+
+  /** Only set in batch mode, otherwise the builder is generated into the working directory. */
+  private File sourceRoot = null;
+
+  /** Builders compiled in memory are defined by their own class loader, so they are in a different runtime package
+   * than the target class even if the package names are equal. */
+  private boolean loadedByOwnClassLoader = false;
 
   private PrintStream stream = null;
 
+  /** The sources of the chunk methods of the method that is being generated, see {@link #forEachFieldInChunks}. */
+  private final List<String> pendingChunkMethods = new ArrayList<>();
+
   private Set<Field> fields;
   private Map<Field, String> fieldToBuilderFieldName;
   private Map<Field, String> fieldToSetterMethodName;
+  private Map<Field, String> fieldToHandleName;
+  private Map<Field, Integer> fieldToBitIndex;
+  private Map<Field, String> fieldToDirectWrite;
+  private Map<Field, String> fieldToCopy;
+  private Set<Field> fieldsWithHandle;
+  private List<Field> constructorArguments;
 
   /**
-   * @param args not used
+   * @param args empty to generate a builder for {@link #TARGET_CLASS}, or a package name or a directory of compiled
+   *     classes followed by the source root that the builders are generated into (the working directory if omitted) to
+   *     generate builders for all eligible classes in that package or directory
    */
   public static void main(String[] args) {
-    new BuilderGenerator().generateBuilder();
+    if (args.length == 0) {
+      BuilderFingerprints fingerprints = BuilderFingerprints.load(new File(FINGERPRINTS_FILE_NAME));
+      new BuilderGenerator().generateBuilder(fingerprints);
+      fingerprints.save();
+    } else {
+      generateBuilders(args[0], new File(args.length > 1 ? args[1] : "."));
+    }
   }
 
-  private void generateBuilder() {
-    initFileStream();
+  /**
+   * Generates the builders in parallel on the common fork-join pool. Every builder has its own generator instance, so
+   * the only state the tasks share is the configuration.
+   */
+  private static void generateBuilders(String packageNameOrClassDirectory, File sourceRoot) {
+    BuilderFingerprints fingerprints = BuilderFingerprints.load(new File(sourceRoot, FINGERPRINTS_FILE_NAME));
+
+    TargetClasses.in(packageNameOrClassDirectory)
+                 .parallelStream()
+                 .map(targetClass -> new BuilderGenerator(targetClass, sourceRoot))
+                 .filter(BuilderGenerator::isEligibleTarget)
+                 .forEach(generator -> generator.generateBuilder(fingerprints));
+
+    fingerprints.save();
+  }
+
+  private void initializeNames() {
+    targetClassName = TARGET_CLASS.getSimpleName();
+    resultFieldName = "_result_" + lowercase(TARGET_CLASS.getSimpleName());
+    prototypeFieldName = "_prototype_" + lowercase(TARGET_CLASS.getSimpleName());
+
+    builderClassName = TARGET_CLASS.getSimpleName() + "Builder";
+    builderPackage = PACKAGE_OF_BUILDER != null ? PACKAGE_OF_BUILDER : TARGET_CLASS.getPackage().getName();
+  }
+
+  /**
+   * @return whether {@link #TARGET_CLASS} is a public, concrete top-level class with a suitable no-args constructor or
+   *     with an {@link #USE_ALL_ARGS_CONSTRUCTOR all-args constructor}
+   */
+  private boolean isEligibleTarget() {
+    int modifiers = TARGET_CLASS.getModifiers();
+
+    if (!Modifier.isPublic(modifiers) || Modifier.isAbstract(modifiers) || TARGET_CLASS.isInterface()
+        || TARGET_CLASS.isEnum() || TARGET_CLASS.getEnclosingClass() != null) {
+      return false;
+    }
+
+    return !DEFAULT_CONSTRUCTOR_OF_TARGET_CLASS_IS_ACCESSIBLE || hasPublicNoArgsConstructor()
+           || allArgsConstructorArguments() != null;
+  }
 
-    if (stream != null) {
-      generateBuilderClass();
-      stream.close();
+  private boolean hasPublicNoArgsConstructor() {
+    try {
+      return Modifier.isPublic(TARGET_CLASS.getDeclaredConstructor().getModifiers());
+    } catch (NoSuchMethodException e) {
+      return false;
     }
   }
 
-  private void initFileStream() {
-    File builderFile = new File(builderClassName + ".java");
+  private void generateBuilder(BuilderFingerprints fingerprints) {
+    initializeNames();
+    File builderFile = builderFile();
+
+    if (!ALLOW_FILE_OVERWRITING && builderFile.exists()) {
+      System.err.println("File " + builderFile.getAbsolutePath() + " already exists and may not be overwritten");
+      return;
+    }
+
+    initializeFieldInfo();
+    String fingerprint = fingerprint();
+    String qualifiedBuilderClassName = builderPackage + "." + builderClassName;
+
+    if (SKIP_UNCHANGED_BUILDERS && builderFile.exists()
+        && fingerprint.equals(fingerprints.get(qualifiedBuilderClassName))) {
+      System.out.println("Builder unchanged: " + builderFile.getAbsolutePath());
+      return;
+    }
 
     try {
-      if (ALLOW_FILE_OVERWRITING || !builderFile.exists()) {
-        stream = new PrintStream(new FileOutputStream(builderFile), false, "UTF-8");
+      if (writeIfChanged(builderFile, render())) {
         System.out.println("Builder created: " + builderFile.getAbsolutePath());
       } else {
-        System.err.println("File " + builderFile.getAbsolutePath() + " already exists and may not be overwritten");
+        System.out.println("Builder unchanged: " + builderFile.getAbsolutePath());
       }
+      fingerprints.put(qualifiedBuilderClassName, fingerprint);
     } catch (Exception e) {
       e.printStackTrace();
     }
   }
 
-  private void generateBuilderClass() {
-    initializeFieldInfo();
+  /**
+   * Generates the source of a builder for {@code targetClass} with the configuration of this class, for compiling it
+   * in memory with its own class loader.
+   *
+   * @return the qualified name of the builder and its source
+   * @throws IllegalArgumentException if {@code targetClass} is not a public top-level class with a no-args constructor
+   * @see InMemoryBuilders
+   */
+  static Map.Entry<String, String> generateSource(Class<?> targetClass) {
+    BuilderGenerator generator = new BuilderGenerator(targetClass, null);
+    generator.loadedByOwnClassLoader = true;
+
+    if (!generator.isEligibleTarget()) {
+      throw new IllegalArgumentException(
+          "Can't generate a builder for " + targetClass.getName() + ", it needs to be a public top-level class with a"
+          + " no-args or an all-args constructor");
+    }
 
+    generator.initializeNames();
+    generator.initializeFieldInfo();
+    try {
+      return new SimpleImmutableEntry<>(generator.builderPackage + "." + generator.builderClassName,
+                                        new String(generator.render(), StandardCharsets.UTF_8));
+    } catch (UnsupportedEncodingException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private byte[] render() throws UnsupportedEncodingException {
+    ByteArrayOutputStream builderSource = new ByteArrayOutputStream();
+    stream = new PrintStream(builderSource, false, "UTF-8");
+    generateBuilderClass();
+    stream.close();
+    return builderSource.toByteArray();
+  }
+
+  private File builderFile() {
+    return sourceRoot == null
+           ? new File(builderClassName + ".java")
+           : new File(new File(sourceRoot, builderPackage.replace('.', File.separatorChar)),
+                      builderClassName + ".java");
+  }
+
+  /** @return whether the file was written, i.e. whether it didn't exist or had a different content */
+  private static boolean writeIfChanged(File file, byte[] content) throws IOException {
+    if (file.exists() && Arrays.equals(Files.readAllBytes(file.toPath()), content)) {
+      return false;
+    }
+
+    file.getAbsoluteFile().getParentFile().mkdirs();
+    Files.write(file.toPath(), content);
+    return true;
+  }
+
+  /**
+   * Do not call this method before calling {@link #initializeFieldInfo()}.
+   *
+   * @return a hash of everything the generated builder depends on: the shape of the fields in the hierarchy including
+   *     their generic types, the configuration (every upper-case field of this class), whether the existing builders
+   *     have random defaults yet (see {@link #hasRandomDefaults}), and the bytecode of the generator
+   */
+  private String fingerprint() {
+    List<String> parts = new ArrayList<>();
+
+    fields.forEach(field -> parts.add(
+        field.getDeclaringClass().getName() + "#" + field.getName() + ":" + field.getGenericType().getTypeName() + ":"
+        + field.getModifiers() + ":" + fieldToDirectWrite.get(field)));
+    fieldToCopy.forEach((field, copy) -> parts.add(
+        field.getDeclaringClass().getName() + "#" + field.getName() + ":" + field.getGenericType().getTypeName() + ":"
+        + field.getModifiers() + ":" + copy));
+    FIELD_TYPES_TO_EXISTING_BUILDER_CLASSES.values().forEach(builderClass -> parts.add(
+        builderClass.getName() + ":randomDefaults=" + hasRandomDefaults(builderClass)));
+    Collections.sort(parts);
+    if (constructorArguments != null) {
+      parts.add("constructor(" + constructorArguments.stream()
+                                                   .map(field -> fieldToBuilderFieldName.get(field))
+                                                   .collect(Collectors.joining(", ")) + ")");
+    }
+
+    for (Field configurationField : BuilderGenerator.class.getDeclaredFields()) {
+      if (configurationField.getName().matches("[A-Z_]+") && !Modifier.isStatic(configurationField.getModifiers())) {
+        try {
+          parts.add(configurationField.getName() + "=" + BuilderFingerprints.describe(configurationField.get(this)));
+        } catch (IllegalAccessException e) {
+          throw new IllegalStateException(e);
+        }
+      }
+    }
+
+    parts.add(BuilderFingerprints.hashOfClassFile(BuilderGenerator.class));
+    parts.add(BuilderFingerprints.hashOfClassFile(FieldDiscovery.class));
+    parts.add(BuilderFingerprints.hashOfClassFile(ClassMetadata.class));
+
+    return BuilderFingerprints.hash(String.join("\n", parts));
+  }
+
+  private void generateBuilderClass() {
     packageStatement();
     imports();
     classHeader();
     builderConstructor();
+    fieldHandles();
     builderFields();
     fieldsToSet();
     createBuilderMethod();
+    pooledBuilderMethod();
     withFieldMethods();
     clearFieldsMethod();
+    resetMethod();
     defaultValuesMethod();
     startingFromInstanceMethod();
     buildMethod();
+    bulkBuildMethods();
+    freezeMethod();
+    copyOfMethod();
+    columnMethods();
+    writeFieldsMethod();
     setFieldMethod();
+    copyFieldMethod();
+    readFieldMethod();
+    fieldLookupMethod();
     endClass();
   }
 
@@ -175,6 +458,21 @@ public final class BuilderGenerator {
     fields();
     fieldToBuilderFieldName();
 
+    fieldToHandleName = new HashMap<>();
+    fields.forEach(field -> fieldToHandleName.put(field, constantCase(fieldToBuilderFieldName.get(field))));
+
+    fieldToBitIndex = new HashMap<>();
+    fields.forEach(field -> fieldToBitIndex.put(field, fieldToBitIndex.size()));
+
+    fieldToDirectWrite();
+    fieldToCopy();
+
+    constructorArguments = allArgsConstructorArguments();
+
+    fieldsWithHandle = new LinkedHashSet<>();
+    fields.stream().filter(this::isSetViaReflection).forEach(fieldsWithHandle::add);
+    fieldToCopy.keySet().stream().filter(this::isCopiedViaReflection).forEach(fieldsWithHandle::add);
+
     fieldToSetterMethodName = new HashMap<>();
     if (!OMIT_FIELD_NAME_IN_SETTER_METHOD_NAME_FOR_UNIQUE_FIELD_TYPES) {
       fields.forEach(field ->
@@ -194,45 +492,182 @@ public final class BuilderGenerator {
   }
 
   private void fields() {
-    fields = new HashSet<>();
-
-    for(Class<?> clazz = TARGET_CLASS; clazz != null; clazz = clazz.getSuperclass()) {
-      if ((UPPER_BOUND_OF_HIERARCHY == null || clazz != UPPER_BOUND_OF_HIERARCHY.getSuperclass())
-          && !IGNORED_CLASSES_IN_HIERARCHY.contains(clazz)) {
-        fields.addAll(asList(clazz.getDeclaredFields()));
-      }
-    }
+    fields = FieldDiscovery.cachedFields(TARGET_CLASS, UPPER_BOUND_OF_HIERARCHY, IGNORED_CLASSES_IN_HIERARCHY);
   }
 
   /**
    * Do not call this method before calling {@link #fields()}.
    */
   private void fieldToBuilderFieldName() {
-    fieldToBuilderFieldName = new HashMap<>();
+    fieldToBuilderFieldName = FieldDiscovery.builderFieldNames(fields);
+  }
 
-    HashMap<String, Integer> occurrencesOfFieldNameAndType = new HashMap<>();
-    fields.forEach(field ->
-        occurrencesOfFieldNameAndType.merge(duplicateIdentifierFor(field), 1, Integer::sum));
+  /**
+   * Do not call this method before calling {@link #fieldToBuilderFieldName()}. Fields that end up in this map are set
+   * without reflection in {@code build()}, via a public setter or via an assignment.
+   */
+  private void fieldToDirectWrite() {
+    fieldToDirectWrite = new HashMap<>();
+
+    if (!USE_SETTERS_AND_ACCESSIBLE_FIELDS_DIRECTLY) {
+      return;
+    }
 
     fields.forEach(field -> {
-      if(occurrencesOfFieldNameAndType.get(duplicateIdentifierFor(field)) > 1) {
-        fieldToBuilderFieldName.put(field,
-            lowercase(field.getName() + "In" + field.getDeclaringClass().getSimpleName()));
+      String builderFieldName = fieldToBuilderFieldName.get(field);
+      Method setter = setterFor(field);
+
+      if (setter != null) {
+        fieldToDirectWrite.put(field, "instance." + setter.getName() + "(" + builderFieldName + ");");
+      } else if (isAssignableFromBuilder(field)) {
+        fieldToDirectWrite.put(field, resultFieldFor(field) + " = " + builderFieldName + ";");
+      }
+    });
+  }
+
+  /**
+   * @return the public {@code set<FieldName>(fieldType)}-method that {@link #TARGET_CLASS} inherits from the class
+   *     declaring the field, or {@code null} if there is none or if a subclass overrides it (because then it might set
+   *     a different field, e.g. one that hides this field)
+   */
+  private Method setterFor(Field field) {
+    Class<?> declaringClass = field.getDeclaringClass();
+    if (!ClassMetadata.of(declaringClass).isPublic()) {
+      return null;
+    }
+
+    String setterName = "set" + capitalize(field.getName());
+    for (Class<?> clazz = TARGET_CLASS; clazz != declaringClass; clazz = clazz.getSuperclass()) {
+      if (ClassMetadata.of(clazz).publicMethod(setterName, field.getType()) != null) {
+        return null;
+      }
+    }
+
+    Method setter = ClassMetadata.of(declaringClass).publicMethod(setterName, field.getType());
+    return setter != null && !Modifier.isStatic(setter.getModifiers()) ? setter : null;
+  }
+
+  /**
+   * Do not call this method before calling {@link #fieldToDirectWrite()}. Unlike the builder methods, the copy covers
+   * the fields of ignored classes too, so a copy doesn't share any state with its prototype (apart from the objects
+   * that both reference). Classes above {@link #UPPER_BOUND_OF_HIERARCHY} are left out like in the builder methods,
+   * because they might not be accessible, e.g. the JDK doesn't let the builder open the fields of
+   * {@code java.util.AbstractList} on Java 9 and later. Fields that can't be assigned from the builder are copied via
+   * reflection and get a handle.
+   */
+  private void fieldToCopy() {
+    fieldToCopy = new LinkedHashMap<>();
+
+    Set<Field> allFields =
+        FieldDiscovery.cachedFields(TARGET_CLASS, UPPER_BOUND_OF_HIERARCHY, Collections.emptySet());
+    allFields.removeIf(field -> Modifier.isStatic(field.getModifiers()));
+    Map<Field, String> allFieldNames = FieldDiscovery.builderFieldNames(allFields);
+
+    allFields.forEach(field -> {
+      if (isCopiedViaReflection(field)) {
+        fieldToHandleName.putIfAbsent(field, constantCase(allFieldNames.get(field)));
+        fieldToCopy.put(field, copyMethodFor(field.getType()) + "(" + fieldToHandleName.get(field)
+                               + ", prototype, copy);");
       } else {
-        fieldToBuilderFieldName.put(field, lowercase(field.getName()));
+        fieldToCopy.put(field, fieldOf("copy", field) + " = " + fieldOf("prototype", field) + ";");
       }
     });
   }
 
-  private String duplicateIdentifierFor(Field field) {
-    return field.getName();
+  /**
+   * The parameters of a constructor are matched to the builder fields by name, which is taken from
+   * {@link ConstructorProperties} (e.g. added by Lombok) or, if the class was compiled with {@code -parameters}, from
+   * the parameters themselves. A name is either a builder field name (e.g. {@code hereInSub}) or the name of a field
+   * that occurs only once in the hierarchy, and its parameter has to have the type of the field.
+   *
+   * @return the fields in the order of the parameters of the first public constructor of {@link #TARGET_CLASS} that
+   *     takes every builder field, or {@code null} if there is no such constructor or it isn't to be used
+   */
+  private List<Field> allArgsConstructorArguments() {
+    if (!USE_ALL_ARGS_CONSTRUCTOR) {
+      return null;
+    }
+
+    Set<Field> builderFields =
+        FieldDiscovery.cachedFields(TARGET_CLASS, UPPER_BOUND_OF_HIERARCHY, IGNORED_CLASSES_IN_HIERARCHY);
+    Map<Field, String> builderFieldNames = FieldDiscovery.builderFieldNames(builderFields);
+    Map<String, Field> fieldsByName = new HashMap<>();
+    builderFields.forEach(field -> fieldsByName.put(builderFieldNames.get(field), field));
+    builderFields.forEach(field -> fieldsByName.putIfAbsent(field.getName(), field));
+
+    for (Constructor<?> constructor : TARGET_CLASS.getConstructors()) {
+      String[] names = parameterNamesOf(constructor);
+      if (builderFields.isEmpty() || names == null || names.length != builderFields.size()) {
+        continue;
+      }
+
+      List<Field> arguments = new ArrayList<>();
+      for (int i = 0; i < names.length; i++) {
+        Field field = fieldsByName.get(names[i]);
+        if (field != null && field.getType() == constructor.getParameterTypes()[i] && !arguments.contains(field)) {
+          arguments.add(field);
+        }
+      }
+      if (arguments.size() == builderFields.size()) {
+        return arguments;
+      }
+    }
+    return null;
+  }
+
+  /** @return the names of the parameters of {@code constructor}, or {@code null} if they aren't known */
+  private static String[] parameterNamesOf(Constructor<?> constructor) {
+    ConstructorProperties properties = constructor.getAnnotation(ConstructorProperties.class);
+    if (properties != null) {
+      return properties.value().length == constructor.getParameterCount() ? properties.value() : null;
+    }
+
+    Parameter[] parameters = constructor.getParameters();
+    if (parameters.length == 0 || !parameters[0].isNamePresent()) {
+      return null;
+    }
+    return Arrays.stream(parameters).map(Parameter::getName).toArray(String[]::new);
+  }
+
+  private boolean isAssignableFromBuilder(Field field) {
+    int fieldModifiers = field.getModifiers();
+    ClassMetadata declaringClass = ClassMetadata.of(field.getDeclaringClass());
+    boolean inBuilderPackage = declaringClass.packageName().equals(builderPackage) && !loadedByOwnClassLoader;
+
+    if (Modifier.isFinal(fieldModifiers) || Modifier.isStatic(fieldModifiers) || Modifier.isPrivate(fieldModifiers)) {
+      return false;
+    }
+    if (Modifier.isPublic(fieldModifiers)) {
+      return declaringClass.isPublic() || inBuilderPackage;
+    }
+    return inBuilderPackage;
+  }
+
+  private String resultFieldFor(Field field) {
+    return fieldOf("instance", field);
+  }
+
+  /** A field that is declared in a superclass may be hidden by a field of the same name, so cast to be sure. */
+  private String fieldOf(String variable, Field field) {
+    if (field.getDeclaringClass() == TARGET_CLASS) {
+      return variable + "." + field.getName();
+    }
+    return "((" + field.getDeclaringClass().getSimpleName() + ") " + variable + ")." + field.getName();
+  }
+
+  private boolean isSetViaReflection(Field field) {
+    return !fieldToDirectWrite.containsKey(field);
+  }
+
+  private boolean isCopiedViaReflection(Field field) {
+    return !USE_SETTERS_AND_ACCESSIBLE_FIELDS_DIRECTLY || !isAssignableFromBuilder(field);
   }
 
   /* ---------------------------------------------------------------------------------------------------------------- */
   /*                                                 packageStatement                                                 */
   /* ---------------------------------------------------------------------------------------------------------------- */
   private void packageStatement() {
-    stream.println(TARGET_CLASS.getPackage().toString() + ";");
+    stream.println("package " + builderPackage + ";");
   }
 
   /* ---------------------------------------------------------------------------------------------------------------- */
@@ -241,22 +676,52 @@ public final class BuilderGenerator {
   private void imports() {
     Set<Class<?>> alreadyImportedClasses = new HashSet<>();
 
-    addImportIfMissing(Field.class, alreadyImportedClasses);
+    if (!fieldsWithHandle.isEmpty()) {
+      addImportIfMissing(Field.class, alreadyImportedClasses);
+    }
+
+    if (!TARGET_CLASS.getPackage().getName().equals(builderPackage)) {
+      addImportIfMissing(TARGET_CLASS, alreadyImportedClasses);
+    }
+
+    // superclasses can be in other packages than the target class, and the handles and casts refer to them
+    Stream.concat(fields.stream(), fieldToCopy.keySet().stream())
+          .map(Field::getDeclaringClass)
+          .filter(declaringClass -> !ClassMetadata.of(declaringClass).packageName().equals(builderPackage))
+          .forEach(declaringClass -> addImportIfMissing(declaringClass, alreadyImportedClasses));
 
     if (!DEFAULT_CONSTRUCTOR_OF_TARGET_CLASS_IS_ACCESSIBLE) {
       addImportIfMissing(InvocationTargetException.class, alreadyImportedClasses);
     }
 
-    if (ONLY_OVERWRITE_FIELDS_THAT_BUILDER_METHOD_WAS_CALLED_FOR) {
-      addImportIfMissing(HashSet.class, alreadyImportedClasses);
-      addImportIfMissing(Set.class, alreadyImportedClasses);
+    if (GENERATE_METRICS && !BuilderMetrics.class.getPackage().getName().equals(builderPackage)) {
+      addImportIfMissing(BuilderMetrics.class, alreadyImportedClasses);
+    }
+
+    if (!RandomValues.class.getPackage().getName().equals(builderPackage)) {
+      addImportIfMissing(RandomValues.class, alreadyImportedClasses);
     }
 
+    if (ONLY_OVERWRITE_FIELDS_THAT_BUILDER_METHOD_WAS_CALLED_FOR && !fieldsToSetFitsInLong()) {
+      addImportIfMissing(BitSet.class, alreadyImportedClasses);
+    }
+
+    addImportIfMissing(ArrayList.class, alreadyImportedClasses);
+    addImportIfMissing(List.class, alreadyImportedClasses);
+    addImportIfMissing(ObjIntConsumer.class, alreadyImportedClasses);
+    addImportIfMissing(Stream.class, alreadyImportedClasses);
+
     fields.stream()
           .map(Field::getType)
           .filter(type -> !type.isPrimitive())
           .forEach(type -> addImportIfMissing(type, alreadyImportedClasses));
 
+    fields.stream()
+          .map(field -> FIELD_TYPES_TO_EXISTING_BUILDER_CLASSES.get(field.getType()))
+          .filter(builderClass -> builderClass != null
+                                  && !builderClass.getPackage().getName().equals(builderPackage))
+          .forEach(builderClass -> addImportIfMissing(builderClass, alreadyImportedClasses));
+
     stream.println();
   }
 
@@ -285,27 +750,103 @@ public final class BuilderGenerator {
     stream.println();
   }
 
+  /* ---------------------------------------------------------------------------------------------------------------- */
+  /*                                                   fieldHandles                                                   */
+  /* ---------------------------------------------------------------------------------------------------------------- */
+  /**
+   * The fields of the target class are looked up and made accessible once, when the builder class is initialized,
+   * instead of on every call to {@code build()}. The lookup also checks the type of each field, so a builder that is
+   * out of date fails when it is first used, not with a half built instance later on. The type is passed by name
+   * because the builder might not be able to import it.
+   */
+  private void fieldHandles() {
+    if (fieldsWithHandle.isEmpty()) {
+      return;
+    }
+
+    fieldsWithHandle.forEach(field -> {
+      String lookup = "  private static final Field " + fieldToHandleName.get(field) + " = field("
+                      + field.getDeclaringClass().getSimpleName() + ".class, \"" + field.getName() + "\",";
+      String fieldTypeName = "\"" + field.getType().getTypeName() + "\");";
+
+      if (lookup.length() + 1 + fieldTypeName.length() <= 120) {
+        stream.println(lookup + " " + fieldTypeName);
+      } else {
+        stream.println(lookup);
+        stream.println("      " + fieldTypeName);
+      }
+    });
+    stream.println();
+  }
+
   /* ---------------------------------------------------------------------------------------------------------------- */
   /*                                                  builderFields                                                   */
   /* ---------------------------------------------------------------------------------------------------------------- */
   private void builderFields() {
-    stream.println("  private " + targetClassName + " " + resultFieldName + " = new " + targetClassName + "();");
+    stream.println("  private " + targetClassName + " " + resultFieldName + ";");
+    stream.println("  private " + targetClassName + " " + prototypeFieldName + ";");
     fields.forEach(field ->
         stream.println("  private " + field.getType().getSimpleName() + " " + fieldToBuilderFieldName.get(field) + ";")
     );
+    fields.stream().filter(this::hasExistingBuilder).forEach(field ->
+        stream.println("  private " + FIELD_TYPES_TO_EXISTING_BUILDER_CLASSES.get(field.getType()).getSimpleName() + " "
+                                    + nestedBuilderFieldName(field) + ";")
+    );
     stream.println();
   }
 
+  private boolean hasExistingBuilder(Field field) {
+    return FIELD_TYPES_TO_EXISTING_BUILDER_CLASSES.containsKey(field.getType());
+  }
+
+  /** The builder field that keeps the nested builder passed to the builder method until {@code build()}. */
+  private String nestedBuilderFieldName(Field field) {
+    return fieldToBuilderFieldName.get(field) + "Builder";
+  }
+
   /* ---------------------------------------------------------------------------------------------------------------- */
   /*                                                    fieldsToSet                                                   */
   /* ---------------------------------------------------------------------------------------------------------------- */
+  /**
+   * Every field gets a bit index. If there are at most 64 fields, the bits are kept in a single {@code long}, otherwise
+   * in a {@link BitSet}, so calling a {@value #SETTER_METHOD_NAME_PREFIX}{@code <fieldName>}-method and checking the
+   * fields in {@code build()} does not hash any strings or allocate anything.
+   */
   private void fieldsToSet() {
     if (ONLY_OVERWRITE_FIELDS_THAT_BUILDER_METHOD_WAS_CALLED_FOR) {
-      stream.println("  private Set<String> fieldsToSet = new HashSet<>();");
+      if (fieldsToSetFitsInLong()) {
+        stream.println("  private long fieldsToSet;");
+      } else {
+        stream.println("  private final BitSet fieldsToSet = new BitSet(" + fields.size() + ");");
+      }
       stream.println();
     }
   }
 
+  private boolean fieldsToSetFitsInLong() {
+    return fields.size() <= Long.SIZE;
+  }
+
+  private String markFieldAsSet(Field field) {
+    int bitIndex = fieldToBitIndex.get(field);
+
+    if (fieldsToSetFitsInLong()) {
+      return "fieldsToSet |= 1L << " + bitIndex + ";";
+    } else {
+      return "fieldsToSet.set(" + bitIndex + ");";
+    }
+  }
+
+  private String fieldIsSet(Field field) {
+    int bitIndex = fieldToBitIndex.get(field);
+
+    if (fieldsToSetFitsInLong()) {
+      return "(fieldsToSet & 1L << " + bitIndex + ") != 0";
+    } else {
+      return "fieldsToSet.get(" + bitIndex + ")";
+    }
+  }
+
   /* ---------------------------------------------------------------------------------------------------------------- */
   /*                                                createBuilderMethod                                               */
   /* ---------------------------------------------------------------------------------------------------------------- */
@@ -316,6 +857,29 @@ public final class BuilderGenerator {
     stream.println();
   }
 
+  /* ---------------------------------------------------------------------------------------------------------------- */
+  /*                                                pooledBuilderMethod                                               */
+  /* ---------------------------------------------------------------------------------------------------------------- */
+  private void pooledBuilderMethod() {
+    if (!GENERATE_THREAD_LOCAL_POOL) {
+      return;
+    }
+
+    stream.println("  private static final ThreadLocal<" + builderClassName + "> POOL = ThreadLocal.withInitial("
+                                                            + builderClassName + "::new);");
+    stream.println();
+    stream.println("  /**");
+    stream.println("    * @return the builder of the current thread, {@link #reset() reset} to the state of a new builder.");
+    stream.println("    *     Every call returns the same builder, so don't hold on to it while calling this again.");
+    stream.println("    */");
+    stream.println("  public static " + builderClassName + " pooled() {");
+    stream.println("    " + builderClassName + " builder = POOL.get();");
+    stream.println("    builder.reset();");
+    stream.println("    return builder;");
+    stream.println("  }");
+    stream.println();
+  }
+
   /* ---------------------------------------------------------------------------------------------------------------- */
   /*                                                 withFieldMethods                                                 */
   /* ---------------------------------------------------------------------------------------------------------------- */
@@ -325,26 +889,29 @@ public final class BuilderGenerator {
       stream.println("  public " + builderClassName + " " + fieldToSetterMethodName.get(field)
                                  + "(" + field.getType().getSimpleName() + " " + fieldToBuilderFieldName.get(field) + ") {");
       stream.println("    this." + fieldToBuilderFieldName.get(field) + " = " + fieldToBuilderFieldName.get(field) + ";");
+      if (hasExistingBuilder(field)) {
+        stream.println("    this." + nestedBuilderFieldName(field) + " = null;");
+      }
 
       if (ONLY_OVERWRITE_FIELDS_THAT_BUILDER_METHOD_WAS_CALLED_FOR) {
-        stream.println("    fieldsToSet.add(\"" + fieldToBuilderFieldName.get(field) + "\");");
+        stream.println("    " + markFieldAsSet(field));
       }
 
       stream.println("    return this;");
       stream.println("  }");
       stream.println();
 
-      if (FIELD_TYPES_TO_EXISTING_BUILDER_CLASSES.containsKey(field.getType())) {
+      if (hasExistingBuilder(field)) {
         Class<?> builderClass = FIELD_TYPES_TO_EXISTING_BUILDER_CLASSES.get(field.getType());
 
-        stream.println("  /** {@link " + field.getDeclaringClass().getSimpleName() + "#" + field.getName() + "}. */");
+        stream.println("  /** {@link " + field.getDeclaringClass().getSimpleName() + "#" + field.getName()
+                                     + "}, built by the next {@code build()} of this builder. */");
         stream.println("  public " + builderClassName + " " + fieldToSetterMethodName.get(field)
-            + "(" + builderClass.getSimpleName() + " " + fieldToBuilderFieldName.get(field) + "Builder) {");
-        stream.println("    this." + fieldToBuilderFieldName.get(field)
-                                   + " = " + fieldToBuilderFieldName.get(field) + "Builder.build();");
+            + "(" + builderClass.getSimpleName() + " " + nestedBuilderFieldName(field) + ") {");
+        stream.println("    this." + nestedBuilderFieldName(field) + " = " + nestedBuilderFieldName(field) + ";");
 
         if (ONLY_OVERWRITE_FIELDS_THAT_BUILDER_METHOD_WAS_CALLED_FOR) {
-          stream.println("    fieldsToSet.add(\"" + fieldToBuilderFieldName.get(field) + "\");");
+          stream.println("    " + markFieldAsSet(field));
         }
 
         stream.println("    return this;");
@@ -364,51 +931,175 @@ public final class BuilderGenerator {
     stream.println("    * defines in sections 2.3 and 2.4.");
     stream.println("    */");
     stream.println("  public void clear() {");
-    fields.forEach(field ->
+    forEachFieldInChunks(false, "clearChunk", "", "", field ->
         stream.println("    " + fieldToSetterMethodName.get(field) + "(" + clearedValueForField(field) + ");")
     );
     stream.println("  }");
     stream.println();
+    printChunkMethods();
   }
 
   private String clearedValueForField(Field field) {
     Class<?> type = field.getType();
 
     if (type.isPrimitive()) {
-      if (type.equals(boolean.class)) return "false";
-      if (type.equals(byte.class))    return "(byte) 0";
-      if (type.equals(short.class))   return "(short) 0";
-      if (type.equals(int.class))     return "0";
-      if (type.equals(long.class))    return "0L";
-      if (type.equals(char.class))    return "'\\u0000'";
-      if (type.equals(float.class))   return "0.0f";
-      if (type.equals(double.class))  return "0.0";
+      return clearedValueOf(type);
     }
 
     if (fieldToSetterMethodName.get(field).equals(SETTER_METHOD_NAME_PREFIX)
-        || FIELD_TYPES_TO_EXISTING_BUILDER_CLASSES.containsKey(field.getType())) {
+        || hasExistingBuilder(field)) {
       return "(" + field.getType().getSimpleName() + ") null";
     } else {
       return "null";
     }
   }
 
+  private String clearedValueOf(Class<?> primitiveType) {
+    if (primitiveType.equals(boolean.class)) return "false";
+    if (primitiveType.equals(byte.class))    return "(byte) 0";
+    if (primitiveType.equals(short.class))   return "(short) 0";
+    if (primitiveType.equals(int.class))     return "0";
+    if (primitiveType.equals(long.class))    return "0L";
+    if (primitiveType.equals(char.class))    return "'\\u0000'";
+    if (primitiveType.equals(float.class))   return "0.0f";
+    return "0.0";
+  }
+
+  /* ---------------------------------------------------------------------------------------------------------------- */
+  /*                                                    resetMethod                                                   */
+  /* ---------------------------------------------------------------------------------------------------------------- */
+  /**
+   * Unlike {@code clear()}, which calls every {@value #SETTER_METHOD_NAME_PREFIX}{@code <fieldName>}-method and so
+   * marks every field as set, this assigns the builder fields directly and doesn't allocate anything.
+   */
+  private void resetMethod() {
+    stream.println("  /**");
+    stream.println("    * Puts the builder back into the state it had after {@code create()}: no field is set and the next");
+    stream.println("    * call to {@code build()} creates a new instance. This doesn't allocate anything.");
+    stream.println("    */");
+    stream.println("  public void reset() {");
+    if (ONLY_OVERWRITE_FIELDS_THAT_BUILDER_METHOD_WAS_CALLED_FOR) {
+      stream.println("    " + (fieldsToSetFitsInLong() ? "fieldsToSet = 0L;" : "fieldsToSet.clear();"));
+    }
+    forEachFieldInChunks(false, "resetChunk", "", "", field ->
+        stream.println("    " + fieldToBuilderFieldName.get(field) + " = "
+                              + (field.getType().isPrimitive() ? clearedValueForField(field) : "null") + ";")
+    );
+    fields.stream().filter(this::hasExistingBuilder).forEach(field ->
+        stream.println("    " + nestedBuilderFieldName(field) + " = null;")
+    );
+    stream.println("    " + resultFieldName + " = null;");
+    stream.println("    " + prototypeFieldName + " = null;");
+    stream.println("  }");
+    stream.println();
+    printChunkMethods();
+  }
+
   /* ---------------------------------------------------------------------------------------------------------------- */
   /*                                                defaultValuesMethod                                               */
   /* ---------------------------------------------------------------------------------------------------------------- */
+  /**
+   * Fields get random values from {@link RandomValues}, so a seed always gives the same instance. Fields of types that
+   * {@link #randomValueFor(Class, Type)} doesn't know are not touched, so they stay unset unless the user sets them.
+   */
   private void defaultValuesMethod() {
+    String methodName = "_" + SETTER_METHOD_NAME_PREFIX + "Defaults";
+
     stream.println("  /**");
-    stream.println("    * Sets all fields to default values predefined in the builder.<br /><br />");
-    stream.println("    * <b>NOTE:</b> all calls to the builder before this method is called will have no effect.");
-    stream.println("    * TODO implement default values!");
+    stream.println("    * Sets all fields to the random values of {@link RandomValues#DEFAULT_SEED}, so every call");
+    stream.println("    * sets the same values. Fields of types without random values are left as they are.");
     stream.println("    */");
-    stream.println("  public void _" + SETTER_METHOD_NAME_PREFIX + "Defaults() {");
-    fields.forEach(field ->
-        stream.println("    " + fieldToSetterMethodName.get(field)
-                              + "(" + fieldToBuilderFieldName.get(field) + "); // TODO implement me!")
-    );
+    stream.println("  public " + builderClassName + " " + methodName + "() {");
+    stream.println("    return " + methodName + "(RandomValues.seeded(RandomValues.DEFAULT_SEED));");
+    stream.println("  }");
+    stream.println();
+    stream.println("  /**");
+    stream.println("    * Sets all fields to random values from {@code random}. Fields of types without random");
+    stream.println("    * values are left as they are.<br /><br />");
+    stream.println("    * <b>NOTE:</b> all other calls to the builder before this method is called will have");
+    stream.println("    * no effect.");
+    stream.println("    */");
+    stream.println("  public " + builderClassName + " " + methodName + "(RandomValues random) {");
+    forEachFieldInChunks(false, "defaultsChunk", "RandomValues random", "random", field -> {
+      String randomValue = randomValueFor(field.getType(), field.getGenericType());
+
+      if (randomValue != null) {
+        stream.println("    " + fieldToSetterMethodName.get(field) + "(" + randomValue + ");");
+      }
+    });
+    stream.println("    return this;");
     stream.println("  }");
     stream.println();
+    printChunkMethods();
+  }
+
+  /**
+   * @return an expression for a random value of {@code type} that uses the {@link RandomValues} {@code random}, or
+   *     {@code null} if there is no random value for the type. Primitives are drawn as primitives, wrappers are boxed
+   *     explicitly so the call picks the right overload of the builder method.
+   */
+  private String randomValueFor(Class<?> type, Type genericType) {
+    if (type.isPrimitive()) {
+      return "random.next" + capitalize(type.getName()) + "()";
+    }
+    if (type.equals(Boolean.class))       return "Boolean.valueOf(random.nextBoolean())";
+    if (type.equals(Byte.class))          return "Byte.valueOf(random.nextByte())";
+    if (type.equals(Short.class))         return "Short.valueOf(random.nextShort())";
+    if (type.equals(Integer.class))       return "Integer.valueOf(random.nextInt())";
+    if (type.equals(Long.class))          return "Long.valueOf(random.nextLong())";
+    if (type.equals(Character.class))     return "Character.valueOf(random.nextChar())";
+    if (type.equals(Float.class))         return "Float.valueOf(random.nextFloat())";
+    if (type.equals(Double.class))        return "Double.valueOf(random.nextDouble())";
+    if (type.equals(String.class))        return "random.nextString()";
+    if (type.equals(Date.class))          return "random.nextDate()";
+    if (type.equals(Instant.class))       return "random.nextInstant()";
+    if (type.equals(ZonedDateTime.class)) return "random.nextZonedDateTime()";
+
+    if (type.isEnum()) {
+      return "random.nextEnum(" + type.getSimpleName() + ".class)";
+    }
+    if (type.equals(List.class)) {
+      String randomElements = randomElementsFor(genericType);
+      return randomElements != null ? "random.nextList(" + randomElements + ")" : "new ArrayList<>()";
+    }
+    if (hasRandomDefaults(FIELD_TYPES_TO_EXISTING_BUILDER_CLASSES.get(type))) {
+      return FIELD_TYPES_TO_EXISTING_BUILDER_CLASSES.get(type).getSimpleName()
+             + ".create()._" + SETTER_METHOD_NAME_PREFIX + "Defaults(random)";
+    }
+    return null;
+  }
+
+  /** Raw lists get strings, lists of a type without random values stay empty. */
+  private String randomElementsFor(Type listType) {
+    if (!(listType instanceof ParameterizedType)) {
+      return "random::nextString";
+    }
+
+    Type elementType = ((ParameterizedType) listType).getActualTypeArguments()[0];
+    if (!(elementType instanceof Class<?>)) {
+      return null;
+    }
+    String randomElement = randomValueFor((Class<?>) elementType, elementType);
+    return randomElement != null ? "() -> " + randomElement : null;
+  }
+
+  /**
+   * An existing builder is only used for random values if it was generated with them, i.e. if it has a static
+   * {@code create()} method and a {@code _withDefaults(RandomValues)} method. A builder generated in the same run as
+   * this one only has them after it is compiled, so generate twice when adding them to existing builders.
+   */
+  private boolean hasRandomDefaults(Class<?> builderClass) {
+    if (builderClass == null) {
+      return false;
+    }
+
+    try {
+      builderClass.getMethod("create");
+      builderClass.getMethod("_" + SETTER_METHOD_NAME_PREFIX + "Defaults", RandomValues.class);
+      return true;
+    } catch (NoSuchMethodException e) {
+      return false;
+    }
   }
 
   /* ---------------------------------------------------------------------------------------------------------------- */
@@ -416,13 +1107,21 @@ public final class BuilderGenerator {
   /* ---------------------------------------------------------------------------------------------------------------- */
   private void startingFromInstanceMethod() {
     stream.println("  /**");
-    stream.println("    * Allows to start building from an existing instance. If the instance you pass to this is");
+    stream.println("    * Allows to start building from a copy of an existing instance, the instance itself is not changed");
+    stream.println("    * by {@code build()}. {@code buildMany}, {@code stream} and specs frozen from this builder start");
+    stream.println("    * from a new copy of the instance for every instance they build. If the instance you pass to this is");
     stream.println("    * {@code null}, the call to this method will be ignored.");
     stream.println("    */");
     stream.println("  public void startingFrom(" + targetClassName + " instance) {");
     stream.println("    if (instance != null) {");
-    stream.println("      clear();");
-    stream.println("      " + resultFieldName + " = instance;");
+    if (ONLY_OVERWRITE_FIELDS_THAT_BUILDER_METHOD_WAS_CALLED_FOR) {
+      stream.println("      " + (fieldsToSetFitsInLong() ? "fieldsToSet = 0L;" : "fieldsToSet.clear();"));
+      fields.stream().filter(this::hasExistingBuilder).forEach(field ->
+          stream.println("      " + nestedBuilderFieldName(field) + " = null;")
+      );
+    }
+    stream.println("      " + prototypeFieldName + " = instance;");
+    stream.println("      " + resultFieldName + " = null;");
     stream.println("    }");
     stream.println("  }");
     stream.println();
@@ -431,61 +1130,651 @@ public final class BuilderGenerator {
   /* ---------------------------------------------------------------------------------------------------------------- */
   /*                                                    buildMethod                                                   */
   /* ---------------------------------------------------------------------------------------------------------------- */
+  /**
+   * The result is created on the first call, so neither {@code create()} nor {@code reset()} allocate it, as a copy of
+   * the instance the builder started from if there is one. With an all-args constructor, every call creates a new
+   * instance with that constructor instead, unless the builder started from an instance.
+   */
   private void buildMethod() {
-    if(DEFAULT_CONSTRUCTOR_OF_TARGET_CLASS_IS_ACCESSIBLE) {
-      generateSimpleBuildMethodStart();
+    if (constructorArguments != null) {
+      stream.println("  public " + targetClassName + " build() {");
+      stream.println("    if (" + resultFieldName + " == null && " + prototypeFieldName + " != null) {");
+      stream.println("      " + resultFieldName + " = copyOf(" + prototypeFieldName + ");");
+      stream.println("    }");
+      stream.println("    if (" + resultFieldName + " != null) {");
+      stream.println("      return writeFieldsTo(" + resultFieldName + ");");
+      stream.println("    }");
+      stream.println("    return construct();");
+    } else if(DEFAULT_CONSTRUCTOR_OF_TARGET_CLASS_IS_ACCESSIBLE) {
+      stream.println("  public " + targetClassName + " build() {");
+      stream.println("    if (" + resultFieldName + " == null) {");
+      String assignment = "      " + resultFieldName + " = " + prototypeFieldName + " == null";
+      String value = "? newInstance() : copyOf(" + prototypeFieldName + ");";
+      if (assignment.length() + 1 + value.length() <= 120) {
+        stream.println(assignment + " " + value);
+      } else {
+        stream.println(assignment);
+        stream.println("          " + value);
+      }
+      stream.println("    }");
+      stream.println("    return writeFieldsTo(" + resultFieldName + ");");
     } else {
-      generateReflectionBasedBuildMethodStart();
+      stream.println("  public " + targetClassName + " build() throws NoSuchMethodException, IllegalAccessException,"
+            + " InvocationTargetException,\n     InstantiationException {\n");
+      stream.println("    return writeFieldsTo(" + targetClassName + ".class.getDeclaredConstructor().newInstance());");
+    }
+    stream.println("  }");
+    stream.println();
+
+    constructMethod();
+  }
+
+  /**
+   * Nothing is written to the instance after the constructor returned, so all its fields (including {@code final}
+   * ones) are visible to other threads that get the instance from a data race, as the Java memory model guarantees
+   * for final fields.
+   */
+  private void constructMethod() {
+    if (constructorArguments == null) {
+      return;
+    }
+
+    stream.println("  /** Creates a new instance with the values of all fields by calling the all-args constructor. */");
+    stream.println("  private " + targetClassName + " construct() {");
+    if (fields.stream().anyMatch(this::hasExistingBuilder)) {
+      stream.println("    buildNestedBuilders();");
+    }
+    if (GENERATE_METRICS) {
+      stream.println("    long startNanos = BuilderMetrics.ENABLED ? System.nanoTime() : 0L;");
+    }
+    printConstructorCall("    " + targetClassName + " instance = new " + targetClassName + "(",
+                         constructorArguments.stream().map(fieldToBuilderFieldName::get).collect(Collectors.toList()));
+    if (GENERATE_METRICS) {
+      stream.println("    if (BuilderMetrics.ENABLED) {");
+      stream.println("      BuilderMetrics.recordBuild(" + targetClassName + ".class, startNanos, 0, "
+                                                           + constructorArguments.size() + ");");
+      stream.println("    }");
     }
+    stream.println("    return instance;");
+    stream.println("  }");
+    stream.println();
+  }
 
-    fields.forEach(this::generateFieldSetter);
+  /** Prints {@code call} followed by the arguments and a closing {@code ");"}, wrapped to fit into 120 columns. */
+  private void printConstructorCall(String call, List<String> arguments) {
+    StringBuilder line = new StringBuilder(call);
+    String indent = String.join("", Collections.nCopies(call.length(), " "));
+
+    for (int i = 0; i < arguments.size(); i++) {
+      String argument = arguments.get(i) + (i < arguments.size() - 1 ? "," : ");");
+      if (line.length() > call.length() && line.length() + 1 + argument.length() > 120) {
+        stream.println(line);
+        line = new StringBuilder(indent);
+      } else if (line.length() > call.length()) {
+        line.append(' ');
+      }
+      line.append(argument);
+    }
+    stream.println(line);
+  }
 
+  /* ---------------------------------------------------------------------------------------------------------------- */
+  /*                                                 bulkBuildMethods                                                 */
+  /* ---------------------------------------------------------------------------------------------------------------- */
+  /**
+   * {@code build()} keeps returning the same instance, so for many distinct objects the builder also gets methods that
+   * write the configured fields into a new instance each time. Apart from the instances themselves (and the list in
+   * {@code buildMany}), nothing is allocated per instance.
+   */
+  private void bulkBuildMethods() {
+    stream.println("  /**");
+    stream.println("    * Builds {@code n} new instances. Before each instance is built, {@code customizer} is called with");
+    stream.println("    * this builder and the index of the instance, so it can change fields per instance. Changes made by");
+    stream.println("    * the customizer are kept for the following instances.");
+    stream.println("    */");
+    stream.println("  public List<" + targetClassName + "> buildMany(int n, ObjIntConsumer<" + builderClassName
+                                                              + "> customizer) {");
+    stream.println("    List<" + targetClassName + "> instances = new ArrayList<>(n);");
+    stream.println("    for (int i = 0; i < n; i++) {");
+    stream.println("      customizer.accept(this, i);");
+    stream.println("      instances.add(newInstanceWithFields());");
+    stream.println("    }");
+    stream.println("    return instances;");
+    stream.println("  }");
     stream.println();
-    stream.println("    return " + resultFieldName + ";");
+    stream.println("  /**");
+    stream.println("    * An infinite stream of new instances that all have the fields set that are currently configured in");
+    stream.println("    * this builder. Use {@link Stream#limit(long)} to get a finite number of instances.");
+    stream.println("    */");
+    stream.println("  public Stream<" + targetClassName + "> stream() {");
+    stream.println("    return Stream.generate(this::newInstanceWithFields);");
+    stream.println("  }");
+    stream.println();
+
+    newInstanceWithFieldsMethod();
+
+    stream.println("  private static " + targetClassName + " newInstance() {");
+    if (constructorArguments != null && !hasPublicNoArgsConstructor()) {
+      printConstructorCall("    return new " + targetClassName + "(",
+                           constructorArguments.stream()
+                                               .map(field -> defaultValueOf(field.getType()))
+                                               .collect(Collectors.toList()));
+    } else if(DEFAULT_CONSTRUCTOR_OF_TARGET_CLASS_IS_ACCESSIBLE) {
+      stream.println("    return new " + targetClassName + "();");
+    } else {
+      stream.println("    try {");
+      stream.println("      return " + targetClassName + ".class.getDeclaredConstructor().newInstance();");
+      stream.println("    } catch (ReflectiveOperationException ex) {");
+      stream.println("      throw new IllegalStateException(ex);");
+      stream.println("    }");
+    }
     stream.println("  }");
     stream.println();
   }
 
-  private void generateSimpleBuildMethodStart() {
-    stream.println("  public " + targetClassName + " build() {");
+  /**
+   * The instance that the builder {@link #startingFromInstanceMethod() started from} is kept as a prototype, so methods
+   * that build a new instance each time can start from a new copy of it.
+   */
+  private void newInstanceWithFieldsMethod() {
+    stream.println("  /**");
+    stream.println("    * @return a new instance with the fields of this builder, or a new copy of the instance that this");
+    stream.println("    *     builder started from");
+    stream.println("    */");
+    stream.println("  private " + targetClassName + " newInstanceWithFields() {");
+    stream.println("    if (" + prototypeFieldName + " != null) {");
+    stream.println("      return writeFieldsTo(copyOf(" + prototypeFieldName + "));");
+    stream.println("    }");
+    stream.println("    return " + (constructorArguments != null ? "construct()" : "writeFieldsTo(newInstance())") + ";");
+    stream.println("  }");
+    stream.println();
+  }
+
+  /** The parameters are cast, so the call can't be ambiguous with another constructor. */
+  private String defaultValueOf(Class<?> type) {
+    return type.isPrimitive() ? clearedValueOf(type) : "(" + type.getSimpleName() + ") null";
   }
 
-  private void generateReflectionBasedBuildMethodStart() {
-    stream.println("  public " + targetClassName + " build() throws NoSuchMethodException, IllegalAccessException,"
-          + " InvocationTargetException,\n     InstantiationException {\n");
-    stream.println("    " + targetClassName + " " + resultFieldName + " = "
-          + targetClassName + ".class.getDeclaredConstructor().newInstance();");
+  /* ---------------------------------------------------------------------------------------------------------------- */
+  /*                                                   freezeMethod                                                   */
+  /* ---------------------------------------------------------------------------------------------------------------- */
+  /**
+   * A spec keeps a private copy of the builder that is never changed after it was created. Nested builders are built
+   * before the copy is made, so {@code writeFieldsTo} only reads the copy, and the copy is published through a final
+   * field, so threads can build from a spec concurrently without any locking. Builders for a thread are only created
+   * when {@code newBuilder()} is called.
+   */
+  private void freezeMethod() {
+    String specClassName = targetClassName + "Spec";
+
+    stream.println("  /**");
+    stream.println("    * @return an immutable snapshot of the fields set so far, which can be shared between");
+    stream.println("    *     threads. Changing this builder afterwards doesn't change the spec.");
+    stream.println("    */");
+    stream.println("  public " + specClassName + " freeze() {");
+    if (fields.stream().anyMatch(this::hasExistingBuilder)) {
+      stream.println("    buildNestedBuilders();");
+    }
+    stream.println("    return new " + specClassName + "(copyOfBuilder());");
+    stream.println("  }");
+    stream.println();
+
+    stream.println("  private " + builderClassName + " copyOfBuilder() {");
+    stream.println("    " + builderClassName + " builder = new " + builderClassName + "();");
+    fields.forEach(field -> stream.println("    builder." + fieldToBuilderFieldName.get(field) + " = "
+                                                        + fieldToBuilderFieldName.get(field) + ";"));
+    if (ONLY_OVERWRITE_FIELDS_THAT_BUILDER_METHOD_WAS_CALLED_FOR) {
+      stream.println("    " + (fieldsToSetFitsInLong() ? "builder.fieldsToSet = fieldsToSet;"
+                                                       : "builder.fieldsToSet.or(fieldsToSet);"));
+    }
+    stream.println("    builder." + prototypeFieldName + " = " + prototypeFieldName + ";");
+    stream.println("    return builder;");
+    stream.println("  }");
+    stream.println();
+
+    stream.println("  /** The fields of a frozen builder. All methods can be called from any thread. */");
+    stream.println("  public static final class " + specClassName + " {");
+    stream.println();
+    stream.println("    private final " + builderClassName + " template;");
+    stream.println();
+    stream.println("    private " + specClassName + "(" + builderClassName + " template) {");
+    stream.println("      this.template = template;");
+    stream.println("    }");
+    stream.println();
+    stream.println("    /** @return a new builder with the fields of this spec, to be used by a single thread */");
+    stream.println("    public " + builderClassName + " newBuilder() {");
+    stream.println("      return template.copyOfBuilder();");
+    stream.println("    }");
+    stream.println();
+    stream.println("    /** @return a new instance with the fields of this spec */");
+    stream.println("    public " + targetClassName + " build() {");
+    stream.println("      return template.newInstanceWithFields();");
+    stream.println("    }");
+    stream.println();
+    stream.println("    /**");
+    stream.println("      * @return a new instance with the fields of this spec and random values from {@code random} in all");
+    stream.println("      *     other fields, see {@link " + builderClassName + "#_" + SETTER_METHOD_NAME_PREFIX
+                                                         + "Defaults(RandomValues)}");
+    stream.println("      */");
+    stream.println("    public " + targetClassName + " build(RandomValues random) {");
+    stream.println("      " + builderClassName + " randomValues = new " + builderClassName + "()._"
+                                                 + SETTER_METHOD_NAME_PREFIX + "Defaults(random);");
+    stream.println("      return template.writeFieldsTo(randomValues.writeFieldsTo(newInstance()));");
+    stream.println("    }");
+    stream.println("  }");
     stream.println();
   }
 
+  /* ---------------------------------------------------------------------------------------------------------------- */
+  /*                                                   copyOfMethod                                                   */
+  /* ---------------------------------------------------------------------------------------------------------------- */
+  /**
+   * The copy is a fixed sequence of field copies that is worked out when the builder is generated, so copying doesn't
+   * look up or iterate over anything at runtime.
+   */
+  private void copyOfMethod() {
+    stream.println("  /**");
+    stream.println("    * Creates a new instance with the same values in all fields of the hierarchy as {@code prototype}.");
+    stream.println("    * The copy is shallow, objects referenced by {@code prototype} are shared with the copy.");
+    stream.println("    */");
+    stream.println("  public static " + targetClassName + " copyOf(" + targetClassName + " prototype) {");
+    stream.println("    " + targetClassName + " copy = newInstance();");
+    fieldToCopy.values().forEach(copy -> stream.println("    " + copy));
+    stream.println("    return copy;");
+    stream.println("  }");
+    stream.println();
+  }
+
+  /* ---------------------------------------------------------------------------------------------------------------- */
+  /*                                                   columnMethods                                                  */
+  /* ---------------------------------------------------------------------------------------------------------------- */
+  /**
+   * Each column is copied in a loop of its own that only does one kind of write (or read), so the loops don't box
+   * primitives and the JIT compiler can treat each of them as a simple array traversal. The methods only touch the
+   * given range of the arrays, so callers can split a large dataset into ranges and process them in parallel.
+   */
+  private void columnMethods() {
+    if (!GENERATE_COLUMNS) {
+      return;
+    }
+    String columnsClassName = targetClassName + "Columns";
+
+    stream.println("  /**");
+    stream.println("    * The fields of many instances as one array per field, element {@code i} of each array belongs to");
+    stream.println("    * instance {@code i}. Columns that are {@code null} are skipped by {@code hydrate} and {@code dehydrate}.");
+    stream.println("    */");
+    stream.println("  public static final class " + columnsClassName + " {");
+    stream.println();
+    fields.forEach(field -> stream.println("    public " + field.getType().getSimpleName() + "[] "
+                                                         + fieldToBuilderFieldName.get(field) + ";"));
+    stream.println();
+    stream.println("    public " + columnsClassName + "() {}");
+    stream.println();
+    stream.println("    /** Creates every column with {@code size} elements. */");
+    stream.println("    public " + columnsClassName + "(int size) {");
+    fields.forEach(field -> stream.println("      this." + fieldToBuilderFieldName.get(field) + " = new "
+                                                    + field.getType().getSimpleName() + "[size];"));
+    stream.println("    }");
+    stream.println("  }");
+    stream.println();
+
+    stream.println("  /**");
+    stream.println("    * Creates the instances {@code from} (inclusive) to {@code to} (exclusive) of {@code instances} with the");
+    stream.println("    * values at the same indexes of {@code columns}. Fields without a column keep their initial values.");
+    stream.println("    * Disjoint ranges can be hydrated in parallel, e.g. in blocks of 1024 instances:");
+    stream.println("    * <pre>{@code");
+    stream.println("    * IntStream.range(0, (n + 1023) / 1024).parallel()");
+    stream.println("    *          .forEach(b -> hydrate(columns, b * 1024, Math.min(n, b * 1024 + 1024), instances));");
+    stream.println("    * }</pre>");
+    stream.println("    */");
+    stream.println("  public static void hydrate(" + columnsClassName + " columns, int from, int to, "
+                                                   + targetClassName + "[] instances) {");
+    stream.println("    for (int i = from; i < to; i++) {");
+    stream.println("      instances[i] = newInstance();");
+    stream.println("    }");
+    forEachFieldInChunks(true, "hydrateChunk",
+                         columnsClassName + " columns, int from, int to, " + targetClassName + "[] instances",
+                         "columns, from, to, instances", field -> {
+      String builderFieldName = fieldToBuilderFieldName.get(field);
+      String write = isSetViaReflection(field)
+                     ? writeMethodFor(field.getType()) + "(" + fieldToHandleName.get(field) + ", instance, "
+                                                       + builderFieldName + ");"
+                     : fieldToDirectWrite.get(field);
+
+      stream.println("    if (columns." + builderFieldName + " != null) {");
+      stream.println("      " + field.getType().getSimpleName() + "[] column = columns." + builderFieldName + ";");
+      stream.println("      for (int i = from; i < to; i++) {");
+      stream.println("        " + targetClassName + " instance = instances[i];");
+      stream.println("        " + field.getType().getSimpleName() + " " + builderFieldName + " = column[i];");
+      stream.println("        " + write);
+      stream.println("      }");
+      stream.println("    }");
+    });
+    stream.println("  }");
+    stream.println();
+    printChunkMethods();
+
+    stream.println("  /**");
+    stream.println("    * Copies the fields of the instances {@code from} (inclusive) to {@code to} (exclusive) of");
+    stream.println("    * {@code instances} to the same indexes of {@code columns}. Like {@code hydrate}, disjoint ranges can");
+    stream.println("    * be dehydrated in parallel.");
+    stream.println("    */");
+    stream.println("  public static void dehydrate(" + targetClassName + "[] instances, int from, int to, "
+                                                     + columnsClassName + " columns) {");
+    forEachFieldInChunks(true, "dehydrateChunk",
+                         targetClassName + "[] instances, int from, int to, " + columnsClassName + " columns",
+                         "instances, from, to, columns", field -> {
+      String builderFieldName = fieldToBuilderFieldName.get(field);
+      String read = isCopiedViaReflection(field)
+                    ? readExpressionFor(field, "instances[i]")
+                    : fieldOf("instances[i]", field);
+
+      stream.println("    if (columns." + builderFieldName + " != null) {");
+      stream.println("      " + field.getType().getSimpleName() + "[] column = columns." + builderFieldName + ";");
+      stream.println("      for (int i = from; i < to; i++) {");
+      stream.println("        column[i] = " + read + ";");
+      stream.println("      }");
+      stream.println("    }");
+    });
+    stream.println("  }");
+    stream.println();
+    printChunkMethods();
+  }
+
+  private String readExpressionFor(Field field, String variable) {
+    String read = readMethodFor(field.getType()) + "(" + fieldToHandleName.get(field) + ", " + variable + ")";
+    return field.getType().isPrimitive() ? read : "(" + field.getType().getSimpleName() + ") " + read;
+  }
+
+  /* ---------------------------------------------------------------------------------------------------------------- */
+  /*                                                 writeFieldsMethod                                                */
+  /* ---------------------------------------------------------------------------------------------------------------- */
+  private void writeFieldsMethod() {
+    if (GENERATE_METRICS && ONLY_OVERWRITE_FIELDS_THAT_BUILDER_METHOD_WAS_CALLED_FOR) {
+      reflectivelyWrittenFields();
+    }
+    buildNestedBuildersMethod();
+
+    stream.println("  private " + targetClassName + " writeFieldsTo(" + targetClassName + " instance) {");
+    if (fields.stream().anyMatch(this::hasExistingBuilder)) {
+      stream.println("    buildNestedBuilders();");
+    }
+    if (GENERATE_METRICS) {
+      stream.println("    long startNanos = BuilderMetrics.ENABLED ? System.nanoTime() : 0L;");
+    }
+
+    forEachFieldInChunks(false, "writeFieldsChunk", targetClassName + " instance", "instance",
+                         this::generateFieldSetter);
+
+    if (GENERATE_METRICS) {
+      stream.println("    if (BuilderMetrics.ENABLED) {");
+      stream.println("      int writes = " + numberOfWrites() + ";");
+      stream.println("      int reflectiveWrites = " + numberOfReflectiveWrites() + ";");
+      stream.println("      BuilderMetrics.recordBuild(" + targetClassName
+                                                         + ".class, startNanos, reflectiveWrites, writes - reflectiveWrites);");
+      stream.println("    }");
+    }
+    stream.println();
+    stream.println("    return instance;");
+    stream.println("  }");
+    stream.println();
+    printChunkMethods();
+  }
+
+  /**
+   * Each nested builder is built once, by the first build after it was passed in. Its result is kept like any value
+   * passed to a builder method and the nested builder is dropped, so later builds neither build it again nor see
+   * changes made to it afterwards.
+   */
+  private void buildNestedBuildersMethod() {
+    if (fields.stream().noneMatch(this::hasExistingBuilder)) {
+      return;
+    }
+
+    stream.println("  private void buildNestedBuilders() {");
+    fields.stream().filter(this::hasExistingBuilder).forEach(field -> {
+      stream.println("    if (" + nestedBuilderFieldName(field) + " != null) {");
+      stream.println("      " + fieldToBuilderFieldName.get(field) + " = "
+                                + nestedBuilderFieldName(field) + ".build();");
+      stream.println("      " + nestedBuilderFieldName(field) + " = null;");
+      stream.println("    }");
+    });
+    stream.println("  }");
+    stream.println();
+  }
+
+  /** The bits of the fields that are written via reflection, for counting the reflective writes of a build. */
+  private void reflectivelyWrittenFields() {
+    if (fieldsToSetFitsInLong()) {
+      long bits = 0L;
+      for (Field field : fields) {
+        if (isSetViaReflection(field)) {
+          bits |= 1L << fieldToBitIndex.get(field);
+        }
+      }
+      stream.println("  private static final long REFLECTIVELY_WRITTEN_FIELDS = 0x" + Long.toHexString(bits) + "L;");
+    } else {
+      BitSet bits = new BitSet(fields.size());
+      fields.stream().filter(this::isSetViaReflection).forEach(field -> bits.set(fieldToBitIndex.get(field)));
+
+      stream.println("  private static final BitSet REFLECTIVELY_WRITTEN_FIELDS = BitSet.valueOf(new long[] {"
+                     + Arrays.stream(bits.toLongArray())
+                             .mapToObj(word -> "0x" + Long.toHexString(word) + "L")
+                             .collect(Collectors.joining(", "))
+                     + "});");
+    }
+    stream.println();
+  }
+
+  private String numberOfReflectiveWrites() {
+    if (!ONLY_OVERWRITE_FIELDS_THAT_BUILDER_METHOD_WAS_CALLED_FOR) {
+      return Long.toString(fields.stream().filter(this::isSetViaReflection).count());
+    }
+    if (fieldsToSetFitsInLong()) {
+      return "Long.bitCount(fieldsToSet & REFLECTIVELY_WRITTEN_FIELDS)";
+    }
+    return "(int) fieldsToSet.stream().filter(REFLECTIVELY_WRITTEN_FIELDS::get).count()";
+  }
+
+  private String numberOfWrites() {
+    if (!ONLY_OVERWRITE_FIELDS_THAT_BUILDER_METHOD_WAS_CALLED_FOR) {
+      return Integer.toString(fields.size());
+    }
+    return fieldsToSetFitsInLong() ? "Long.bitCount(fieldsToSet)" : "fieldsToSet.cardinality()";
+  }
+
   private void generateFieldSetter(Field field) {
-    String builderFieldName = fieldToBuilderFieldName.get(field);
-    String fieldClass = field.getDeclaringClass().getSimpleName() + ".class";
+    String write = isSetViaReflection(field)
+                   ? writeMethodFor(field.getType()) + "(" + fieldToHandleName.get(field) + ", instance, "
+                                                     + fieldToBuilderFieldName.get(field) + ");"
+                   : fieldToDirectWrite.get(field);
 
     if (ONLY_OVERWRITE_FIELDS_THAT_BUILDER_METHOD_WAS_CALLED_FOR) {
-      stream.println("    if(fieldsToSet.contains(\"" + builderFieldName + "\")) {");
-      stream.println("       setField(\"" + field.getName() + "\", " + fieldClass + ", " + builderFieldName + ");");
+      stream.println("    if(" + fieldIsSet(field) + ") {");
+      stream.println("       " + write);
       stream.println("    }");
     } else {
-      stream.println("    setField(\"" + field.getName() + "\", " + fieldClass + ", " + builderFieldName + ");");
+      stream.println("    " + write);
     }
   }
 
   /* ---------------------------------------------------------------------------------------------------------------- */
   /*                                                  setFieldMethod                                                  */
   /* ---------------------------------------------------------------------------------------------------------------- */
+  /**
+   * Primitive fields are written with the matching primitive setter of {@link Field} (e.g. {@link Field#setLong}), so
+   * {@code build()} doesn't box any values. Only the write methods for the kinds of fields that actually occur are
+   * generated.
+   */
   private void setFieldMethod() {
-    stream.println("  private void setField(String fieldName, Class<?> type, Object fieldValue) {");
+    if (fields.stream().noneMatch(this::isSetViaReflection)) {
+      return;
+    }
+
+    Set<Class<?>> writtenTypes = new LinkedHashSet<>();
+    fields.stream()
+          .filter(this::isSetViaReflection)
+          .forEach(field -> writtenTypes.add(field.getType().isPrimitive() ? field.getType() : Object.class));
+
+    for (Class<?> type : writtenTypes) {
+      String fieldAccessorName = type.isPrimitive() ? "set" + capitalize(type.getName()) : "set";
+
+      stream.println("  private static void " + writeMethodFor(type) + "(Field objectField, Object instance, "
+                                              + type.getSimpleName() + " fieldValue) {");
+      stream.println("    try {");
+      stream.println("      objectField." + fieldAccessorName + "(instance, fieldValue);");
+      stream.println("    } catch (IllegalAccessException ex) {");
+      stream.println("      throw new IllegalStateException(ex); // all handles are accessible, see field()");
+      stream.println("    }");
+      stream.println("  }");
+      stream.println();
+    }
+  }
+
+  private String writeMethodFor(Class<?> type) {
+    return type.isPrimitive() ? "set" + capitalize(type.getName()) : "setField";
+  }
+
+  /* ---------------------------------------------------------------------------------------------------------------- */
+  /*                                                  copyFieldMethod                                                 */
+  /* ---------------------------------------------------------------------------------------------------------------- */
+  /** Like the write methods, there is a copy method for each kind of field that is copied via reflection. */
+  private void copyFieldMethod() {
+    Set<Class<?>> copiedTypes = new LinkedHashSet<>();
+    fieldToCopy.keySet()
+               .stream()
+               .filter(this::isCopiedViaReflection)
+               .forEach(field -> copiedTypes.add(field.getType().isPrimitive() ? field.getType() : Object.class));
+
+    for (Class<?> type : copiedTypes) {
+      String typeName = type.isPrimitive() ? capitalize(type.getName()) : "";
+
+      stream.println("  private static void " + copyMethodFor(type)
+                                              + "(Field objectField, Object prototype, Object copy) {");
+      stream.println("    try {");
+      stream.println("      objectField.set" + typeName + "(copy, objectField.get" + typeName + "(prototype));");
+      stream.println("    } catch (IllegalAccessException ex) {");
+      stream.println("      throw new IllegalStateException(ex); // all handles are accessible, see field()");
+      stream.println("    }");
+      stream.println("  }");
+      stream.println();
+    }
+  }
+
+  private String copyMethodFor(Class<?> type) {
+    return type.isPrimitive() ? "copy" + capitalize(type.getName()) : "copyField";
+  }
+
+  /* ---------------------------------------------------------------------------------------------------------------- */
+  /*                                                  readFieldMethod                                                 */
+  /* ---------------------------------------------------------------------------------------------------------------- */
+  /** {@code dehydrate} reads the fields that can't be accessed directly with a read method per kind of field. */
+  private void readFieldMethod() {
+    if (!GENERATE_COLUMNS) {
+      return;
+    }
+
+    Set<Class<?>> readTypes = new LinkedHashSet<>();
+    fields.stream()
+          .filter(this::isCopiedViaReflection)
+          .forEach(field -> readTypes.add(field.getType().isPrimitive() ? field.getType() : Object.class));
+
+    for (Class<?> type : readTypes) {
+      String fieldAccessorName = type.isPrimitive() ? "get" + capitalize(type.getName()) : "get";
+
+      stream.println("  private static " + type.getSimpleName() + " " + readMethodFor(type)
+                                         + "(Field objectField, Object instance) {");
+      stream.println("    try {");
+      stream.println("      return objectField." + fieldAccessorName + "(instance);");
+      stream.println("    } catch (IllegalAccessException ex) {");
+      stream.println("      throw new IllegalStateException(ex); // all handles are accessible, see field()");
+      stream.println("    }");
+      stream.println("  }");
+      stream.println();
+    }
+  }
+
+  private String readMethodFor(Class<?> type) {
+    return type.isPrimitive() ? "get" + capitalize(type.getName()) : "getField";
+  }
+
+  /* ---------------------------------------------------------------------------------------------------------------- */
+  /*                                                 fieldLookupMethod                                                */
+  /* ---------------------------------------------------------------------------------------------------------------- */
+  /**
+   * Any problem with a handle is thrown from the static initializer of the builder, so the builder class can't be used
+   * at all. Once it is initialized, every handle is known to exist, to have the expected type and to be accessible.
+   */
+  private void fieldLookupMethod() {
+    if (fieldsWithHandle.isEmpty()) {
+      return;
+    }
+
+    stream.println("  private static Field field(Class<?> type, String fieldName, String fieldTypeName) {");
+    stream.println("    Field objectField;");
     stream.println("    try {");
-    stream.println("      Field objectField = type.getDeclaredField(fieldName);");
+    stream.println("      objectField = type.getDeclaredField(fieldName);");
     stream.println("      objectField.setAccessible(true);");
-    stream.println("      objectField.set(" + resultFieldName + ", fieldValue);");
-    stream.println("    } catch (Exception ex) {");
-    stream.println("      ex.printStackTrace();");
+    stream.println("    } catch (NoSuchFieldException | RuntimeException ex) {");
+    stream.println("      throw new IllegalStateException(\"" + builderClassName + " can't access \" + type.getName()"
+                                                               + " + \".\" + fieldName");
+    stream.println("                                      + \", generate the builder again\", ex);");
+    stream.println("    }");
+    stream.println("    if (!objectField.getType().getTypeName().equals(fieldTypeName)) {");
+    stream.println("      throw new IllegalStateException(\"" + builderClassName + " expects \" + type.getName()"
+                                                               + " + \".\" + fieldName");
+    stream.println("                                      + \" to be a \" + fieldTypeName"
+                                                      + " + \", generate the builder again\");");
     stream.println("    }");
+    stream.println("    return objectField;");
     stream.println("  }");
   }
 
+  /* ---------------------------------------------------------------------------------------------------------------- */
+  /*                                                   chunkMethods                                                   */
+  /* ---------------------------------------------------------------------------------------------------------------- */
+  /**
+   * Prints the statements for every field into the method that is being generated. If there are more than
+   * {@link #FIELDS_PER_CHUNK} fields, the method calls private chunk methods {@code <chunkMethodName>0},
+   * {@code <chunkMethodName>1}, ... instead, which do the statements for {@link #FIELDS_PER_CHUNK} fields each, in the
+   * same order. The chunk methods are kept until {@link #printChunkMethods()} prints them after the method.
+   */
+  private void forEachFieldInChunks(boolean isStatic, String chunkMethodName, String parameters, String arguments,
+                                    Consumer<Field> printStatementsFor) {
+    if (fields.size() <= FIELDS_PER_CHUNK) {
+      fields.forEach(printStatementsFor);
+      return;
+    }
+
+    List<Field> fieldsInOrder = new ArrayList<>(fields);
+    PrintStream methodStream = stream;
+    try {
+      for (int start = 0; start < fieldsInOrder.size(); start += FIELDS_PER_CHUNK) {
+        String chunkMethod = chunkMethodName + start / FIELDS_PER_CHUNK;
+        methodStream.println("    " + chunkMethod + "(" + arguments + ");");
+
+        ByteArrayOutputStream chunkSource = new ByteArrayOutputStream();
+        stream = new PrintStream(chunkSource, false, "UTF-8");
+        stream.println("  private " + (isStatic ? "static " : "") + "void " + chunkMethod + "(" + parameters + ") {");
+        fieldsInOrder.subList(start, Math.min(start + FIELDS_PER_CHUNK, fieldsInOrder.size()))
+                     .forEach(printStatementsFor);
+        stream.println("  }");
+        stream.println();
+        stream.close();
+        pendingChunkMethods.add(new String(chunkSource.toByteArray(), StandardCharsets.UTF_8));
+      }
+    } catch (UnsupportedEncodingException e) {
+      throw new IllegalStateException(e); // every JVM supports UTF-8
+    } finally {
+      stream = methodStream;
+    }
+  }
+
+  private void printChunkMethods() {
+    pendingChunkMethods.forEach(stream::print);
+    pendingChunkMethods.clear();
+  }
+
   /* ---------------------------------------------------------------------------------------------------------------- */
   /*                                                     endClass                                                     */
   /* ---------------------------------------------------------------------------------------------------------------- */
@@ -500,4 +1789,8 @@ public final class BuilderGenerator {
   private static String capitalize(String string) {
     return string.substring(0, 1).toUpperCase() + string.substring(1);
   }
+
+  private static String constantCase(String string) {
+    return string.replaceAll("([a-z0-9])([A-Z])", "$1_$2").toUpperCase();
+  }
 }
@@ -0,0 +1,327 @@
+package com.tiramisu.domain.builder.generator;
+
+import com.tiramisu.domain.objects.ContactBuilder;
+import com.tiramisu.domain.objects.TripleSub;
+import com.tiramisu.domain.objects.extended.ExtendedSub;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static java.util.stream.Collectors.toList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.hasItems;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+/**
+ * Runs the {@link BuilderGenerator} in batch mode on fixture classes that are compiled into a temporary directory, and
+ * generates their builders into a temporary source root.
+ */
+public class BuilderGeneratorTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void ChangedGenericTypeShouldRegenerateBuilder() throws Exception {
+    // given
+    File sourceRoot = folder.newFolder();
+    generate(compile("fixtures.Listed",
+                     "public class Listed {",
+                     "  private java.util.List<java.time.ZonedDateTime> list;",
+                     "}"), sourceRoot);
+
+    // when
+    generate(compile("fixtures.Listed",
+                     "public class Listed {",
+                     "  private java.util.List<String> list;",
+                     "}"), sourceRoot);
+
+    // then
+    String builder = builderSource(sourceRoot, "fixtures.ListedBuilder");
+    assertThat(builder, containsString("random.nextList(() -> random.nextString())"));
+    assertThat(builder, not(containsString("random.nextZonedDateTime()")));
+  }
+
+  @Test
+  public void TargetClassesShouldLoadPublicConcreteTopLevelClassesWithoutInitializingThem() throws Exception {
+    // given
+    File classes = compileTargetsAndNonTargets();
+
+    // when
+    List<String> targets = TargetClasses.in(classes.getPath()).stream().map(Class::getName).sorted()
+                                        .collect(toList());
+
+    // then
+    assertThat(targets, is(asList("fixtures.Concrete", "fixtures.Initialized")));
+  }
+
+  @Test
+  public void TargetClassesShouldFindClassesOfPackagesOnTheClassPath() {
+    // when
+    List<String> targets = TargetClasses.in("com.tiramisu.domain.objects").stream().map(Class::getName)
+                                        .collect(toList());
+
+    // then
+    assertThat(targets, hasItems(TripleSub.class.getName(), ExtendedSub.class.getName()));
+    assertThat(targets, not(hasItem(ContactBuilder.ContactSpec.class.getName())));
+  }
+
+  @Test
+  public void BatchModeShouldOnlyGenerateBuildersOfTargetClasses() throws Exception {
+    // given
+    File sourceRoot = folder.newFolder();
+
+    // when
+    generate(compileTargetsAndNonTargets(), sourceRoot);
+
+    // then
+    assertThat(builderFile(sourceRoot, "fixtures.ConcreteBuilder").exists(), is(true));
+    assertThat(new File(sourceRoot, "fixtures").list().length, is(1));
+  }
+
+  @Test
+  public void ClassMetadataShouldDescribeTheClassItWasCreatedFor() throws Exception {
+    // given
+    File classes = compile("fixtures.Bean",
+                           "class Bean extends java.util.Date {",
+                           "  private String name;",
+                           "  int age;",
+                           "  public void setName(String name) {}",
+                           "  public void setName(Object name) {}",
+                           "  void setAge(int age) {}",
+                           "  public void set(String name, int age) {}",
+                           "}");
+    Class<?> bean = new URLClassLoader(new URL[] {classes.toURI().toURL()}).loadClass("fixtures.Bean");
+
+    // when
+    ClassMetadata metadata = ClassMetadata.of(bean);
+
+    // then
+    assertThat(ClassMetadata.of(bean), is(sameInstance(metadata)));
+    assertThat(metadata.isPublic(), is(false));
+    assertThat(metadata.packageName(), is("fixtures"));
+    assertThat(metadata.declaredFields(), is(asList(bean.getDeclaredFields())));
+    assertThat(metadata.publicMethod("setName", String.class), is(bean.getMethod("setName", String.class)));
+    assertThat(metadata.publicMethod("setName", Object.class), is(bean.getMethod("setName", Object.class)));
+    assertThat(metadata.publicMethod("setName", Integer.class), is(nullValue()));
+    assertThat(metadata.publicMethod("setAge", int.class), is(nullValue()));
+    assertThat(metadata.publicMethod("setTime", long.class), is(nullValue()));
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void ClassMetadataShouldNotLetTheDeclaredFieldsBeChanged() {
+    ClassMetadata.of(TripleSub.class).declaredFields().clear();
+  }
+
+  @Test
+  public void UnchangedFingerprintShouldSkipBuilder() throws Exception {
+    // given
+    File sourceRoot = folder.newFolder();
+    File classes = compile("fixtures.Named",
+                           "public class Named {",
+                           "  private String name;",
+                           "}");
+    generate(classes, sourceRoot);
+    File builder = builderFile(sourceRoot, "fixtures.NamedBuilder");
+    Files.write(builder.toPath(), "// edited".getBytes(StandardCharsets.UTF_8));
+
+    // when
+    generate(classes, sourceRoot);
+
+    // then
+    assertThat(builderSource(sourceRoot, "fixtures.NamedBuilder"), is("// edited"));
+  }
+
+  @Test
+  public void ChangedFieldShouldRegenerateBuilder() throws Exception {
+    // given
+    File sourceRoot = folder.newFolder();
+    generate(compile("fixtures.Named",
+                     "public class Named {",
+                     "  private String name;",
+                     "}"), sourceRoot);
+    File builder = builderFile(sourceRoot, "fixtures.NamedBuilder");
+    Files.write(builder.toPath(), "// edited".getBytes(StandardCharsets.UTF_8));
+
+    // when
+    generate(compile("fixtures.Named",
+                     "public class Named {",
+                     "  private String name;",
+                     "  private int age;",
+                     "}"), sourceRoot);
+
+    // then
+    String source = builderSource(sourceRoot, "fixtures.NamedBuilder");
+    assertThat(source, not(containsString("// edited")));
+    assertThat(source, containsString("with(random.nextInt());"));
+  }
+
+  /** The fingerprint covers the configuration, so a stored fingerprint that differs stands for a changed one. */
+  @Test
+  public void ChangedFingerprintShouldRegenerateBuilder() throws Exception {
+    // given
+    File sourceRoot = folder.newFolder();
+    File classes = compile("fixtures.Named",
+                           "public class Named {",
+                           "  private String name;",
+                           "}");
+    generate(classes, sourceRoot);
+    File builder = builderFile(sourceRoot, "fixtures.NamedBuilder");
+    String generated = builderSource(sourceRoot, "fixtures.NamedBuilder");
+    Files.write(builder.toPath(), "// edited".getBytes(StandardCharsets.UTF_8));
+    Files.write(new File(sourceRoot, ".builder-fingerprints").toPath(),
+                "fixtures.NamedBuilder=changed\n".getBytes(StandardCharsets.ISO_8859_1));
+
+    // when
+    generate(classes, sourceRoot);
+
+    // then
+    assertThat(builderSource(sourceRoot, "fixtures.NamedBuilder"), is(generated));
+  }
+
+  @Test
+  public void UnchangedSourceShouldNotBeWrittenAgain() throws Exception {
+    // given
+    File sourceRoot = folder.newFolder();
+    File classes = compile("fixtures.Named",
+                           "public class Named {",
+                           "  private String name;",
+                           "}");
+    generate(classes, sourceRoot);
+    File builder = builderFile(sourceRoot, "fixtures.NamedBuilder");
+    assertThat(builder.setLastModified(1_000_000_000_000L), is(true));
+    File fingerprints = new File(sourceRoot, ".builder-fingerprints");
+    assertThat(fingerprints.delete(), is(true));
+
+    // when
+    generate(classes, sourceRoot);
+
+    // then
+    assertThat(builder.lastModified(), is(1_000_000_000_000L));
+    assertThat(fingerprints.exists(), is(true));
+  }
+
+  @Test
+  public void DefaultsShouldLeaveFieldsWithoutRandomValuesUnset() throws Exception {
+    // given
+    File sourceRoot = folder.newFolder();
+
+    // when
+    generate(compile("fixtures.Mixed",
+                     "public class Mixed {",
+                     "  private String name;",
+                     "  private Thread thread;",
+                     "}"), sourceRoot);
+
+    // then
+    String builder = builderSource(sourceRoot, "fixtures.MixedBuilder");
+    String defaults = builder.substring(builder.indexOf("_withDefaults(RandomValues random) {"));
+    defaults = defaults.substring(0, defaults.indexOf("return this;"));
+    assertThat(defaults, containsString("with(random.nextString());"));
+    assertThat(defaults, not(containsString("thread")));
+    assertThat(builder, not(containsString("TODO")));
+  }
+
+  /* ---------------------------------------------------------------------------------------------------------------- */
+  /*                                                     helpers                                                      */
+  /* ---------------------------------------------------------------------------------------------------------------- */
+  /**
+   * Compiles a class whose package declaration is added from {@code qualifiedName}.
+   *
+   * @return a new directory with the compiled class
+   */
+  private File compile(String qualifiedName, String... lines) throws Exception {
+    return compile(folder.newFolder(), qualifiedName, lines);
+  }
+
+  /** @return {@code classes}, which the compiled class is added to */
+  private static File compile(File classes, String qualifiedName, String... lines) {
+    String packageName = qualifiedName.substring(0, qualifiedName.lastIndexOf('.'));
+    String source = "package " + packageName + ";\n" + String.join("\n", lines) + "\n";
+    JavaFileObject sourceFile = new SimpleJavaFileObject(
+        URI.create("string:///" + qualifiedName.replace('.', '/') + JavaFileObject.Kind.SOURCE.extension),
+        JavaFileObject.Kind.SOURCE) {
+      @Override
+      public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+        return source;
+      }
+    };
+
+    JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+    if (!compiler.getTask(null, null, diagnostics, asList("-proc:none", "-d", classes.getPath()), null,
+                          singletonList(sourceFile)).call()) {
+      throw new AssertionError("Could not compile " + qualifiedName + ": " + diagnostics.getDiagnostics());
+    }
+    return classes;
+  }
+
+  /**
+   * @return a new directory with a public top-level class and classes that no builder is generated for, one of them
+   *     with a static initializer that fails and without an accessible constructor
+   */
+  private File compileTargetsAndNonTargets() throws Exception {
+    File classes = folder.newFolder();
+    compile(classes, "fixtures.Concrete",
+            "public class Concrete {",
+            "  private String name;",
+            "  public static class Nested {",
+            "    private String name;",
+            "  }",
+            "}");
+    compile(classes, "fixtures.Abstract",
+            "public abstract class Abstract {",
+            "  private String name;",
+            "}");
+    compile(classes, "fixtures.Interface",
+            "public interface Interface {",
+            "}");
+    compile(classes, "fixtures.Hidden",
+            "class Hidden {",
+            "  private String name;",
+            "}");
+    compile(classes, "fixtures.Initialized",
+            "public class Initialized {",
+            "  static {",
+            "    if (true) throw new IllegalStateException();",
+            "  }",
+            "  private String name;",
+            "  private Initialized() {}",
+            "}");
+    return classes;
+  }
+
+  /** Generates the builders of all classes in {@code classes} into {@code sourceRoot}, as in batch mode. */
+  private static void generate(File classes, File sourceRoot) {
+    BuilderGenerator.main(new String[] {classes.getPath(), sourceRoot.getPath()});
+  }
+
+  private static File builderFile(File sourceRoot, String qualifiedBuilderName) {
+    return new File(sourceRoot, qualifiedBuilderName.replace('.', File.separatorChar) + ".java");
+  }
+
+  private static String builderSource(File sourceRoot, String qualifiedBuilderName) throws Exception {
+    return new String(Files.readAllBytes(builderFile(sourceRoot, qualifiedBuilderName).toPath()),
+                      StandardCharsets.UTF_8);
+  }
+}
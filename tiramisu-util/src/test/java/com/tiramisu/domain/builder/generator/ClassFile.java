@@ -0,0 +1,160 @@
+package com.tiramisu.domain.builder.generator;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Modifier;
+
+/**
+ * The parts of a compiled class that the {@link ClassFileDiscovery} needs, read straight from the bytes of its class
+ * file as described in chapter 4 of the JVM specification. Only the access flags and the {@code InnerClasses}
+ * attribute are decoded, together with the constant pool strings that name the attributes; everything else is skipped.
+ */
+final class ClassFile {
+
+  private static final int MAGIC = 0xCAFEBABE;
+
+  // constant pool tags
+  private static final int UTF8 = 1;
+  private static final int INTEGER = 3;
+  private static final int FLOAT = 4;
+  private static final int LONG = 5;
+  private static final int DOUBLE = 6;
+  private static final int CLASS = 7;
+  private static final int STRING = 8;
+  private static final int FIELD_REF = 9;
+  private static final int METHOD_REF = 10;
+  private static final int INTERFACE_METHOD_REF = 11;
+  private static final int NAME_AND_TYPE = 12;
+  private static final int METHOD_HANDLE = 15;
+  private static final int METHOD_TYPE = 16;
+  private static final int DYNAMIC = 17;
+  private static final int INVOKE_DYNAMIC = 18;
+  private static final int MODULE = 19;
+  private static final int PACKAGE = 20;
+
+  /** {@code ACC_ANNOTATION} and {@code ACC_ENUM} aren't in {@link Modifier}. */
+  private static final int ANNOTATION = 0x2000;
+  private static final int ENUM = 0x4000;
+
+  private final int accessFlags;
+  private final boolean nested;
+
+  private ClassFile(int accessFlags, boolean nested) {
+    this.accessFlags = accessFlags;
+    this.nested = nested;
+  }
+
+  /**
+   * @param classFile the bytes of a class file, which is not closed
+   * @throws IOException if {@code classFile} can't be read or isn't a class file
+   */
+  static ClassFile read(InputStream classFile) throws IOException {
+    // a stream from a jar may skip fewer bytes than asked for, one over an array always skips them all
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytesOf(classFile)));
+    if (in.readInt() != MAGIC) {
+      throw new IOException("Not a class file");
+    }
+    in.readUnsignedShort(); // minor version
+    in.readUnsignedShort(); // major version
+
+    int constantPoolCount = in.readUnsignedShort();
+    String[] utf8 = new String[constantPoolCount];
+    for (int i = 1; i < constantPoolCount; i++) {
+      int tag = in.readUnsignedByte();
+      switch (tag) {
+        case UTF8:
+          utf8[i] = in.readUTF();
+          break;
+        case CLASS:
+        case STRING:
+        case METHOD_TYPE:
+        case MODULE:
+        case PACKAGE:
+          in.skipBytes(2);
+          break;
+        case METHOD_HANDLE:
+          in.skipBytes(3);
+          break;
+        case INTEGER:
+        case FLOAT:
+        case FIELD_REF:
+        case METHOD_REF:
+        case INTERFACE_METHOD_REF:
+        case NAME_AND_TYPE:
+        case DYNAMIC:
+        case INVOKE_DYNAMIC:
+          in.skipBytes(4);
+          break;
+        case LONG:
+        case DOUBLE:
+          in.skipBytes(8);
+          i++; // takes two entries
+          break;
+        default:
+          throw new IOException("Unknown constant pool tag " + tag + " at entry " + i);
+      }
+    }
+
+    int accessFlags = in.readUnsignedShort();
+    int thisClass = in.readUnsignedShort();
+    in.skipBytes(2); // superclass
+    in.skipBytes(2 * in.readUnsignedShort()); // interfaces
+    skipMembers(in); // fields
+    skipMembers(in); // methods
+
+    boolean nested = false;
+    int attributeCount = in.readUnsignedShort();
+    for (int i = 0; i < attributeCount; i++) {
+      String attributeName = utf8[in.readUnsignedShort()];
+      int length = in.readInt();
+      if (!attributeName.equals("InnerClasses")) {
+        in.skipBytes(length);
+        continue;
+      }
+      int numberOfClasses = in.readUnsignedShort();
+      for (int j = 0; j < numberOfClasses; j++) {
+        nested |= in.readUnsignedShort() == thisClass;
+        in.skipBytes(6); // outer class, inner name and inner class access flags
+      }
+    }
+
+    return new ClassFile(accessFlags, nested);
+  }
+
+  private static byte[] bytesOf(InputStream in) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(4096);
+    byte[] buffer = new byte[4096];
+    for (int read = in.read(buffer); read >= 0; read = in.read(buffer)) {
+      bytes.write(buffer, 0, read);
+    }
+    return bytes.toByteArray();
+  }
+
+  private static void skipMembers(DataInputStream in) throws IOException {
+    int memberCount = in.readUnsignedShort();
+    for (int i = 0; i < memberCount; i++) {
+      in.skipBytes(6); // access flags, name and descriptor
+      skipAttributes(in);
+    }
+  }
+
+  private static void skipAttributes(DataInputStream in) throws IOException {
+    int attributeCount = in.readUnsignedShort();
+    for (int i = 0; i < attributeCount; i++) {
+      in.skipBytes(2);
+      in.skipBytes(in.readInt());
+    }
+  }
+
+  /**
+   * @return whether this is a public, concrete top-level class, which the {@link BuilderGenerator} might generate a
+   *     builder for. Whether its constructors are suitable is left to the generator.
+   */
+  boolean isCandidateTarget() {
+    return Modifier.isPublic(accessFlags) && !Modifier.isAbstract(accessFlags) && !Modifier.isInterface(accessFlags)
+           && (accessFlags & (ANNOTATION | ENUM)) == 0 && !nested;
+  }
+}
@@ -0,0 +1,45 @@
+package com.tiramisu.domain.builder.generator;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Decides from the class files whether classes are worth loading for the {@link BuilderGenerator}, so batch mode
+ * doesn't load, link or initialize interfaces, abstract, nested and non-public classes (see {@link TargetClasses}).
+ * Class files are read as resources of a class loader, which doesn't define any classes for that.
+ */
+final class ClassFileDiscovery {
+
+  private final ClassLoader classFiles;
+
+  private ClassFileDiscovery(ClassLoader classFiles) {
+    this.classFiles = classFiles;
+  }
+
+  /** @param classLoader the class loader whose resources the class files are read from */
+  static ClassFileDiscovery on(ClassLoader classLoader) {
+    return new ClassFileDiscovery(classLoader);
+  }
+
+  /**
+   * @return whether {@code className} is a public, concrete top-level class, so loading it to generate a builder might
+   *     be worth it. Classes without a class file are not.
+   */
+  boolean isCandidateTarget(String className) {
+    ClassFile classFile = classFile(className);
+    return classFile != null && classFile.isCandidateTarget();
+  }
+
+  /** @return the parsed class file, or {@code null} if there is none */
+  private ClassFile classFile(String className) {
+    try (InputStream in = classFiles.getResourceAsStream(className.replace('.', '/') + ".class")) {
+      if (in == null) {
+        return null;
+      }
+      return ClassFile.read(in);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Can't read the class file of " + className, e);
+    }
+  }
+}
@@ -0,0 +1,72 @@
+package com.tiramisu.domain.builder.generator;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Arrays.asList;
+
+/**
+ * What the {@link BuilderGenerator} needs to know about a single class of a hierarchy: its declared fields (which carry
+ * their modifiers), its package and visibility, which decide whether its fields are accessible from a builder, and its
+ * public one-argument methods, i.e. its setter candidates. Each class is reflected over once and kept for as long as
+ * it is loaded, so generating builders for {@code Sub}, {@code DoubleSub} and {@code TripleSub} reflects over
+ * {@code Base} and {@code Sub} only once. Instances are immutable and shared by the generators of a batch, which run in
+ * parallel.
+ */
+final class ClassMetadata {
+
+  private static final ClassValue<ClassMetadata> CACHE = new ClassValue<ClassMetadata>() {
+    @Override
+    protected ClassMetadata computeValue(Class<?> type) {
+      return new ClassMetadata(type);
+    }
+  };
+
+  private final boolean isPublic;
+  private final String packageName;
+  private final List<Field> declaredFields;
+  private final Map<String, Method> publicMethodsWithOneParameter = new HashMap<>();
+
+  private ClassMetadata(Class<?> type) {
+    this.isPublic = Modifier.isPublic(type.getModifiers());
+    this.packageName = type.getPackage() == null ? "" : type.getPackage().getName();
+    this.declaredFields = Collections.unmodifiableList(asList(type.getDeclaredFields()));
+
+    for (Method method : type.getDeclaredMethods()) {
+      if (Modifier.isPublic(method.getModifiers()) && method.getParameterCount() == 1) {
+        publicMethodsWithOneParameter.put(signatureOf(method.getName(), method.getParameterTypes()[0]), method);
+      }
+    }
+  }
+
+  static ClassMetadata of(Class<?> type) {
+    return CACHE.get(type);
+  }
+
+  boolean isPublic() {
+    return isPublic;
+  }
+
+  String packageName() {
+    return packageName;
+  }
+
+  /** @return the fields as {@link Class#getDeclaredFields()} returns them, which must not be changed */
+  List<Field> declaredFields() {
+    return declaredFields;
+  }
+
+  /** @return the public method {@code name(parameterType)} that this class declares, or {@code null} */
+  Method publicMethod(String name, Class<?> parameterType) {
+    return publicMethodsWithOneParameter.get(signatureOf(name, parameterType));
+  }
+
+  private static String signatureOf(String name, Class<?> parameterType) {
+    return name + "(" + parameterType.getName() + ")";
+  }
+}
@@ -0,0 +1,97 @@
+package com.tiramisu.domain.builder.generator;
+
+import java.lang.reflect.Field;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import static java.util.Arrays.asList;
+
+/**
+ * Finds the fields a builder covers and the names the builder uses for them. This is shared by the
+ * {@link BuilderGenerator} and the builders that are created at runtime, so both agree on which fields exist and how
+ * they are called.
+ */
+public final class FieldDiscovery {
+
+  /** This is a utility class. */
+  private FieldDiscovery() {}
+
+  /**
+   * @param targetClass the class that is built
+   * @param upperBoundOfHierarchy the last class in the hierarchy above {@code targetClass} whose fields are covered. If
+   *     this is {@code Object.class}, {@code null}, or some class that is not an ancestor of {@code targetClass}, then
+   *     the whole hierarchy above {@code targetClass} is included.
+   * @param ignoredClassesInHierarchy classes in the hierarchy whose fields are not covered
+   * @return the fields declared in all classes from {@code targetClass} up to {@code upperBoundOfHierarchy}
+   */
+  public static Set<Field> fields(Class<?> targetClass, Class<?> upperBoundOfHierarchy,
+                                  Collection<Class<?>> ignoredClassesInHierarchy) {
+    return fields(targetClass, upperBoundOfHierarchy, ignoredClassesInHierarchy,
+                  clazz -> asList(clazz.getDeclaredFields()));
+  }
+
+  /**
+   * Like {@link #fields(Class, Class, Collection)}, but the fields come from the {@link ClassMetadata} of each class,
+   * so a class is only reflected over the first time. The fields are shared with other callers and must not be made
+   * accessible.
+   */
+  static Set<Field> cachedFields(Class<?> targetClass, Class<?> upperBoundOfHierarchy,
+                                 Collection<Class<?>> ignoredClassesInHierarchy) {
+    return fields(targetClass, upperBoundOfHierarchy, ignoredClassesInHierarchy,
+                  clazz -> ClassMetadata.of(clazz).declaredFields());
+  }
+
+  private static Set<Field> fields(Class<?> targetClass, Class<?> upperBoundOfHierarchy,
+                                   Collection<Class<?>> ignoredClassesInHierarchy,
+                                   Function<Class<?>, Collection<Field>> declaredFields) {
+    Set<Field> fields = new HashSet<>();
+    Class<?> firstExcludedClass = upperBoundOfHierarchy == null ? null : upperBoundOfHierarchy.getSuperclass();
+
+    for(Class<?> clazz = targetClass; clazz != null && clazz != firstExcludedClass; clazz = clazz.getSuperclass()) {
+      if (!ignoredClassesInHierarchy.contains(clazz)) {
+        fields.addAll(declaredFields.apply(clazz));
+      }
+    }
+
+    return fields;
+  }
+
+  /**
+   * Fields whose names occur more than once in the hierarchy (because a subclass declares a field with the same name
+   * as a superclass) get the simple name of their declaring class appended, e.g. {@code hereInSub} and
+   * {@code hereInBase}.
+   *
+   * @param fields as returned by {@link #fields(Class, Class, Collection)}
+   * @return the name that the builder uses for each field
+   */
+  public static Map<Field, String> builderFieldNames(Set<Field> fields) {
+    Map<Field, String> fieldToBuilderFieldName = new HashMap<>();
+
+    HashMap<String, Integer> occurrencesOfFieldNameAndType = new HashMap<>();
+    fields.forEach(field ->
+        occurrencesOfFieldNameAndType.merge(duplicateIdentifierFor(field), 1, Integer::sum));
+
+    fields.forEach(field -> {
+      if(occurrencesOfFieldNameAndType.get(duplicateIdentifierFor(field)) > 1) {
+        fieldToBuilderFieldName.put(field,
+            lowercase(field.getName() + "In" + field.getDeclaringClass().getSimpleName()));
+      } else {
+        fieldToBuilderFieldName.put(field, lowercase(field.getName()));
+      }
+    });
+
+    return fieldToBuilderFieldName;
+  }
+
+  private static String duplicateIdentifierFor(Field field) {
+    return field.getName();
+  }
+
+  private static String lowercase(String string) {
+    return string.substring(0, 1).toLowerCase() + string.substring(1);
+  }
+}
@@ -0,0 +1,198 @@
+package com.tiramisu.domain.builder.generator;
+
+import javax.tools.DiagnosticCollector;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.net.URI;
+import java.security.CodeSource;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+
+/**
+ * Generates builders with the {@link BuilderGenerator}, compiles them with the system {@link JavaCompiler} and loads
+ * them without writing anything to disk. Each builder class is compiled once per target class and then kept for as
+ * long as the target class is loaded, so after the first call it is as fast as a builder that was generated ahead of
+ * time.<br /><br />
+ *
+ * The configuration of the {@link BuilderGenerator} applies, except that fields can only be assigned directly if they
+ * are public, because the builder is defined by its own class loader. Compiling needs a JDK, not just a JRE.
+ *
+ * <pre>{@code
+ * Object builder = InMemoryBuilders.create(TripleSub.class);
+ * }</pre>
+ */
+public final class InMemoryBuilders {
+
+  /** This is a utility class. */
+  private InMemoryBuilders() {}
+
+  private static final ClassValue<Class<?>> BUILDER_CLASSES = new ClassValue<Class<?>>() {
+    @Override
+    protected Class<?> computeValue(Class<?> targetClass) {
+      return compile(targetClass);
+    }
+  };
+
+  private static final ClassValue<Method> CREATE_METHODS = new ClassValue<Method>() {
+    @Override
+    protected Method computeValue(Class<?> targetClass) {
+      try {
+        return builderClassFor(targetClass).getMethod("create");
+      } catch (NoSuchMethodException e) {
+        throw new IllegalStateException("Generated builder for " + targetClass.getName() + " has no create()", e);
+      }
+    }
+  };
+
+  /** @return the builder class for {@code targetClass}, generated and compiled on the first call */
+  public static Class<?> builderClassFor(Class<?> targetClass) {
+    return BUILDER_CLASSES.get(targetClass);
+  }
+
+  /** @return a new builder for {@code targetClass}, as returned by the builder's static {@code create()} method */
+  public static Object create(Class<?> targetClass) {
+    try {
+      return CREATE_METHODS.get(targetClass).invoke(null);
+    } catch (ReflectiveOperationException e) {
+      throw new IllegalStateException("Could not create builder for " + targetClass.getName(), e);
+    }
+  }
+
+  private static Class<?> compile(Class<?> targetClass) {
+    Map.Entry<String, String> builderSource = BuilderGenerator.generateSource(targetClass);
+    String builderClassName = builderSource.getKey();
+
+    JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    if (compiler == null) {
+      throw new IllegalStateException("No Java compiler available, builders can only be compiled in memory on a JDK");
+    }
+
+    DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+    Map<String, byte[]> classFiles = new ConcurrentHashMap<>();
+
+    try (InMemoryFileManager fileManager =
+             new InMemoryFileManager(compiler.getStandardFileManager(diagnostics, null, null), classFiles)) {
+      JavaFileObject sourceFile = new SimpleJavaFileObject(
+          URI.create("string:///" + builderClassName.replace('.', '/') + JavaFileObject.Kind.SOURCE.extension),
+          JavaFileObject.Kind.SOURCE) {
+        @Override
+        public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+          return builderSource.getValue();
+        }
+      };
+
+      boolean compiled = compiler.getTask(null, fileManager, diagnostics,
+                                          asList("-classpath", classpathFor(targetClass), "-proc:none", "-nowarn"),
+                                          null, singletonList(sourceFile)).call();
+      if (!compiled) {
+        throw new IllegalStateException(
+            "Could not compile builder for " + targetClass.getName() + ": " + diagnostics.getDiagnostics() + "\n"
+            + builderSource.getValue());
+      }
+    } catch (IOException e) {
+      throw new IllegalStateException(e);
+    }
+
+    try {
+      return new BuilderClassLoader(targetClass.getClassLoader(), classFiles).loadClass(builderClassName);
+    } catch (ClassNotFoundException e) {
+      throw new IllegalStateException("Compiled builder " + builderClassName + " could not be loaded", e);
+    }
+  }
+
+  /** The classpath of the JVM, plus wherever the target class was loaded from in case it's not on there. */
+  private static String classpathFor(Class<?> targetClass) {
+    Set<String> entries = new LinkedHashSet<>(asList(System.getProperty("java.class.path").split(File.pathSeparator)));
+
+    CodeSource codeSource = targetClass.getProtectionDomain().getCodeSource();
+    if (codeSource != null && codeSource.getLocation() != null
+        && "file".equals(codeSource.getLocation().getProtocol())) {
+      entries.add(new File(URI.create(codeSource.getLocation().toString())).getPath());
+    }
+    return String.join(File.pathSeparator, entries);
+  }
+
+  /** Keeps the compiled class files in memory instead of writing them to the output directory. */
+  private static final class InMemoryFileManager extends ForwardingJavaFileManager<StandardJavaFileManager> {
+
+    private final Map<String, byte[]> classFiles;
+
+    InMemoryFileManager(StandardJavaFileManager fileManager, Map<String, byte[]> classFiles) {
+      super(fileManager);
+      this.classFiles = classFiles;
+    }
+
+    @Override
+    public JavaFileObject getJavaFileForOutput(Location location, String className, JavaFileObject.Kind kind,
+                                               FileObject sibling) {
+      return new SimpleJavaFileObject(URI.create("mem:///" + className.replace('.', '/') + kind.extension), kind) {
+        @Override
+        public OutputStream openOutputStream() {
+          return new ByteArrayOutputStream() {
+            @Override
+            public void close() {
+              classFiles.put(className, toByteArray());
+            }
+          };
+        }
+      };
+    }
+  }
+
+  /**
+   * Defines the compiled builder classes; everything else is delegated to the class loader of the target class. The
+   * compiled classes are defined before the parent is asked, so a builder with the same name on the class path of the
+   * target (e.g. a checked-in one) doesn't replace the one that was just compiled.
+   */
+  private static final class BuilderClassLoader extends ClassLoader {
+
+    private final Map<String, byte[]> classFiles;
+
+    BuilderClassLoader(ClassLoader parent, Map<String, byte[]> classFiles) {
+      super(parent);
+      this.classFiles = classFiles;
+    }
+
+    @Override
+    protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+      if (!classFiles.containsKey(name)) {
+        return super.loadClass(name, resolve);
+      }
+
+      synchronized (getClassLoadingLock(name)) {
+        Class<?> loadedClass = findLoadedClass(name);
+        if (loadedClass == null) {
+          loadedClass = findClass(name);
+        }
+        if (resolve) {
+          resolveClass(loadedClass);
+        }
+        return loadedClass;
+      }
+    }
+
+    @Override
+    protected Class<?> findClass(String name) throws ClassNotFoundException {
+      byte[] classFile = classFiles.get(name);
+      if (classFile == null) {
+        throw new ClassNotFoundException(name);
+      }
+      return defineClass(name, classFile, 0, classFile.length);
+    }
+  }
+}
@@ -0,0 +1,104 @@
+package com.tiramisu.domain.builder.generator;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.JarURLConnection;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.net.URLDecoder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Finds the classes that the {@link BuilderGenerator} generates builders for in batch mode. The class files are checked
+ * with a {@link ClassFileDiscovery} first, so interfaces, abstract, nested and non-public classes are never loaded. The
+ * remaining classes are loaded without being initialized, so no static initializers run.
+ */
+final class TargetClasses {
+
+  /** This is a utility class. */
+  private TargetClasses() {}
+
+  /**
+   * @param packageNameOrClassDirectory either a directory containing compiled classes (in their package directories)
+   *     or the name of a package on the classpath; classes in sub-packages are included
+   * @return all public, concrete top-level classes that could be loaded, in no particular order
+   */
+  static List<Class<?>> in(String packageNameOrClassDirectory) {
+    File classDirectory = new File(packageNameOrClassDirectory);
+
+    try {
+      if (classDirectory.isDirectory()) {
+        ClassLoader classLoader = new URLClassLoader(new URL[] {classDirectory.toURI().toURL()},
+                                                     Thread.currentThread().getContextClassLoader());
+        return load(classNamesIn(classDirectory.toPath(), ""), classLoader);
+      } else {
+        return inPackage(packageNameOrClassDirectory, Thread.currentThread().getContextClassLoader());
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static List<Class<?>> inPackage(String packageName, ClassLoader classLoader) throws IOException {
+    String packagePath = packageName.replace('.', '/');
+    List<String> classNames = new ArrayList<>();
+
+    for (URL url : Collections.list(classLoader.getResources(packagePath))) {
+      if (url.getProtocol().equals("file")) {
+        classNames.addAll(classNamesIn(new File(URLDecoder.decode(url.getPath(), "UTF-8")).toPath(), packageName));
+      } else if (url.getProtocol().equals("jar")) {
+        // the jar file is cached and shared with the class loader, so it must not be closed here
+        JarFile jar = ((JarURLConnection) url.openConnection()).getJarFile();
+        jar.stream()
+           .map(JarEntry::getName)
+           .filter(name -> name.startsWith(packagePath + "/") && isClassFile(name))
+           .map(name -> name.substring(0, name.length() - ".class".length()).replace('/', '.'))
+           .forEach(classNames::add);
+      }
+    }
+
+    return load(classNames, classLoader);
+  }
+
+  private static List<String> classNamesIn(Path directory, String packageName) throws IOException {
+    String prefix = packageName.isEmpty() ? "" : packageName + ".";
+
+    try (Stream<Path> files = Files.walk(directory)) {
+      return files.filter(file -> isClassFile(file.getFileName().toString()))
+                  .map(file -> directory.relativize(file).toString())
+                  .map(path -> prefix + path.substring(0, path.length() - ".class".length())
+                                            .replace(File.separatorChar, '.'))
+                  .collect(Collectors.toList());
+    }
+  }
+
+  private static boolean isClassFile(String name) {
+    return name.endsWith(".class") && !name.endsWith("module-info.class") && !name.endsWith("package-info.class");
+  }
+
+  private static List<Class<?>> load(List<String> classNames, ClassLoader classLoader) {
+    ClassFileDiscovery classFiles = ClassFileDiscovery.on(classLoader);
+    List<Class<?>> classes = new ArrayList<>();
+
+    for (String className : classNames) {
+      try {
+        if (!classFiles.isCandidateTarget(className)) {
+          continue;
+        }
+        classes.add(Class.forName(className, false, classLoader));
+      } catch (ClassNotFoundException | LinkageError | UncheckedIOException e) {
+        System.err.println("Skipping " + className + ": " + e);
+      }
+    }
+    return classes;
+  }
+}
@@ -0,0 +1,17 @@
+package com.tiramisu.domain.objects;
+
+import lombok.Getter;
+
+@Getter
+public class Contact {
+
+  private String name;
+
+  int age;
+
+  private String note;
+
+  public void setName(String name) {
+    this.name = name;
+  }
+}
@@ -0,0 +1,373 @@
+package com.tiramisu.domain.objects;
+import java.lang.reflect.Field;
+import com.tiramisu.domain.builder.BuilderMetrics;
+import com.tiramisu.domain.builder.RandomValues;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ObjIntConsumer;
+import java.util.stream.Stream;
+import java.lang.String;
+
+@SuppressWarnings({"unused", "UnusedReturnValue", "WeakerAccess", "SameParameterValue"})
+public final class ContactBuilder {
+
+  /** This is a utility class. */
+  private ContactBuilder() {}
+
+  private static final Field NOTE = field(Contact.class, "note", "java.lang.String");
+  private static final Field NAME = field(Contact.class, "name", "java.lang.String");
+
+  private Contact _result_contact;
+  private Contact _prototype_contact;
+  private String note;
+  private String name;
+  private int age;
+
+  private long fieldsToSet;
+
+  public static ContactBuilder create() {
+    return new ContactBuilder();
+  }
+
+  private static final ThreadLocal<ContactBuilder> POOL = ThreadLocal.withInitial(ContactBuilder::new);
+
+  /**
+    * @return the builder of the current thread, {@link #reset() reset} to the state of a new builder.
+    *     Every call returns the same builder, so don't hold on to it while calling this again.
+    */
+  public static ContactBuilder pooled() {
+    ContactBuilder builder = POOL.get();
+    builder.reset();
+    return builder;
+  }
+
+  /** {@link Contact#note}. */
+  public ContactBuilder withNote(String note) {
+    this.note = note;
+    fieldsToSet |= 1L << 0;
+    return this;
+  }
+
+  /** {@link Contact#name}. */
+  public ContactBuilder withName(String name) {
+    this.name = name;
+    fieldsToSet |= 1L << 1;
+    return this;
+  }
+
+  /** {@link Contact#age}. */
+  public ContactBuilder with(int age) {
+    this.age = age;
+    fieldsToSet |= 1L << 2;
+    return this;
+  }
+
+  /**
+    * Sets all fields to the default value that the
+    * <a href="https://docs.oracle.com/javase/specs/jvms/se8/jvms8.pdf">JVM specification</a>
+    * defines in sections 2.3 and 2.4.
+    */
+  public void clear() {
+    withNote(null);
+    withName(null);
+    with(0);
+  }
+
+  /**
+    * Puts the builder back into the state it had after {@code create()}: no field is set and the next
+    * call to {@code build()} creates a new instance. This doesn't allocate anything.
+    */
+  public void reset() {
+    fieldsToSet = 0L;
+    note = null;
+    name = null;
+    age = 0;
+    _result_contact = null;
+    _prototype_contact = null;
+  }
+
+  /**
+    * Sets all fields to the random values of {@link RandomValues#DEFAULT_SEED}, so every call
+    * sets the same values. Fields of types without random values are left as they are.
+    */
+  public ContactBuilder _withDefaults() {
+    return _withDefaults(RandomValues.seeded(RandomValues.DEFAULT_SEED));
+  }
+
+  /**
+    * Sets all fields to random values from {@code random}. Fields of types without random
+    * values are left as they are.<br /><br />
+    * <b>NOTE:</b> all other calls to the builder before this method is called will have
+    * no effect.
+    */
+  public ContactBuilder _withDefaults(RandomValues random) {
+    withNote(random.nextString());
+    withName(random.nextString());
+    with(random.nextInt());
+    return this;
+  }
+
+  /**
+    * Allows to start building from a copy of an existing instance, the instance itself is not changed
+    * by {@code build()}. {@code buildMany}, {@code stream} and specs frozen from this builder start
+    * from a new copy of the instance for every instance they build. If the instance you pass to this is
+    * {@code null}, the call to this method will be ignored.
+    */
+  public void startingFrom(Contact instance) {
+    if (instance != null) {
+      fieldsToSet = 0L;
+      _prototype_contact = instance;
+      _result_contact = null;
+    }
+  }
+
+  public Contact build() {
+    if (_result_contact == null) {
+      _result_contact = _prototype_contact == null ? newInstance() : copyOf(_prototype_contact);
+    }
+    return writeFieldsTo(_result_contact);
+  }
+
+  /**
+    * Builds {@code n} new instances. Before each instance is built, {@code customizer} is called with
+    * this builder and the index of the instance, so it can change fields per instance. Changes made by
+    * the customizer are kept for the following instances.
+    */
+  public List<Contact> buildMany(int n, ObjIntConsumer<ContactBuilder> customizer) {
+    List<Contact> instances = new ArrayList<>(n);
+    for (int i = 0; i < n; i++) {
+      customizer.accept(this, i);
+      instances.add(newInstanceWithFields());
+    }
+    return instances;
+  }
+
+  /**
+    * An infinite stream of new instances that all have the fields set that are currently configured in
+    * this builder. Use {@link Stream#limit(long)} to get a finite number of instances.
+    */
+  public Stream<Contact> stream() {
+    return Stream.generate(this::newInstanceWithFields);
+  }
+
+  /**
+    * @return a new instance with the fields of this builder, or a new copy of the instance that this
+    *     builder started from
+    */
+  private Contact newInstanceWithFields() {
+    if (_prototype_contact != null) {
+      return writeFieldsTo(copyOf(_prototype_contact));
+    }
+    return writeFieldsTo(newInstance());
+  }
+
+  private static Contact newInstance() {
+    return new Contact();
+  }
+
+  /**
+    * @return an immutable snapshot of the fields set so far, which can be shared between
+    *     threads. Changing this builder afterwards doesn't change the spec.
+    */
+  public ContactSpec freeze() {
+    return new ContactSpec(copyOfBuilder());
+  }
+
+  private ContactBuilder copyOfBuilder() {
+    ContactBuilder builder = new ContactBuilder();
+    builder.note = note;
+    builder.name = name;
+    builder.age = age;
+    builder.fieldsToSet = fieldsToSet;
+    builder._prototype_contact = _prototype_contact;
+    return builder;
+  }
+
+  /** The fields of a frozen builder. All methods can be called from any thread. */
+  public static final class ContactSpec {
+
+    private final ContactBuilder template;
+
+    private ContactSpec(ContactBuilder template) {
+      this.template = template;
+    }
+
+    /** @return a new builder with the fields of this spec, to be used by a single thread */
+    public ContactBuilder newBuilder() {
+      return template.copyOfBuilder();
+    }
+
+    /** @return a new instance with the fields of this spec */
+    public Contact build() {
+      return template.newInstanceWithFields();
+    }
+
+    /**
+      * @return a new instance with the fields of this spec and random values from {@code random} in all
+      *     other fields, see {@link ContactBuilder#_withDefaults(RandomValues)}
+      */
+    public Contact build(RandomValues random) {
+      ContactBuilder randomValues = new ContactBuilder()._withDefaults(random);
+      return template.writeFieldsTo(randomValues.writeFieldsTo(newInstance()));
+    }
+  }
+
+  /**
+    * Creates a new instance with the same values in all fields of the hierarchy as {@code prototype}.
+    * The copy is shallow, objects referenced by {@code prototype} are shared with the copy.
+    */
+  public static Contact copyOf(Contact prototype) {
+    Contact copy = newInstance();
+    copyField(NOTE, prototype, copy);
+    copyField(NAME, prototype, copy);
+    copy.age = prototype.age;
+    return copy;
+  }
+
+  /**
+    * The fields of many instances as one array per field, element {@code i} of each array belongs to
+    * instance {@code i}. Columns that are {@code null} are skipped by {@code hydrate} and {@code dehydrate}.
+    */
+  public static final class ContactColumns {
+
+    public String[] note;
+    public String[] name;
+    public int[] age;
+
+    public ContactColumns() {}
+
+    /** Creates every column with {@code size} elements. */
+    public ContactColumns(int size) {
+      this.note = new String[size];
+      this.name = new String[size];
+      this.age = new int[size];
+    }
+  }
+
+  /**
+    * Creates the instances {@code from} (inclusive) to {@code to} (exclusive) of {@code instances} with the
+    * values at the same indexes of {@code columns}. Fields without a column keep their initial values.
+    * Disjoint ranges can be hydrated in parallel, e.g. in blocks of 1024 instances:
+    * <pre>{@code
+    * IntStream.range(0, (n + 1023) / 1024).parallel()
+    *          .forEach(b -> hydrate(columns, b * 1024, Math.min(n, b * 1024 + 1024), instances));
+    * }</pre>
+    */
+  public static void hydrate(ContactColumns columns, int from, int to, Contact[] instances) {
+    for (int i = from; i < to; i++) {
+      instances[i] = newInstance();
+    }
+    if (columns.note != null) {
+      String[] column = columns.note;
+      for (int i = from; i < to; i++) {
+        Contact instance = instances[i];
+        String note = column[i];
+        setField(NOTE, instance, note);
+      }
+    }
+    if (columns.name != null) {
+      String[] column = columns.name;
+      for (int i = from; i < to; i++) {
+        Contact instance = instances[i];
+        String name = column[i];
+        instance.setName(name);
+      }
+    }
+    if (columns.age != null) {
+      int[] column = columns.age;
+      for (int i = from; i < to; i++) {
+        Contact instance = instances[i];
+        int age = column[i];
+        instance.age = age;
+      }
+    }
+  }
+
+  /**
+    * Copies the fields of the instances {@code from} (inclusive) to {@code to} (exclusive) of
+    * {@code instances} to the same indexes of {@code columns}. Like {@code hydrate}, disjoint ranges can
+    * be dehydrated in parallel.
+    */
+  public static void dehydrate(Contact[] instances, int from, int to, ContactColumns columns) {
+    if (columns.note != null) {
+      String[] column = columns.note;
+      for (int i = from; i < to; i++) {
+        column[i] = (String) getField(NOTE, instances[i]);
+      }
+    }
+    if (columns.name != null) {
+      String[] column = columns.name;
+      for (int i = from; i < to; i++) {
+        column[i] = (String) getField(NAME, instances[i]);
+      }
+    }
+    if (columns.age != null) {
+      int[] column = columns.age;
+      for (int i = from; i < to; i++) {
+        column[i] = instances[i].age;
+      }
+    }
+  }
+
+  private static final long REFLECTIVELY_WRITTEN_FIELDS = 0x1L;
+
+  private Contact writeFieldsTo(Contact instance) {
+    long startNanos = BuilderMetrics.ENABLED ? System.nanoTime() : 0L;
+    if((fieldsToSet & 1L << 0) != 0) {
+       setField(NOTE, instance, note);
+    }
+    if((fieldsToSet & 1L << 1) != 0) {
+       instance.setName(name);
+    }
+    if((fieldsToSet & 1L << 2) != 0) {
+       instance.age = age;
+    }
+    if (BuilderMetrics.ENABLED) {
+      int writes = Long.bitCount(fieldsToSet);
+      int reflectiveWrites = Long.bitCount(fieldsToSet & REFLECTIVELY_WRITTEN_FIELDS);
+      BuilderMetrics.recordBuild(Contact.class, startNanos, reflectiveWrites, writes - reflectiveWrites);
+    }
+
+    return instance;
+  }
+
+  private static void setField(Field objectField, Object instance, Object fieldValue) {
+    try {
+      objectField.set(instance, fieldValue);
+    } catch (IllegalAccessException ex) {
+      throw new IllegalStateException(ex); // all handles are accessible, see field()
+    }
+  }
+
+  private static void copyField(Field objectField, Object prototype, Object copy) {
+    try {
+      objectField.set(copy, objectField.get(prototype));
+    } catch (IllegalAccessException ex) {
+      throw new IllegalStateException(ex); // all handles are accessible, see field()
+    }
+  }
+
+  private static Object getField(Field objectField, Object instance) {
+    try {
+      return objectField.get(instance);
+    } catch (IllegalAccessException ex) {
+      throw new IllegalStateException(ex); // all handles are accessible, see field()
+    }
+  }
+
+  private static Field field(Class<?> type, String fieldName, String fieldTypeName) {
+    Field objectField;
+    try {
+      objectField = type.getDeclaredField(fieldName);
+      objectField.setAccessible(true);
+    } catch (NoSuchFieldException | RuntimeException ex) {
+      throw new IllegalStateException("ContactBuilder can't access " + type.getName() + "." + fieldName
+                                      + ", generate the builder again", ex);
+    }
+    if (!objectField.getType().getTypeName().equals(fieldTypeName)) {
+      throw new IllegalStateException("ContactBuilder expects " + type.getName() + "." + fieldName
+                                      + " to be a " + fieldTypeName + ", generate the builder again");
+    }
+    return objectField;
+  }
+}
@@ -0,0 +1,23 @@
+package com.tiramisu.domain.objects;
+
+import lombok.Getter;
+
+import java.beans.ConstructorProperties;
+import java.util.List;
+
+@Getter
+public class ImmutableSub {
+
+  private final String here;
+
+  private final long longy;
+
+  private final List<String> list;
+
+  @ConstructorProperties({"here", "longy", "list"})
+  public ImmutableSub(String here, long longy, List<String> list) {
+    this.here = here;
+    this.longy = longy;
+    this.list = list;
+  }
+}
@@ -0,0 +1,13 @@
+package com.tiramisu.domain.objects;
+
+import lombok.Getter;
+
+@Getter
+public class Page {
+
+  private int size;
+
+  private long offset;
+
+  private String cursor;
+}
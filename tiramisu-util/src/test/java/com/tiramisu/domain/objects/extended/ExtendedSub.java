@@ -0,0 +1,10 @@
+package com.tiramisu.domain.objects.extended;
+
+import com.tiramisu.domain.objects.Sub;
+import lombok.Getter;
+
+@Getter
+public class ExtendedSub extends Sub {
+
+  private String extension;
+}